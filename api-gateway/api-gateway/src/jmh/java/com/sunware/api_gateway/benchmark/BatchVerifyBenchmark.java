@@ -0,0 +1,74 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sunware.api_gateway.service.TokenBatchService;
+import com.sunware.api_gateway.util.JwtUtil;
+
+/**
+ * One batch of tokens verified a token at a time, as a caller looping over single verifications does,
+ * against {@link TokenBatchService} spreading the same batch over its ForkJoinPool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchVerifyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int batchSize;
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private TokenBatchService batchService;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.newJwtUtil(algorithm, 3600000L);
+        batchService = new TokenBatchService(jwtUtil, BenchmarkFixtures.newRevocationService(jwtUtil),
+                batchSize, 0, "");
+        tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            tokens.add(jwtUtil.generateTokenWithPermissions("svc-" + i + "@sunware.com",
+                    BenchmarkFixtures.permissions(8)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchService.close();
+    }
+
+    @Benchmark
+    public void sequential(Blackhole blackhole) {
+        for (String token : tokens) {
+            blackhole.consume(jwtUtil.verifyToken(token));
+        }
+    }
+
+    @Benchmark
+    public Object batch() {
+        return batchService.verify(tokens).join();
+    }
+}
@@ -0,0 +1,136 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import com.sunware.api_gateway.filter.JwtAuthenticationFilter;
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.repository.FileRevocationStore;
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.JwtKeyLoader;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.PermissionCatalog;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+
+/**
+ * Builds the auth components outside of a Spring context, wired the same way the application wires them.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET =
+            "iPZrb83aREDEwmUwHoVNGOix6b2BYIm28YSW3nRbqFPki5K4wG980kQVHzVEsBg5NcNzvdFQFxEJvIM09snsGA==";
+
+    static final String SUBJECT = "bench@sunware.com";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil newJwtUtil(String algorithm, long expirationMs) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "algorithm", algorithm);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME_MS", expirationMs);
+        ReflectionTestUtils.setField(jwtUtil, "keyId", "bench");
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        if (!signatureAlgorithm.isHmac()) {
+            Path[] pem = keyPairFiles(signatureAlgorithm);
+            ReflectionTestUtils.setField(jwtUtil, "privateKeyPath", pem[0].toString());
+            ReflectionTestUtils.setField(jwtUtil, "publicKeyPath", pem[1].toString());
+        }
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    // One generated key pair per algorithm, so short-lived and long-lived utils verify each other's tokens
+    private static synchronized Path[] keyPairFiles(SignatureAlgorithm algorithm) {
+        try {
+            Path dir = Path.of(System.getProperty("java.io.tmpdir"), "jwt-bench-keys-" + ProcessHandle.current().pid());
+            Path privateKey = dir.resolve(algorithm.getValue() + "-private.pem");
+            Path publicKey = dir.resolve(algorithm.getValue() + "-public.pem");
+            if (!Files.exists(privateKey)) {
+                Files.createDirectories(dir);
+                KeyPair keyPair = Keys.keyPairFor(algorithm);
+                Files.writeString(privateKey, JwtKeyLoader.toPem(keyPair.getPrivate()));
+                Files.writeString(publicKey, JwtKeyLoader.toPem(keyPair.getPublic()));
+                privateKey.toFile().deleteOnExit();
+                publicKey.toFile().deleteOnExit();
+                dir.toFile().deleteOnExit();
+            }
+            return new Path[] {privateKey, publicKey};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Registers the permissions in the catalog, as PermissionCatalogService does from the permission table
+    static void usePermissionEncoding(JwtUtil jwtUtil, String encoding, Set<Permission> permissions) {
+        ReflectionTestUtils.setField(jwtUtil, "permissionEncoding", encoding);
+        jwtUtil.setPermissionCatalog(PermissionCatalog.of(permissions));
+    }
+
+    static VerifiedTokenCache newTokenCache(JwtUtil jwtUtil, boolean enabled) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil);
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 10_000L);
+        cache.init();
+        return cache;
+    }
+
+    static TokenPrecheck newPrecheck(JwtUtil jwtUtil) {
+        TokenPrecheck precheck = new TokenPrecheck(jwtUtil);
+        ReflectionTestUtils.setField(precheck, "maxTokenLength", 8192);
+        return precheck;
+    }
+
+    static JwtAuthenticationFilter newFilter(JwtUtil jwtUtil, VerifiedTokenCache cache) {
+        return new JwtAuthenticationFilter(cache, newPrecheck(jwtUtil), newRevocationService(jwtUtil),
+                AuthMetrics.noop(), AuditLog.disabled());
+    }
+
+    // Backed by an empty log in a temp file, like a fresh instance with nothing revoked
+    static TokenRevocationService newRevocationService(JwtUtil jwtUtil) {
+        try {
+            Path log = Files.createTempFile("jwt-bench-revocations", ".log");
+            log.toFile().deleteOnExit();
+            TokenRevocationService service =
+                    new TokenRevocationService(new FileRevocationStore(log.toString()), jwtUtil);
+            service.init();
+            return service;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Set<Permission> permissions(int count) {
+        Set<Permission> permissions = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            permissions.add(new Permission((long) i + 1, "permission_" + i));
+        }
+        return permissions;
+    }
+
+    // Issues a token whose exp has already passed, for the rejection paths
+    static String expiredToken(String algorithm, Set<Permission> permissions) {
+        JwtUtil shortLived = newJwtUtil(algorithm, 1L);
+        String token = shortLived.generateTokenWithPermissions(SUBJECT, permissions);
+        try {
+            Thread.sleep(5L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return token;
+    }
+}
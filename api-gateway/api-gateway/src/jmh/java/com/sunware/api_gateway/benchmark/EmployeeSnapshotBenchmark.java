@@ -0,0 +1,73 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.util.EmployeeSnapshot;
+
+/**
+ * Opening a memory-mapped employee snapshot (checksum and permission table included), as an instance does at
+ * boot, and looking employees up in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeSnapshotBenchmark {
+
+    @Param({"10000", "100000"})
+    public int employeeCount;
+
+    private Path file;
+    private EmployeeSnapshot snapshot;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<EmployeeView> employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            employees.add(new EmployeeView((long) i, "employee" + i + "@sunware.com",
+                    Set.of("read_employee", "role_" + (i % 40))));
+        }
+        file = Files.createTempFile("employees", ".snap");
+        EmployeeSnapshot.write(file, 1L, System.currentTimeMillis(), employees);
+        snapshot = EmployeeSnapshot.open(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public EmployeeSnapshot open() {
+        return EmployeeSnapshot.open(file);
+    }
+
+    @Benchmark
+    public EmployeeView find() {
+        next = (next + 7919) % employeeCount;
+        return snapshot.find("employee" + next + "@sunware.com");
+    }
+}
@@ -0,0 +1,87 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.sunware.api_gateway.filter.JwtAuthenticationFilter;
+import com.sunware.api_gateway.util.JwtUtil;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Full {@link JwtAuthenticationFilter} pass driven with mock servlet requests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"1", "8", "32"})
+    public int permissionCount;
+
+    @Param({"HS256", "HS512", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"valid", "expired", "malformed"})
+    public String validity;
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = BenchmarkFixtures.newJwtUtil(algorithm, 3600000L);
+        filter = BenchmarkFixtures.newFilter(jwtUtil, BenchmarkFixtures.newTokenCache(jwtUtil, tokenCache));
+
+        String token;
+        switch (validity) {
+            case "valid":
+                token = jwtUtil.generateTokenWithPermissions(BenchmarkFixtures.SUBJECT,
+                        BenchmarkFixtures.permissions(permissionCount));
+                break;
+            case "expired":
+                token = BenchmarkFixtures.expiredToken(algorithm, BenchmarkFixtures.permissions(permissionCount));
+                break;
+            default:
+                token = "not-a-jwt";
+        }
+
+        request = new MockHttpServletRequest("GET", "/api/read");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public int doFilter() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.util.JwtUtil;
+
+/**
+ * Token issue and verify cost through {@link JwtUtil}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int permissionCount;
+
+    @Param({"HS256", "HS384", "HS512", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"valid", "expired"})
+    public String validity;
+
+    @Param({"names", "bitset"})
+    public String permissionEncoding;
+
+    private JwtUtil jwtUtil;
+    private Set<Permission> permissions;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.newJwtUtil(algorithm, 3600000L);
+        permissions = BenchmarkFixtures.permissions(permissionCount);
+        BenchmarkFixtures.usePermissionEncoding(jwtUtil, permissionEncoding, permissions);
+        token = "valid".equals(validity)
+                ? jwtUtil.generateTokenWithPermissions(BenchmarkFixtures.SUBJECT, permissions)
+                : BenchmarkFixtures.expiredToken(algorithm, permissions);
+    }
+
+    @Benchmark
+    public String generateTokenWithPermissions() {
+        return jwtUtil.generateTokenWithPermissions(BenchmarkFixtures.SUBJECT, permissions);
+    }
+
+    // The pre-verifyToken filter path: three separate parses per request
+    @Benchmark
+    public void validateAndExtractPermissions(Blackhole blackhole) {
+        try {
+            blackhole.consume(jwtUtil.extractEmail(token));
+            blackhole.consume(jwtUtil.extractPermissions(token));
+            blackhole.consume(jwtUtil.validateToken(token));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void verifyToken(Blackhole blackhole) {
+        try {
+            blackhole.consume(jwtUtil.verifyToken(token));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-call parser/key construction (the old JwtUtil code path) against the
+ * precomputed SecretKey and shared JwtParser used by JwtUtil today.
+ * Run with {@code -prof gc} to compare the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserReuseBenchmark {
+
+    private SecretKey signingKey;
+    private JwtParser sharedParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.SECRET));
+        sharedParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        token = signWithPrecomputedKey();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Claims parseWithPerCallParser() {
+        return Jwts.parser()
+                .setSigningKey(BenchmarkFixtures.SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims parseWithSharedParser() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String signWithStringSecret() {
+        return builder()
+                .signWith(SignatureAlgorithm.HS256, BenchmarkFixtures.SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String signWithPrecomputedKey() {
+        return builder()
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static JwtBuilder builder() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(BenchmarkFixtures.SUBJECT)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 3600000L));
+    }
+}
@@ -0,0 +1,84 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.util.AntPathMatcher;
+
+import com.sunware.api_gateway.util.RoutePolicy;
+
+/**
+ * Authorizing the last route of a table: the compiled {@link RoutePolicy} against a linear walk over
+ * path matchers followed by a scan of the caller's authorities, as per-path hasAuthority rules do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePolicyBenchmark {
+
+    @Param({"10", "1000"})
+    public int routeCount;
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private RoutePolicy policy;
+    private List<String> patterns;
+    private List<String> permissions;
+    private List<GrantedAuthority> authorities;
+    private String path;
+
+    @Setup
+    public void setUp() {
+        List<RoutePolicy.Rule> rules = new ArrayList<>(routeCount);
+        patterns = new ArrayList<>(routeCount);
+        permissions = new ArrayList<>(routeCount);
+        for (int i = 0; i < routeCount; i++) {
+            String pattern = "/service" + i + "/resources/*";
+            rules.add(new RoutePolicy.Rule("route" + i, pattern, List.of(), List.of("permission" + i)));
+            patterns.add(pattern);
+            permissions.add("permission" + i);
+        }
+        policy = RoutePolicy.compile(rules);
+        path = "/service" + (routeCount - 1) + "/resources/42";
+        authorities = AuthorityUtils.createAuthorityList(
+                "read_employee", "update_employee", "permission" + (routeCount - 1));
+    }
+
+    @Benchmark
+    public boolean compiledPolicy() {
+        return policy.isAllowed("GET", path, authorities);
+    }
+
+    @Benchmark
+    public boolean linearMatchers() {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (antPathMatcher.match(patterns.get(i), path)) {
+                String required = permissions.get(i);
+                for (GrantedAuthority authority : authorities) {
+                    if (required.equals(authority.getAuthority())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.sunware.api_gateway.benchmark;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Raw jjwt sign/verify cost per algorithm, to size the crypto share of the numbers from {@link JwtUtilBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureAlgorithmBenchmark {
+
+    @Param({"HS256", "HS384", "HS512", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"1", "8", "32"})
+    public int permissionCount;
+
+    private SignatureAlgorithm signatureAlgorithm;
+    private Key signingKey;
+    private JwtParser parser;
+    private List<String> permissions;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        Key verificationKey;
+        if (signatureAlgorithm.isHmac()) {
+            signingKey = Keys.secretKeyFor(signatureAlgorithm);
+            verificationKey = signingKey;
+        } else {
+            KeyPair keyPair = Keys.keyPairFor(signatureAlgorithm);
+            signingKey = keyPair.getPrivate();
+            verificationKey = keyPair.getPublic();
+        }
+        parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+        permissions = BenchmarkFixtures.permissions(permissionCount).stream()
+                .map(permission -> permission.getName())
+                .toList();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("permissions", permissions)
+                .setSubject(BenchmarkFixtures.SUBJECT)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 3600000L))
+                .signWith(signingKey, signatureAlgorithm)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,216 @@
+package com.sunware.api_gateway.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sunware.api_gateway.util.JwtUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Connection capacity of the servlet stack under each thread model: authenticated callers go through the
+ * gateway's proxy to a local upstream that holds every request for 200 ms, so each one keeps a gateway thread
+ * blocked for that long. For each concurrency level in {@code load.capacity.levels} it reports throughput and
+ * latency, the peak of open client connections ({@code pool.http-connections-max}) and of requests actually
+ * waiting upstream ({@code upstream.in-flight-peak}). With platform threads the latter stops at Tomcat's
+ * thread pool while connections keep piling up; with virtual threads it should follow the level.
+ * <pre>
+ * mvn -Pload verify                                          # platform threads
+ * mvn -Pload,virtual-threads verify                          # virtual threads, on a JDK 21 toolchain
+ * mvn -Pload,virtual-threads verify -Dload.baseline.update=true
+ * </pre>
+ * Figures go under {@code capacity.platform-threads.} or {@code capacity.virtual-threads.} in
+ * {@code load-baseline.properties}, each model checked against its own block.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // The thread models only differ where a request holds a thread; the reactive stack never blocks one
+        "spring.main.web-application-type=servlet",
+        "gateway.proxy.max-connections=5000",
+        "gateway.proxy.max-connections-per-upstream=5000"
+})
+@ActiveProfiles("load")
+public class ConnectionCapacityLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionCapacityLoadTest.class);
+
+    private static final Path CONFIG_DIR = Path.of("target", "load-capacity");
+    private static final long UPSTREAM_DELAY_MILLIS = 200;
+
+    private static final AtomicInteger upstreamInFlight = new AtomicInteger();
+    private static final AtomicInteger upstreamInFlightMax = new AtomicInteger();
+    private static ExecutorService upstreamExecutor;
+    private static HttpServer upstream;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${load.capacity.levels}")
+    private int[] levels;
+
+    @Value("${load.capacity.warmup-seconds}")
+    private long warmupSeconds;
+
+    @Value("${load.capacity.duration-seconds}")
+    private long durationSeconds;
+
+    @Value("${load.tolerance.throughput}")
+    private double throughputTolerance;
+
+    @Value("${load.tolerance.latency}")
+    private double latencyTolerance;
+
+    @Value("${load.baseline.file}")
+    private Path baselineFile;
+
+    @Value("${load.baseline.update}")
+    private boolean updateBaseline;
+
+    @Value("${load.capacity.report.file}")
+    private Path reportFile;
+
+    // The upstream has to be listening before the context starts, so its port can go into the route table
+    @DynamicPropertySource
+    static void slowUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        upstream.createContext("/", ConnectionCapacityLoadTest::hold);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.start();
+
+        Files.createDirectories(CONFIG_DIR);
+        Path routes = Files.writeString(CONFIG_DIR.resolve("proxy-routes.properties"), String.join("\n",
+                "route.capacity.pattern=/capacity/**",
+                "route.capacity.uri=http://127.0.0.1:" + upstream.getAddress().getPort(),
+                ""));
+        Path policy = Files.writeString(CONFIG_DIR.resolve("route-policy.properties"), String.join("\n",
+                "route.capacity.pattern=/capacity/**",
+                "route.capacity.permissions=",
+                ""));
+        registry.add("gateway.proxy.routes-file", () -> routes.toAbsolutePath().toString());
+        registry.add("auth.route-policy.file", () -> policy.toAbsolutePath().toString());
+    }
+
+    private static void hold(HttpExchange exchange) throws IOException {
+        upstreamInFlightMax.accumulateAndGet(upstreamInFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(UPSTREAM_DELAY_MILLIS);
+            byte[] body = "ok".getBytes(StandardCharsets.US_ASCII);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            upstreamInFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    public void eachThreadModelHoldsItsConnectionCapacityBaseline() throws Exception {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            fail("Virtual threads were requested but Java " + Runtime.version().feature()
+                    + " has none; run -Pload,virtual-threads with a JDK 21 toolchain");
+        }
+        String model = virtual ? "virtual-threads" : "platform-threads";
+        String prefix = "capacity." + model + ".";
+        String authorization = "Bearer " + jwtUtil.generateToken("load-capacity@sunware.com", List.of());
+
+        LoadReport report = new LoadReport();
+        double saturationThroughput = 0;
+        List<String> summary = new ArrayList<>();
+        for (int level : levels) {
+            String levelPrefix = prefix + "c" + level + ".";
+            LoadClient client = new LoadClient(URI.create("http://127.0.0.1:" + port + "/"));
+            List<LoadScenario> scenarios = List.of(new LoadScenario("proxied", level, (c, worker, iteration) ->
+                    c.send("proxied", c.get("/capacity/hold", authorization), 200)));
+            try (ResourceSampler sampler = new ResourceSampler(meterRegistry, () -> { })) {
+                sampler.start();
+                double seconds = new LoadDriver(client, scenarios).run(Duration.ofSeconds(warmupSeconds),
+                        Duration.ofSeconds(durationSeconds), () -> {
+                            sampler.reset();
+                            upstreamInFlightMax.set(upstreamInFlight.get());
+                        });
+                for (OperationStats operation : client.getOperations()) {
+                    operation.reportTo(report, levelPrefix, seconds);
+                    logger.info("{} callers, responses by status: {}", level, operation.getStatusCounts());
+                }
+                sampler.reportTo(report, levelPrefix);
+            }
+            report.put(levelPrefix + "upstream.in-flight-peak", upstreamInFlightMax.get());
+
+            double throughput = report.getValues().getOrDefault(levelPrefix + "proxied.throughput", 0.0);
+            saturationThroughput = Math.max(saturationThroughput, throughput);
+            double connections = report.getValues().getOrDefault(levelPrefix + "pool.http-connections-max", 0.0);
+            summary.add(String.format(Locale.ROOT, "%5d callers: %8.1f req/s, %5s open, %5s in flight upstream",
+                    level, throughput, LoadReport.format(connections), LoadReport.format(upstreamInFlightMax.get())));
+        }
+        report.put(prefix + "saturation.throughput", saturationThroughput);
+        report.write(reportFile);
+        logger.info("Connection capacity on {}, also written to {}:\n  {}{}", model, reportFile,
+                String.join("\n  ", summary), report.format());
+
+        LoadBaseline baseline = LoadBaseline.load(baselineFile);
+        if (updateBaseline) {
+            baseline.update(baselineFile, report, prefix);
+            logger.info("Recorded the {} capacity baseline in {}", model, baselineFile);
+            return;
+        }
+        if (!baseline.covers(prefix)) {
+            logger.warn("{} has no {} capacity figures; nothing checked. Record them with "
+                    + "-Dload.baseline.update=true", baselineFile, model);
+            return;
+        }
+        List<String> regressions = baseline.regressions(report, prefix, throughputTolerance, latencyTolerance);
+        assertTrue(regressions.isEmpty(), "Regressions against " + baselineFile + ":\n  "
+                + String.join("\n  ", regressions));
+    }
+}
@@ -0,0 +1,256 @@
+package com.sunware.api_gateway.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sunware.api_gateway.model.Employee;
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.repository.EmployeeRepository;
+import com.sunware.api_gateway.repository.PermissionRepository;
+import com.sunware.api_gateway.util.JwtUtil;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Load and soak suite: boots the whole gateway on an in-memory H2 database and a local GreenMail SMTP sink,
+ * drives mixed traffic at it over real sockets, reports throughput, latency percentiles, GC and pool
+ * saturation, and fails on a regression against {@code load-baseline.properties}.
+ * <pre>
+ * mvn -Pload verify                                  # 10 s warm-up, 30 s measured
+ * mvn -Pload verify -Dload.duration-seconds=1800     # soak
+ * mvn -Pload verify -Dspring.main.web-application-type=reactive
+ * mvn -Pload,virtual-threads verify                  # servlet stack on virtual threads (JDK 21 toolchain)
+ * mvn -Pload verify -Dload.baseline.update=true      # record this machine's baseline
+ * </pre>
+ * Scenarios: OTP logins (generate, wait for the mail, validate), authenticated {@code /api} traffic, floods of
+ * expired and of malformed or forged tokens, and callers without the permission a route needs (403).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("load")
+public class GatewayLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayLoadTest.class);
+
+    private static final String GRANTED = "update_employee";
+    private static final int API_USERS = 100;
+    private static final int OTP_USERS_PER_WORKER = 20;
+    private static final Duration OTP_MAIL_TIMEOUT = Duration.ofSeconds(10);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${spring.main.web-application-type}")
+    private String stack;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${load.warmup-seconds}")
+    private long warmupSeconds;
+
+    @Value("${load.duration-seconds}")
+    private long durationSeconds;
+
+    @Value("${load.workers.otp-login}")
+    private int otpWorkers;
+
+    @Value("${load.workers.api-authenticated}")
+    private int apiWorkers;
+
+    @Value("${load.workers.token-expired}")
+    private int expiredWorkers;
+
+    @Value("${load.workers.token-malformed}")
+    private int malformedWorkers;
+
+    @Value("${load.workers.api-forbidden}")
+    private int forbiddenWorkers;
+
+    @Value("${load.tolerance.throughput}")
+    private double throughputTolerance;
+
+    @Value("${load.tolerance.latency}")
+    private double latencyTolerance;
+
+    @Value("${load.baseline.file}")
+    private Path baselineFile;
+
+    @Value("${load.baseline.update}")
+    private boolean updateBaseline;
+
+    @Value("${load.report.file}")
+    private Path reportFile;
+
+    @Test
+    public void gatewayHoldsItsBaselineUnderMixedLoad() throws Exception {
+        seedEmployees();
+        OtpMailbox mailbox = OtpMailbox.attach(greenMail);
+        LoadClient client = new LoadClient(URI.create("http://127.0.0.1:" + port + "/"));
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < API_USERS; i++) {
+            tokens.add("Bearer " + jwtUtil.generateToken(apiUser(i), List.of(GRANTED)));
+        }
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < API_USERS; i++) {
+            expired.add("Bearer " + expiredToken(apiUser(i)));
+        }
+        List<String> malformed = List.of(
+                "Bearer not-a-jwt",
+                "Bearer eyJhbGciOiJIUzI1NiJ9.bm90IGpzb24.c2ln",
+                forged(tokens.get(0)));
+
+        List<LoadScenario> scenarios = List.of(
+                new LoadScenario("otp-login", otpWorkers, (c, worker, iteration) -> {
+                    String email = otpUser(worker, (int) (iteration % OTP_USERS_PER_WORKER));
+                    mailbox.clear(email);
+                    HttpResponse<String> issued = c.send("otp-generate",
+                            c.postJson("/auth/generate-otp", "{\"email\":\"" + email + "\"}"), 200);
+                    if (issued == null || issued.statusCode() != 200) {
+                        return;
+                    }
+                    long waitStart = System.nanoTime();
+                    String otp = mailbox.await(email, OTP_MAIL_TIMEOUT);
+                    if (otp == null) {
+                        c.fail("otp-mail", System.nanoTime() - waitStart);
+                        return;
+                    }
+                    c.send("otp-validate", c.postJson("/auth/validate-otp",
+                            "{\"email\":\"" + email + "\",\"otp\":\"" + otp + "\"}"), 200);
+                }),
+                new LoadScenario("api-authenticated", apiWorkers, (c, worker, iteration) ->
+                        c.send("api-authenticated", c.get(iteration % 2 == 0 ? "/api/update" : "/api/read",
+                                tokens.get((int) ((worker * 31 + iteration) % API_USERS))), 200)),
+                new LoadScenario("token-expired", expiredWorkers, (c, worker, iteration) ->
+                        c.send("token-expired", c.get("/api/read",
+                                expired.get((int) ((worker * 31 + iteration) % API_USERS))), 401)),
+                new LoadScenario("token-malformed", malformedWorkers, (c, worker, iteration) ->
+                        c.send("token-malformed", c.get("/api/read",
+                                malformed.get((int) (iteration % malformed.size()))), 401)),
+                new LoadScenario("api-forbidden", forbiddenWorkers, (c, worker, iteration) ->
+                        c.send("api-forbidden", c.get("/api/delete",
+                                tokens.get((int) ((worker * 31 + iteration) % API_USERS))), 403)));
+
+        // Each thread model of a stack is its own block of the baseline
+        String prefix = stack.toLowerCase() + (Threading.VIRTUAL.isActive(environment) ? "-virtual-threads." : ".");
+        LoadReport report = new LoadReport();
+        try (ResourceSampler sampler = new ResourceSampler(meterRegistry, mailbox::purge)) {
+            sampler.start();
+            double seconds = new LoadDriver(client, scenarios)
+                    .run(Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(durationSeconds), sampler::reset);
+            for (OperationStats operation : client.getOperations()) {
+                operation.reportTo(report, prefix, seconds);
+                logger.info("{} responses by status: {}", operation.getName(), operation.getStatusCounts());
+            }
+            sampler.reportTo(report, prefix);
+        }
+        report.write(reportFile);
+        logger.info("Load report ({} stack), also written to {}:{}", stack, reportFile, report.format());
+
+        LoadBaseline baseline = LoadBaseline.load(baselineFile);
+        if (updateBaseline) {
+            baseline.update(baselineFile, report, prefix);
+            logger.info("Recorded the {} baseline in {}", stack, baselineFile);
+            return;
+        }
+        if (!baseline.covers(prefix)) {
+            logger.warn("{} has no {} figures; nothing checked. Record them with -Dload.baseline.update=true",
+                    baselineFile, stack);
+            return;
+        }
+        List<String> regressions = baseline.regressions(report, prefix, throughputTolerance, latencyTolerance);
+        assertTrue(regressions.isEmpty(), "Regressions against " + baselineFile + ":\n  "
+                + String.join("\n  ", regressions));
+    }
+
+    private void seedEmployees() {
+        List<Permission> permissions = permissionRepository.saveAll(List.of(
+                new Permission(null, "onboard_employee"),
+                new Permission(null, GRANTED),
+                new Permission(null, "delete_employee")));
+        Set<Permission> granted = Set.of(permissions.get(1));
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < API_USERS; i++) {
+            employees.add(new Employee(null, apiUser(i), null, granted));
+        }
+        for (int worker = 0; worker < otpWorkers; worker++) {
+            for (int i = 0; i < OTP_USERS_PER_WORKER; i++) {
+                employees.add(new Employee(null, otpUser(worker, i), null, granted));
+            }
+        }
+        employeeRepository.saveAll(employees);
+    }
+
+    private static String apiUser(int i) {
+        return "load-api-" + i + "@sunware.com";
+    }
+
+    // Each OTP worker has its own addresses, so no two workers race for the same OTP
+    private static String otpUser(int worker, int i) {
+        return "load-otp-" + worker + "-" + i + "@sunware.com";
+    }
+
+    private String expiredToken(String email) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("permissions", List.of(GRANTED))
+                .setIssuedAt(new Date(now - 7_200_000))
+                .setExpiration(new Date(now - 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Well formed and unexpired, so it gets past the precheck and fails on the signature
+    private static String forged(String authorization) {
+        char[] chars = authorization.toCharArray();
+        int i = authorization.lastIndexOf('.') + 5;
+        chars[i] = chars[i] == 'A' ? 'B' : 'A';
+        return new String(chars);
+    }
+}
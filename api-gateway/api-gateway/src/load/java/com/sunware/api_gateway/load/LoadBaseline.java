@@ -0,0 +1,119 @@
+package com.sunware.api_gateway.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The stored figures a run is checked against. Only keys of the stack under test are compared, each by the
+ * rule its metric name implies: throughput may drop by the throughput tolerance, latency percentiles, GC
+ * pause ratio, heap after GC and pool peaks may grow by the latency tolerance plus a small absolute slack
+ * (so near-zero baselines do not fail on noise), and the share of unexpected responses may grow by 0.1 point.
+ * Tail figures (p99.9, max) and counts are reported but never checked; they are too noisy to gate a build.
+ */
+final class LoadBaseline {
+
+    private static final String HEADER = String.join("\n",
+            "# Regression baseline of the load suite (mvn -Pload verify), one block per stack. Figures depend on",
+            "# the machine: record them on the machine that runs the check, with -Dload.baseline.update=true.",
+            "");
+
+    private final Map<String, Double> values;
+
+    private LoadBaseline(Map<String, Double> values) {
+        this.values = values;
+    }
+
+    static LoadBaseline load(Path file) throws IOException {
+        Map<String, Double> values = new TreeMap<>();
+        if (Files.exists(file)) {
+            Properties properties = new Properties();
+            try (Reader in = Files.newBufferedReader(file)) {
+                properties.load(in);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                values.put(key, Double.parseDouble(properties.getProperty(key).trim()));
+            }
+        }
+        return new LoadBaseline(values);
+    }
+
+    boolean covers(String prefix) {
+        return values.keySet().stream().anyMatch(key -> key.startsWith(prefix));
+    }
+
+    List<String> regressions(LoadReport report, String prefix, double throughputTolerance, double latencyTolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            double baseline = entry.getValue();
+            Double current = report.getValues().get(key);
+            if (current == null) {
+                regressions.add(key + " is in the baseline but was not reported");
+                continue;
+            }
+            String metric = key.substring(key.lastIndexOf('.') + 1);
+            double limit;
+            boolean regressed;
+            if (metric.equals("throughput")) {
+                limit = baseline * (1 - throughputTolerance);
+                regressed = current < limit;
+            } else if (metric.equals("error-rate")) {
+                limit = baseline + 0.001;
+                regressed = current > limit;
+            } else {
+                double slack = slack(metric);
+                if (Double.isNaN(slack)) {
+                    continue;
+                }
+                limit = baseline * (1 + latencyTolerance) + slack;
+                regressed = current > limit;
+            }
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s = %s, baseline %s, limit %s", key,
+                        LoadReport.format(current), LoadReport.format(baseline), LoadReport.format(limit)));
+            }
+        }
+        return regressions;
+    }
+
+    // Absolute slack of the metrics checked against the latency tolerance; NaN for metrics never checked
+    private static double slack(String metric) {
+        switch (metric) {
+            case "p50-ms":
+            case "p90-ms":
+            case "p99-ms":
+                return 1.0;
+            case "gc-pause-ratio":
+                return 0.02;
+            case "heap-after-gc-mb":
+                return 32;
+            default:
+                return metric.endsWith("-max") ? 2 : Double.NaN;
+        }
+    }
+
+    // Replaces the stack's figures with this report's, keeping the other stacks' figures
+    void update(Path file, LoadReport report, String prefix) throws IOException {
+        values.keySet().removeIf(key -> key.startsWith(prefix));
+        values.putAll(report.getValues());
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write(HEADER);
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                out.write(entry.getKey() + "=" + LoadReport.format(entry.getValue()) + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.sunware.api_gateway.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends requests to the gateway under test and times each one against the operation it belongs to. One
+ * keep-alive client is shared by all workers, as a fleet of callers behind one egress would be.
+ */
+final class LoadClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadClient.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    LoadClient(URI base) {
+        this.base = base;
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    HttpRequest get(String path, String authorization) {
+        HttpRequest.Builder request = request(path).GET();
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return request.build();
+    }
+
+    HttpRequest postJson(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    // The response, or null when it did not come back; either way the outcome is recorded
+    HttpResponse<String> send(String operation, HttpRequest request, int expectedStatus) throws InterruptedException {
+        OperationStats stats = stats(operation);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.record(response.statusCode(), response.statusCode() == expectedStatus, System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            stats.record(0, false, System.nanoTime() - start);
+            logger.debug("{} failed: {}", operation, e.toString());
+            return null;
+        }
+    }
+
+    // A step of the operation that failed without a response, such as an OTP mail that never arrived
+    void fail(String operation, long nanos) {
+        stats(operation).record(0, false, nanos);
+    }
+
+    Collection<OperationStats> getOperations() {
+        return operations.values();
+    }
+
+    private OperationStats stats(String operation) {
+        return operations.computeIfAbsent(operation, OperationStats::new);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sunware.api_gateway.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs every scenario at once on its own platform threads: a warm-up whose figures are thrown away, so JIT
+ * compilation and cache filling do not count, then the measured interval.
+ */
+final class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final LoadClient client;
+    private final List<LoadScenario> scenarios;
+
+    private volatile boolean running;
+
+    LoadDriver(LoadClient client, List<LoadScenario> scenarios) {
+        this.client = client;
+        this.scenarios = scenarios;
+    }
+
+    // Returns the measured interval in seconds; onMeasureStart runs right after the warm-up figures are dropped
+    double run(Duration warmup, Duration duration, Runnable onMeasureStart) throws InterruptedException {
+        running = true;
+        List<Thread> workers = new ArrayList<>();
+        for (LoadScenario scenario : scenarios) {
+            for (int i = 0; i < scenario.getWorkers(); i++) {
+                Thread worker = new Thread(loop(scenario, i), "load-" + scenario.getName() + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+        logger.info("Warming up for {} s with {} workers", warmup.toSeconds(), workers.size());
+        Thread.sleep(warmup.toMillis());
+
+        client.getOperations().forEach(OperationStats::reset);
+        onMeasureStart.run();
+        long start = System.nanoTime();
+        logger.info("Measuring for {} s", duration.toSeconds());
+        Thread.sleep(duration.toMillis());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(Duration.ofSeconds(35).toMillis());
+        }
+        return seconds;
+    }
+
+    private Runnable loop(LoadScenario scenario, int worker) {
+        return () -> {
+            for (long iteration = 0; running; iteration++) {
+                long start = System.nanoTime();
+                try {
+                    scenario.getIteration().run(client, worker, iteration);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    // Counted against the scenario so a broken iteration fails the run instead of going unseen
+                    client.fail(scenario.getName(), System.nanoTime() - start);
+                    logger.warn("Iteration of {} failed: {}", scenario.getName(), e.toString());
+                }
+            }
+        };
+    }
+}
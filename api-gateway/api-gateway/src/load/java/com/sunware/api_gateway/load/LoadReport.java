@@ -0,0 +1,47 @@
+package com.sunware.api_gateway.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Figures of one run as flat {@code <stack>.<operation>.<metric>} keys, written in the same properties
+ * format as the baseline so a report can be promoted to baseline as is.
+ */
+final class LoadReport {
+
+    private final Map<String, Double> values = new TreeMap<>();
+
+    void put(String key, double value) {
+        values.put(key, value);
+    }
+
+    Map<String, Double> getValues() {
+        return values;
+    }
+
+    String format() {
+        StringBuilder text = new StringBuilder();
+        values.forEach((key, value) -> text.append(String.format(Locale.ROOT, "%n  %-52s %14s", key, format(value))));
+        return text.toString();
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("# Written by the load suite; copy over load-baseline.properties to make it the baseline\n");
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                out.write(entry.getKey() + "=" + format(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+    static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.4f", value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.sunware.api_gateway.load;
+
+/**
+ * One kind of traffic: a fixed number of workers, each repeating its iteration back to back for the whole
+ * run (a closed model, so a slower gateway shows up as lower throughput and higher latency together).
+ */
+final class LoadScenario {
+
+    @FunctionalInterface
+    interface Iteration {
+        void run(LoadClient client, int worker, long iteration) throws Exception;
+    }
+
+    private final String name;
+    private final int workers;
+    private final Iteration iteration;
+
+    LoadScenario(String name, int workers, Iteration iteration) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("Workers of scenario " + name + " must not be negative");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.iteration = iteration;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+
+    Iteration getIteration() {
+        return iteration;
+    }
+}
@@ -0,0 +1,75 @@
+package com.sunware.api_gateway.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and status counts of one kind of request, recorded concurrently by every worker that sends it.
+ * Latencies go into an HdrHistogram recorder, so percentiles stay exact to three significant digits however
+ * long a soak runs, in constant memory.
+ */
+final class OperationStats {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final String name;
+    private final Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder unexpected = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    // Status 0 stands for an I/O failure or a step that could not be sent at all
+    void record(int status, boolean expected, long nanos) {
+        latencies.recordValue(Math.min(Math.max(nanos, 0), MAX_LATENCY_NANOS));
+        requests.increment();
+        if (!expected) {
+            unexpected.increment();
+        }
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    // Drops everything recorded so far; called when the warm-up ends
+    void reset() {
+        latencies.reset();
+        requests.reset();
+        unexpected.reset();
+        statuses.clear();
+    }
+
+    void reportTo(LoadReport report, String prefix, double seconds) {
+        Histogram histogram = latencies.getIntervalHistogram();
+        long count = requests.sum();
+        report.put(prefix + name + ".requests", count);
+        report.put(prefix + name + ".throughput", count / seconds);
+        report.put(prefix + name + ".error-rate", count == 0 ? 0 : (double) unexpected.sum() / count);
+        report.put(prefix + name + ".p50-ms", millis(histogram.getValueAtPercentile(50)));
+        report.put(prefix + name + ".p90-ms", millis(histogram.getValueAtPercentile(90)));
+        report.put(prefix + name + ".p99-ms", millis(histogram.getValueAtPercentile(99)));
+        report.put(prefix + name + ".p999-ms", millis(histogram.getValueAtPercentile(99.9)));
+        report.put(prefix + name + ".max-ms", millis(histogram.getMaxValue()));
+    }
+
+    Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
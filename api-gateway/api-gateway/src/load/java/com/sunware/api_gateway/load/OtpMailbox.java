@@ -0,0 +1,71 @@
+package com.sunware.api_gateway.load;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.icegreen.greenmail.base.GreenMailOperations;
+import com.icegreen.greenmail.mail.MailAddress;
+import com.icegreen.greenmail.user.MessageDeliveryHandler;
+import com.icegreen.greenmail.util.GreenMailUtil;
+
+/**
+ * Hands OTPs from the local SMTP sink to the workers waiting for them, as each mail is delivered, instead
+ * of having every worker scan the mailboxes. Delivered mails are purged periodically so a soak does not
+ * fill the heap with them.
+ */
+final class OtpMailbox {
+
+    private static final Pattern OTP = Pattern.compile("Your OTP code is: (\\S+)");
+
+    private final GreenMailOperations greenMail;
+    private final Map<String, BlockingQueue<String>> otpsByEmail = new ConcurrentHashMap<>();
+
+    private OtpMailbox(GreenMailOperations greenMail) {
+        this.greenMail = greenMail;
+    }
+
+    static OtpMailbox attach(GreenMailOperations greenMail) {
+        OtpMailbox mailbox = new OtpMailbox(greenMail);
+        MessageDeliveryHandler delivery = greenMail.getUserManager().getMessageDeliveryHandler();
+        greenMail.getUserManager().setMessageDeliveryHandler((message, address) -> {
+            mailbox.received(address, GreenMailUtil.getBody(message.getMessage()));
+            return delivery.handle(message, address);
+        });
+        return mailbox;
+    }
+
+    private void received(MailAddress address, String body) {
+        Matcher otp = OTP.matcher(body);
+        if (otp.find()) {
+            queue(address.getEmail()).offer(otp.group(1));
+        }
+    }
+
+    // Forget OTPs of earlier requests that were never picked up
+    void clear(String email) {
+        queue(email).clear();
+    }
+
+    // The next OTP mailed to this address, or null if none arrives in time
+    String await(String email, Duration timeout) throws InterruptedException {
+        return queue(email).poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void purge() {
+        try {
+            greenMail.purgeEmailFromAllMailboxes();
+        } catch (Exception e) {
+            // Retried on the next housekeeping round
+        }
+    }
+
+    private BlockingQueue<String> queue(String email) {
+        return otpsByEmail.computeIfAbsent(email.toLowerCase(), e -> new LinkedBlockingQueue<>());
+    }
+}
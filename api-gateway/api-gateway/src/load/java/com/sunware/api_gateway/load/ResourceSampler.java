@@ -0,0 +1,128 @@
+package com.sunware.api_gateway.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Watches the gateway's pools and the JVM while the load runs: the peak of each pool gauge (a pool at its
+ * limit, or requests waiting on one, is saturation), GC counts and pause time, and the heap left after
+ * collection. The load driver shares the JVM, so GC figures include its own allocation.
+ */
+final class ResourceSampler implements AutoCloseable {
+
+    private static final long SAMPLE_INTERVAL_MS = 200;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 5000;
+
+    // Report key to meter name; meters that are not registered in the running stack are skipped
+    private static final Map<String, String> POOL_GAUGES = new LinkedHashMap<>();
+
+    static {
+        POOL_GAUGES.put("pool.db-active-max", "hikaricp.connections.active");
+        POOL_GAUGES.put("pool.db-pending-max", "hikaricp.connections.pending");
+        POOL_GAUGES.put("pool.http-threads-busy-max", "tomcat.threads.busy");
+        POOL_GAUGES.put("pool.http-connections-max", "tomcat.connections.current");
+        POOL_GAUGES.put("pool.otp-mail-queue-max", "auth.otp.mail.queue.depth");
+        POOL_GAUGES.put("pool.audit-buffer-max", "auth.audit.buffer.depth");
+    }
+
+    private final MeterRegistry registry;
+    private final Runnable housekeeping;
+    private final Map<String, Double> peaks = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long startNanos;
+    private long startGcCount;
+    private long startGcMillis;
+    private double heapUsedMaxMb;
+
+    ResourceSampler(MeterRegistry registry, Runnable housekeeping) {
+        this.registry = registry;
+        this.housekeeping = housekeeping;
+    }
+
+    void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(housekeeping, HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Forgets the warm-up: peaks and GC totals count from here
+    synchronized void reset() {
+        peaks.clear();
+        heapUsedMaxMb = 0;
+        startNanos = System.nanoTime();
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+    }
+
+    private synchronized void sample() {
+        POOL_GAUGES.forEach((key, meter) -> {
+            Gauge gauge = registry.find(meter).gauge();
+            if (gauge != null && !Double.isNaN(gauge.value())) {
+                peaks.merge(key, gauge.value(), Math::max);
+            }
+        });
+        heapUsedMaxMb = Math.max(heapUsedMaxMb,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0));
+    }
+
+    synchronized void reportTo(LoadReport report, String prefix) {
+        sample();
+        double wallMillis = (System.nanoTime() - startNanos) / 1e6;
+        long gcMillis = gcMillis() - startGcMillis;
+        report.put(prefix + "jvm.gc-count", gcCount() - startGcCount);
+        report.put(prefix + "jvm.gc-pause-ms", gcMillis);
+        report.put(prefix + "jvm.gc-pause-ratio", wallMillis <= 0 ? 0 : gcMillis / wallMillis);
+        report.put(prefix + "jvm.heap-used-max-mb", heapUsedMaxMb);
+        report.put(prefix + "jvm.heap-after-gc-mb", heapAfterGcMb());
+        peaks.forEach((key, peak) -> report.put(prefix + key, peak));
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    // Heap in use right after the last collection of each pool; growth across a soak points at a leak
+    private static double heapAfterGcMb() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used / (1024.0 * 1024.0);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -2,11 +2,15 @@ package com.sunware.api_gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 //import org.springframework.context.annotation.Bean;
 //import org.springframework.cloud.gateway.route.RouteLocator;
 //import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class ApiGatewayApplication {
 
 	public static void main(String[] args) {
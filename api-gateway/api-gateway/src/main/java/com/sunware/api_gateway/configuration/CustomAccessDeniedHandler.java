@@ -1,28 +1,45 @@
 package com.sunware.api_gateway.configuration;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.VerifiedToken;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomAccessDeniedHandler implements AccessDeniedHandler {
 
+    static final byte[] FORBIDDEN_BODY =
+            "{\"error\": \"Forbidden\", \"message\": \"You do not have permission to access this resource.\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private AuditLog auditLog;
+
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException accessDeniedException)
             throws IOException {
+        authMetrics.rejected(RejectionReason.FORBIDDEN);
+        VerifiedToken token = (VerifiedToken) request.getAttribute(VerifiedToken.ATTRIBUTE);
+        auditLog.accessDenied(token != null ? token.getSubject() : null, request.getRequestURI(),
+                request.getRemoteAddr());
         response.setContentType("application/json");
         response.setStatus(HttpServletResponse.SC_FORBIDDEN);
 
-        String jsonResponse = "{\"error\": \"Forbidden\", \"message\": \"You do not have permission to access this resource.\"}";
-
-        try (PrintWriter out = response.getWriter()) {
-            out.print(jsonResponse);
-            out.flush();
-        }
+        response.setContentLength(FORBIDDEN_BODY.length);
+        response.getOutputStream().write(FORBIDDEN_BODY);
     }
 }
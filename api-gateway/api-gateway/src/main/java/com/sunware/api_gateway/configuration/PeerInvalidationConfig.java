@@ -0,0 +1,108 @@
+package com.sunware.api_gateway.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import com.sunware.api_gateway.model.Invalidation;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.service.EmployeeDirectoryService;
+import com.sunware.api_gateway.service.PeerDirectory;
+import com.sunware.api_gateway.service.PeerInvalidationBus;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.InvalidationCodec;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Peer invalidation bus between the gateway instances, off unless {@code gateway.peers.enabled} is set. Peers
+ * come from {@code gateway.peers.static} and from discovery, where each instance advertises its bus port as
+ * the {@code peer-port} metadata entry (see application.properties).
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.peers.enabled", havingValue = "true")
+public class PeerInvalidationConfig {
+
+    @Value("${gateway.peers.port:9190}")
+    private int port;
+
+    @Value("${gateway.peers.key:}")
+    private String key;
+
+    @Value("${gateway.peers.static:}")
+    private String staticPeers;
+
+    @Value("${gateway.peers.service-id:${spring.application.name}}")
+    private String serviceId;
+
+    @Value("${gateway.peers.batch-delay-ms:20}")
+    private long batchDelayMs;
+
+    @Value("${gateway.peers.log-size:10000}")
+    private int logSize;
+
+    @Value("${gateway.peers.anti-entropy-interval-ms:5000}")
+    private long antiEntropyIntervalMs;
+
+    @Value("${gateway.peers.timeout-ms:1000}")
+    private long timeoutMs;
+
+    @Bean
+    public PeerDirectory peerDirectory(ObjectProvider<DiscoveryClient> discoveryClient) {
+        return new PeerDirectory(discoveryClient, serviceId, PeerDirectory.parse(staticPeers));
+    }
+
+    @Bean(destroyMethod = "stop")
+    public PeerInvalidationBus peerInvalidationBus(PeerDirectory peerDirectory,
+                                                   EmployeeDirectoryService employeeDirectoryService,
+                                                   TokenRevocationService tokenRevocationService) throws IOException {
+        if (key.isBlank()) {
+            throw new IllegalStateException("gateway.peers.key must be set when the peer bus is enabled");
+        }
+        PeerInvalidationBus bus = new PeerInvalidationBus(
+                new InvalidationCodec(Base64.getDecoder().decode(key.trim())), peerDirectory::peers,
+                new LocalTarget(employeeDirectoryService, tokenRevocationService),
+                port, batchDelayMs, logSize, antiEntropyIntervalMs, timeoutMs);
+        bus.start();
+        return bus;
+    }
+
+    // Applies what peers send straight to the services, bypassing the events that would publish it again
+    private static final class LocalTarget implements PeerInvalidationBus.Target {
+
+        private final EmployeeDirectoryService employeeDirectoryService;
+        private final TokenRevocationService tokenRevocationService;
+
+        private LocalTarget(EmployeeDirectoryService employeeDirectoryService,
+                            TokenRevocationService tokenRevocationService) {
+            this.employeeDirectoryService = employeeDirectoryService;
+            this.tokenRevocationService = tokenRevocationService;
+        }
+
+        @Override
+        public void apply(Invalidation invalidation) {
+            if (invalidation.getType() == Invalidation.Type.REVOCATION) {
+                tokenRevocationService.applyPeerRevocations(List.of(invalidation.getRevocation()));
+            } else if (invalidation.getEmail() != null) {
+                employeeDirectoryService.invalidate(invalidation.getEmail());
+            } else {
+                employeeDirectoryService.invalidateAll();
+            }
+        }
+
+        @Override
+        public void resync(List<Revocation> revocations) {
+            employeeDirectoryService.invalidateAll();
+            tokenRevocationService.applyPeerRevocations(revocations);
+        }
+
+        @Override
+        public List<Revocation> activeRevocations() {
+            return tokenRevocationService.getRevocations().getEntries();
+        }
+    }
+}
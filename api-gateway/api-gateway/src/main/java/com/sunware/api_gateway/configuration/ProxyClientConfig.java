@@ -0,0 +1,110 @@
+package com.sunware.api_gateway.configuration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Upstream HTTP clients for the reverse proxy, one per web stack. Both keep connections open and pooled per
+ * upstream host, never retry (a streamed body cannot be replayed) and leave redirects, cookies and content
+ * encoding to the caller.
+ */
+@Configuration
+public class ProxyClientConfig {
+
+    @Value("${gateway.proxy.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${gateway.proxy.max-connections-per-upstream:100}")
+    private int maxConnectionsPerUpstream;
+
+    @Value("${gateway.proxy.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${gateway.proxy.pool-timeout-ms:1000}")
+    private long poolTimeoutMs;
+
+    @Value("${gateway.proxy.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    // Servlet edition: blocking HTTP/1.1 keep-alive connections
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public PoolingHttpClientConnectionManager proxyConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerUpstream)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX) // Per-host locks rather than one pool-wide lock
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public CloseableHttpClient proxyHttpClient(PoolingHttpClientConnectionManager proxyConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(proxyConnectionManager)
+                .disableAutomaticRetries()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .disableContentCompression()
+                .disableAuthCaching()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MeterBinder proxyConnectionPoolMetrics(PoolingHttpClientConnectionManager proxyConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(proxyConnectionManager, "upstream");
+    }
+
+    // Reactive edition: reactor-netty pools per upstream address, so the per-upstream limit applies here.
+    // HTTP/2 is negotiated with https upstreams that offer it; plain http upstreams get HTTP/1.1
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ConnectionProvider proxyConnectionProvider() {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnectionsPerUpstream)
+                .pendingAcquireTimeout(Duration.ofMillis(poolTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(idleTimeoutMs))
+                .evictInBackground(Duration.ofMillis(idleTimeoutMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebClient proxyWebClient(ConnectionProvider proxyConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(proxyConnectionProvider)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs);
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
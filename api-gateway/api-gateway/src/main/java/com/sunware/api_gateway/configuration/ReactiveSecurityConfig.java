@@ -0,0 +1,86 @@
+package com.sunware.api_gateway.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import com.sunware.api_gateway.filter.ReactiveJwtAuthenticationFilter;
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Security for the WebFlux edition ({@code spring.main.web-application-type=reactive}); mirrors {@link SecurityConfig},
+ * including the route permissions, which both stacks take from {@link RoutePolicyAuthorizationManager}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    // Bounded pool for the blocking parts of authentication: JPA lookups, the OTP store and JWT verification
+    @Bean(destroyMethod = "dispose")
+    public Scheduler authScheduler(@Value("${auth.reactive.scheduler.threads:64}") int threads,
+                                   @Value("${auth.reactive.scheduler.queue-capacity:10000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "auth");
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         VerifiedTokenCache verifiedTokenCache,
+                                                         TokenPrecheck tokenPrecheck,
+                                                         TokenRevocationService tokenRevocationService,
+                                                         AuthMetrics authMetrics,
+                                                         AuditLog auditLog,
+                                                         Scheduler authScheduler,
+                                                         RoutePolicyAuthorizationManager routePolicy) {
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()) // Stateless
+            .exceptionHandling(exceptions -> exceptions
+                .accessDeniedHandler((exchange, denied) -> {
+                    authMetrics.rejected(RejectionReason.FORBIDDEN);
+                    VerifiedToken token = exchange.getAttribute(VerifiedToken.ATTRIBUTE);
+                    auditLog.accessDenied(token != null ? token.getSubject() : null,
+                            exchange.getRequest().getPath().pathWithinApplication().value(),
+                            ReactiveJwtAuthenticationFilter.clientIp(exchange.getRequest()));
+                    return forbidden(exchange.getResponse());
+                }))
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/auth/**").permitAll() // Public access to auth endpoints
+                .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Probes and scrapers
+                .anyExchange().access(routePolicy) // Authenticated, with the route-policy.properties permissions
+            )
+            .addFilterAt(new ReactiveJwtAuthenticationFilter(verifiedTokenCache, tokenPrecheck,
+                    tokenRevocationService, authMetrics, auditLog, authScheduler),
+                    SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+
+    private static Mono<Void> forbidden(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(CustomAccessDeniedHandler.FORBIDDEN_BODY.length);
+        DataBuffer body = response.bufferFactory().wrap(CustomAccessDeniedHandler.FORBIDDEN_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,124 @@
+package com.sunware.api_gateway.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.stereotype.Component;
+import com.sunware.api_gateway.util.FileChangeWatcher;
+import com.sunware.api_gateway.util.RequestPath;
+import com.sunware.api_gateway.util.RoutePolicy;
+import com.sunware.api_gateway.util.RoutePolicyLoader;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Enforces the {@link RoutePolicy} table for every request that is not public, in place of per-method
+ * {@code @PreAuthorize} checks. The table comes from the classpath or, when {@code auth.route-policy.file}
+ * is set, from a local file that is reloaded whenever it changes; a reload that fails keeps the current table.
+ * Both security chains use it, and it checks the {@link RequestPath decoded} path the controllers and the
+ * proxy dispatch on. Paths that cannot be decoded safely are denied.
+ */
+@Component
+public class RoutePolicyAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext>,
+        ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutePolicyAuthorizationManager.class);
+
+    private static final String DEFAULT_POLICY = "route-policy.properties";
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    @Value("${auth.route-policy.file:}")
+    private String policyFile;
+
+    private volatile RoutePolicy routePolicy = RoutePolicy.EMPTY;
+    private FileChangeWatcher policyWatcher;
+
+    @PostConstruct
+    public void init() {
+        if (policyFile == null || policyFile.isEmpty()) {
+            try (InputStream in = new ClassPathResource(DEFAULT_POLICY).getInputStream()) {
+                routePolicy = RoutePolicyLoader.load(in, DEFAULT_POLICY);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + DEFAULT_POLICY, e);
+            }
+        } else {
+            Path file = Path.of(policyFile);
+            routePolicy = RoutePolicyLoader.load(file);
+            policyWatcher = FileChangeWatcher.watch(file, this::reload, "route-policy-watcher");
+        }
+        logger.info("Loaded route policy with {} routes", routePolicy.getRules().size());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (policyWatcher != null) {
+            policyWatcher.close();
+        }
+    }
+
+    public void reload() {
+        if (policyFile == null || policyFile.isEmpty()) {
+            return;
+        }
+        try {
+            routePolicy = RoutePolicyLoader.load(Path.of(policyFile));
+            logger.info("Reloaded route policy from {}: {}", policyFile, routePolicy.getRules());
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload route policy from {}: {}", policyFile, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        HttpServletRequest request = context.getRequest();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return decide(authentication.get(), request.getMethod(), path);
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        ServerHttpRequest request = context.getExchange().getRequest();
+        return authentication
+                .map(auth -> decide(auth, request.getMethod().name(), request.getPath().pathWithinApplication().value()))
+                .defaultIfEmpty(DENIED);
+    }
+
+    // Anonymous callers are denied everywhere the policy applies, as anyRequest().authenticated() did
+    public AuthorizationDecision decide(Authentication authentication, String method, String rawPath) {
+        if (authentication == null || !authentication.isAuthenticated() || trustResolver.isAnonymous(authentication)) {
+            return DENIED;
+        }
+        String path;
+        try {
+            path = RequestPath.decode(rawPath);
+        } catch (IllegalArgumentException e) {
+            return DENIED;
+        }
+        return routePolicy.isAllowed(method, path, authentication.getAuthorities()) ? GRANTED : DENIED;
+    }
+
+    public RoutePolicy getRoutePolicy() {
+        return routePolicy;
+    }
+}
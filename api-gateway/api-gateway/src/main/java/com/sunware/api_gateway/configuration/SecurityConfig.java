@@ -1,10 +1,10 @@
 package com.sunware.api_gateway.configuration;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -13,9 +13,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import com.sunware.api_gateway.filter.JwtAuthenticationFilter;
 import com.sunware.api_gateway.util.JwtUtil;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
     @Autowired
@@ -27,6 +29,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RoutePolicyAuthorizationManager routePolicyAuthorizationManager;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf().disable() // Disable CSRF protection for stateless APIs
@@ -37,8 +42,10 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Stateless session management
             .authorizeHttpRequests(authz -> authz
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Authorized on the original dispatch
                 .requestMatchers("/auth/**").permitAll() // Public access to auth endpoints
-                .anyRequest().authenticated() // All other requests must be authenticated
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Probes and scrapers
+                .anyRequest().access(routePolicyAuthorizationManager) // Authenticated, with the route-policy.properties permissions
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class); // Add JWT filter
 
@@ -0,0 +1,113 @@
+package com.sunware.api_gateway.configuration;
+
+import org.apache.coyote.AbstractProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reports which thread model serves requests, and sizes the socket and database pool limits for it.
+ * <p>
+ * Setting {@code spring.threads.virtual.enabled=true} makes Spring Boot run Tomcat's request handling,
+ * {@code @Scheduled} tasks and the application task executor on virtual threads, so the blocking JPA,
+ * OTP store and JWT work behind {@code /auth/**} no longer needs one platform thread (and its stack) per
+ * concurrent request. Boot silently keeps platform threads on runtimes older than Java 21, so say so here.
+ * Run with {@code -Djdk.tracePinnedThreads=short} to log any remaining carrier pinning.
+ * <p>
+ * The {@code gateway.virtual-threads.*} limits only apply while virtual threads are active; platform threads
+ * keep Tomcat's and Hikari's defaults. An explicit {@code server.tomcat.*} or {@code spring.datasource.hikari.*}
+ * setting is left alone in either mode.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    public void reportThreadModel() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Handling requests on virtual threads");
+        } else if (requested) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "handling requests on platform threads", JavaVersion.getJavaVersion());
+        } else {
+            logger.info("Handling requests on platform threads");
+        }
+    }
+
+    // Without a worker thread cap, Tomcat's socket limit is what bounds concurrent requests
+    @Configuration
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(TomcatServletWebServerFactory.class)
+    static class VirtualThreadTomcatLimits {
+
+        @Bean
+        public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadConnectionLimits(
+                Environment environment,
+                @Value("${gateway.virtual-threads.tomcat.max-connections:10000}") int maxConnections,
+                @Value("${gateway.virtual-threads.tomcat.accept-count:1000}") int acceptCount) {
+            boolean keepMaxConnections = environment.containsProperty("server.tomcat.max-connections");
+            boolean keepAcceptCount = environment.containsProperty("server.tomcat.accept-count");
+            return factory -> factory.addConnectorCustomizers(connector -> {
+                if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                    if (!keepMaxConnections) {
+                        protocol.setMaxConnections(maxConnections);
+                    }
+                    if (!keepAcceptCount) {
+                        protocol.setAcceptCount(acceptCount);
+                    }
+                }
+            });
+        }
+    }
+
+    // Far more requests can wait for a database connection than the pool holds; fail them fast instead of
+    // queueing them for Hikari's 30 s default
+    @Configuration
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnClass(HikariDataSource.class)
+    static class VirtualThreadPoolLimits {
+
+        @Bean
+        public static BeanPostProcessor virtualThreadPoolLimits(
+                Environment environment,
+                @Value("${gateway.virtual-threads.db.maximum-pool-size:20}") int maximumPoolSize,
+                @Value("${gateway.virtual-threads.db.connection-timeout-ms:5000}") long connectionTimeoutMs) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof HikariDataSource dataSource) {
+                        if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                            dataSource.setMaximumPoolSize(maximumPoolSize);
+                        }
+                        if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                            dataSource.setConnectionTimeout(connectionTimeoutMs);
+                        }
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
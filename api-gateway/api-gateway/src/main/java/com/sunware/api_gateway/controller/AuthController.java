@@ -1,18 +1,33 @@
 package com.sunware.api_gateway.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.sunware.api_gateway.service.AuthRateLimiter;
 import com.sunware.api_gateway.service.AuthService;
+import com.sunware.api_gateway.service.OtpDispatchRejectedException;
+import com.sunware.api_gateway.service.RateLimitExceededException;
+import com.sunware.api_gateway.service.RefreshTokenService;
+import com.sunware.api_gateway.service.TokenRevocationService;
 import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedToken;
 import com.sunware.api_gateway.model.Permission; // Import Permission model if necessary
+import com.sunware.api_gateway.model.TokenPair;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/auth")
 public class AuthController {
 
@@ -22,36 +37,117 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long jwksMaxAgeSeconds;
+
     // Endpoint to request OTP
     @PostMapping("/generate-otp")
-    public ResponseEntity<String> generateOtp(@RequestBody Map<String, String> request) {
+    public ResponseEntity<String> generateOtp(@RequestBody Map<String, String> request,
+                                              HttpServletRequest httpRequest) {
         String email = request.get("email");
         try {
-            authService.generateOtp(email);
+            authRateLimiter.checkOtpRequest(email, httpRequest.getRemoteAddr());
+            authService.generateOtp(email, httpRequest.getRemoteAddr());
             return ResponseEntity.ok("OTP sent to your email.");
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e).body(e.getMessage());
+        } catch (OtpDispatchRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
     @PostMapping("/validate-otp")
-    public ResponseEntity<Map<String, String>> validateOtp(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, String>> validateOtp(@RequestBody Map<String, String> request,
+                                                          HttpServletRequest httpRequest) {
         String email = request.get("email");
         String otp = request.get("otp");
 
         try {
+            // Locked-out emails and noisy clients are turned away before the OTP store is consulted
+            authRateLimiter.checkOtpValidation(email, httpRequest.getRemoteAddr());
+
             // Validate OTP and retrieve JWT
-            String jwt = authService.validateOtpAndGenerateToken(email, otp);
+            TokenPair tokens = authService.validateOtpAndGenerateToken(email, otp, httpRequest.getRemoteAddr());
 
-            // Prepare response with both message and JWT token
+            // Prepare response with the message, the JWT token and its refresh token
             Map<String, String> response = Map.of(
                 "message", "OTP validated successfully",
-                "token", jwt
+                "token", tokens.getAccessToken(),
+                "refreshToken", tokens.getRefreshToken()
             );
             return ResponseEntity.ok(response);
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e).body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                  .body(Map.of("message", e.getMessage()));
         }
     }
+
+    // Trades a refresh token for a new access token and its successor refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@RequestBody Map<String, String> request,
+                                                       HttpServletRequest httpRequest) {
+        try {
+            authRateLimiter.checkRefresh(httpRequest.getRemoteAddr());
+            TokenPair tokens = refreshTokenService.refresh(request.get("refreshToken"));
+            return ResponseEntity.ok(Map.of(
+                "token", tokens.getAccessToken(),
+                "refreshToken", tokens.getRefreshToken()
+            ));
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Revokes the bearer token itself, so it stops working before its exp, and ends the refresh session if given.
+    // The bearer is checked first, and the refresh token is only revoked if it was issued to the same user
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> request) {
+        if (authorization == null || !authorization.startsWith(TokenPrecheck.BEARER_PREFIX)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body(Map.of("message", "Authorization header missing or invalid."));
+        }
+        try {
+            String token = authorization.substring(TokenPrecheck.BEARER_PREFIX.length());
+            VerifiedToken bearer = tokenRevocationService.checkNotRevoked(jwtUtil.verifyToken(token));
+            tokenRevocationService.revokeToken(token);
+            if (request != null) {
+                refreshTokenService.revoke(request.get("refreshToken"), bearer.getSubject());
+            }
+            return ResponseEntity.ok(Map.of("message", "Logged out."));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Public verification keys so downstream services can check tokens locally
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(jwtUtil.getJwks());
+    }
+
+    private static ResponseEntity.BodyBuilder tooManyRequests(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
 }
@@ -0,0 +1,34 @@
+package com.sunware.api_gateway.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.sunware.api_gateway.service.EmployeePermissionsChangedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Admin endpoint for permission changes made outside the gateway: drops the cached employee (every employee
+// when no email is given) here and, with the peer bus enabled, on every other instance.
+// Callers need update_employee, see route-policy.properties
+@RestController
+@RequestMapping("/admin/employees")
+public class EmployeeCacheController {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostMapping("/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidate(@RequestBody(required = false) Map<String, String> request) {
+        String email = request == null ? null : request.get("email");
+        if (email != null && email.isBlank()) {
+            email = null;
+        }
+        eventPublisher.publishEvent(new EmployeePermissionsChangedEvent(email));
+        Map<String, Object> response = new HashMap<>();
+        response.put("invalidated", email == null ? "*" : email);
+        return ResponseEntity.ok(response);
+    }
+}
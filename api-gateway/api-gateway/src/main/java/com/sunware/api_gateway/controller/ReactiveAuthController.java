@@ -0,0 +1,158 @@
+package com.sunware.api_gateway.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+
+import com.sunware.api_gateway.filter.ReactiveJwtAuthenticationFilter;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.service.AuthRateLimiter;
+import com.sunware.api_gateway.service.AuthService;
+import com.sunware.api_gateway.service.OtpDispatchRejectedException;
+import com.sunware.api_gateway.service.RateLimitExceededException;
+import com.sunware.api_gateway.service.RefreshTokenService;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// WebFlux edition of AuthController; the blocking AuthService calls run on the bounded auth scheduler
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/auth")
+public class ReactiveAuthController {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private Scheduler authScheduler;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long jwksMaxAgeSeconds;
+
+    // Endpoint to request OTP; the rate limits are in-memory, so they are checked on the event loop
+    @PostMapping("/generate-otp")
+    public Mono<ResponseEntity<String>> generateOtp(@RequestBody Map<String, String> request,
+                                                    ServerHttpRequest httpRequest) {
+        String email = request.get("email");
+        String clientIp = clientIp(httpRequest);
+        try {
+            authRateLimiter.checkOtpRequest(email, clientIp);
+        } catch (RateLimitExceededException e) {
+            return Mono.just(tooManyRequests(e).body(e.getMessage()));
+        }
+        return Mono.fromCallable(() -> authService.generateOtp(email, clientIp))
+                .subscribeOn(authScheduler)
+                .map(otp -> ResponseEntity.ok("OTP sent to your email."))
+                .onErrorResume(OtpDispatchRejectedException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())));
+    }
+
+    @PostMapping("/validate-otp")
+    public Mono<ResponseEntity<Map<String, String>>> validateOtp(@RequestBody Map<String, String> request,
+                                                                 ServerHttpRequest httpRequest) {
+        String email = request.get("email");
+        String otp = request.get("otp");
+        String clientIp = clientIp(httpRequest);
+        try {
+            authRateLimiter.checkOtpValidation(email, clientIp);
+        } catch (RateLimitExceededException e) {
+            return Mono.just(tooManyRequests(e).body(Map.of("message", e.getMessage())));
+        }
+
+        return Mono.fromCallable(() -> authService.validateOtpAndGenerateToken(email, otp, clientIp))
+                .subscribeOn(authScheduler)
+                .map(tokens -> ResponseEntity.ok(Map.of(
+                        "message", "OTP validated successfully",
+                        "token", tokens.getAccessToken(),
+                        "refreshToken", tokens.getRefreshToken())))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", e.getMessage()))));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<Map<String, String>>> refresh(@RequestBody Map<String, String> request,
+                                                             ServerHttpRequest httpRequest) {
+        String refreshToken = request.get("refreshToken");
+        try {
+            authRateLimiter.checkRefresh(clientIp(httpRequest));
+        } catch (RateLimitExceededException e) {
+            return Mono.just(tooManyRequests(e).body(Map.of("message", e.getMessage())));
+        }
+        return Mono.fromCallable(() -> refreshTokenService.refresh(refreshToken))
+                .subscribeOn(authScheduler)
+                .map(tokens -> ResponseEntity.ok(Map.of(
+                        "token", tokens.getAccessToken(),
+                        "refreshToken", tokens.getRefreshToken())))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", e.getMessage()))));
+    }
+
+    // Revokes the bearer token itself and ends the refresh session if given, only when it was issued to the bearer's
+    // user; store writes run on the auth scheduler
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Map<String, String>>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> request) {
+        String refreshToken = request == null ? null : request.get("refreshToken");
+        if (authorization == null || !authorization.startsWith(TokenPrecheck.BEARER_PREFIX)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Authorization header missing or invalid.")));
+        }
+        String token = authorization.substring(TokenPrecheck.BEARER_PREFIX.length());
+        return Mono.fromCallable(() -> {
+                    VerifiedToken bearer = tokenRevocationService.checkNotRevoked(jwtUtil.verifyToken(token));
+                    Revocation revocation = tokenRevocationService.revokeToken(token);
+                    refreshTokenService.revoke(refreshToken, bearer.getSubject());
+                    return revocation;
+                })
+                .subscribeOn(authScheduler)
+                .map(revocation -> ResponseEntity.ok(Map.of("message", "Logged out.")))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", e.getMessage()))));
+    }
+
+    // Public verification keys; already in memory, so served straight from the event loop
+    @GetMapping("/.well-known/jwks.json")
+    public Mono<ResponseEntity<Map<String, Object>>> jwks() {
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(jwtUtil.getJwks()));
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        return ReactiveJwtAuthenticationFilter.clientIp(request);
+    }
+
+    private static ResponseEntity.BodyBuilder tooManyRequests(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.sunware.api_gateway.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.service.TokenRevocationService;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Admin endpoints for revoking tokens before they expire; issuedBefore is an ISO-8601 instant, default now.
+// Callers need revoke_tokens, see route-policy.properties
+@RestController
+@RequestMapping("/admin/revocations")
+public class RevocationController {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> revokeToken(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(toResponse(tokenRevocationService.revokeToken(request.get("token"))));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/user")
+    public ResponseEntity<Map<String, Object>> revokeUser(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(toResponse(tokenRevocationService.revokeUser(
+                    request.get("email"), issuedBefore(request))));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/issued-before")
+    public ResponseEntity<Map<String, Object>> revokeIssuedBefore(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(toResponse(tokenRevocationService.revokeIssuedBefore(issuedBefore(request))));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static long issuedBefore(Map<String, String> request) {
+        String value = request.get("issuedBefore");
+        if (value == null || value.isEmpty()) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("issuedBefore must be an ISO-8601 instant, e.g. 2024-01-31T12:00:00Z");
+        }
+    }
+
+    private static Map<String, Object> toResponse(Revocation revocation) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("type", revocation.getType().name());
+        if (revocation.getType() != Revocation.Type.ALL) {
+            response.put("key", revocation.getKey());
+        }
+        if (revocation.getType() != Revocation.Type.TOKEN) {
+            response.put("issuedBefore", Instant.ofEpochMilli(revocation.getIssuedBeforeMillis()).toString());
+        }
+        response.put("expiresAt", Instant.ofEpochMilli(revocation.getExpiresAtMillis()).toString());
+        return response;
+    }
+}
@@ -0,0 +1,84 @@
+package com.sunware.api_gateway.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.bind.annotation.*;
+
+import com.sunware.api_gateway.service.TokenBatchService;
+import com.sunware.api_gateway.util.TokenVerificationResult;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Bulk endpoints for batch jobs and sidecars; the work runs on TokenBatchService's pool, not the request thread.
+// Callers need verify_tokens or issue_tokens, see route-policy.properties; issuing is limited to svc: subjects
+// and to issuable permissions the caller holds
+@RestController
+@RequestMapping("/tokens")
+public class TokenBatchController {
+
+    @Autowired
+    private TokenBatchService tokenBatchService;
+
+    // {"tokens": [...]} -> {"results": [...]}: {"valid", "subject", "permissions", "expiresAt"} or {"valid", "error"}
+    @PostMapping("/verify")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> verify(
+            @RequestBody Map<String, List<String>> request) {
+        try {
+            return tokenBatchService.verify(request.get("tokens"))
+                    .thenApply(results -> ResponseEntity.ok(Map.of("results", toResponse(results))));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage())));
+        }
+    }
+
+    // {"subjects": [...], "permissions": [...]} -> {"tokens": [{"subject", "token"}]}, one token per subject
+    @PostMapping("/issue")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> issue(
+            @RequestBody Map<String, List<String>> request, Authentication authentication) {
+        List<String> subjects = request.get("subjects");
+        List<String> permissions = request.getOrDefault("permissions", List.of());
+        Set<String> callerPermissions = AuthorityUtils.authorityListToSet(authentication.getAuthorities());
+        try {
+            return tokenBatchService.issue(subjects, permissions, callerPermissions)
+                    .thenApply(tokens -> {
+                        List<Map<String, String>> issued = new ArrayList<>(tokens.size());
+                        for (int i = 0; i < tokens.size(); i++) {
+                            issued.add(Map.of("subject", subjects.get(i), "token", tokens.get(i)));
+                        }
+                        return ResponseEntity.ok(Map.of("tokens", issued));
+                    });
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage())));
+        }
+    }
+
+    private static List<Map<String, Object>> toResponse(List<TokenVerificationResult> results) {
+        List<Map<String, Object>> response = new ArrayList<>(results.size());
+        for (TokenVerificationResult result : results) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("valid", result.isValid());
+            if (result.isValid()) {
+                VerifiedToken token = result.getToken();
+                entry.put("subject", token.getSubject());
+                entry.put("permissions", token.getPermissions());
+                entry.put("expiresAt", Instant.ofEpochMilli(token.getExpirationMillis()).toString());
+            } else {
+                entry.put("error", result.getRejection().getTag());
+            }
+            response.add(entry);
+        }
+        return response;
+    }
+}
@@ -1,7 +1,14 @@
 package com.sunware.api_gateway.filter;
 
-import com.sunware.api_gateway.util.JwtUtil;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.InvalidTokenException;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -12,22 +19,38 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.GrantedAuthority;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    // Error bodies are written as-is on every rejected request, so build them once
+    static final byte[] MISSING_TOKEN_BODY = errorBody("Bad Request", "Authorization header missing or invalid.");
+    static final byte[] INVALID_TOKEN_BODY = errorBody("Unauthorized", "Invalid or expired JWT token.");
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenPrecheck tokenPrecheck;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+    private final AuditLog auditLog;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenPrecheck tokenPrecheck,
+                                   TokenRevocationService tokenRevocationService, AuthMetrics authMetrics,
+                                   AuditLog auditLog) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenPrecheck = tokenPrecheck;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authMetrics = authMetrics;
+        this.auditLog = auditLog;
+    }
+
+    // Public endpoints: the auth flow itself, plus health and metrics for probes and scrapers
+    static boolean isPublicPath(String path) {
+        return path.startsWith("/auth/") || path.equals("/actuator/health") || path.equals("/actuator/prometheus");
     }
 
     @Override
@@ -36,58 +59,56 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Bypass JWT processing for public endpoints like /auth/**
         String requestURI = request.getRequestURI();
-        if (requestURI.startsWith("/auth/")) {
+        if (isPublicPath(requestURI)) {
             chain.doFilter(request, response);
             return;
         }
 
+        final long start = System.nanoTime();
         final String authorizationHeader = request.getHeader("Authorization");
 
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            logger.warn("Authorization header is missing or does not contain Bearer token.");
-            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, "Authorization header missing or invalid.");
+        // Junk and expired tokens are turned away here, before any signature work
+        TokenPrecheck.Result precheck = tokenPrecheck.check(authorizationHeader, System.currentTimeMillis());
+        if (precheck != TokenPrecheck.Result.PASSED) {
+            logger.debug("Rejected request to {} before verification: {}", requestURI, precheck);
+            RejectionReason reason = RejectionReason.of(precheck);
+            authMetrics.rejected(reason, start);
+            auditLog.tokenRejected(reason, requestURI, request.getRemoteAddr());
+            if (precheck == TokenPrecheck.Result.MISSING) {
+                sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, MISSING_TOKEN_BODY);
+            } else {
+                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, INVALID_TOKEN_BODY);
+            }
             return;
         }
 
-        String jwtToken = authorizationHeader.substring(7);
+        String jwtToken = authorizationHeader.substring(TokenPrecheck.BEARER_PREFIX.length());
         String email;
-        Set<String> permissions;
 
         try {
-            logger.info("Processing JWT token.");
-            email = jwtUtil.extractEmail(jwtToken);
-            permissions = jwtUtil.extractPermissions(jwtToken);
-
-            if (email == null || permissions == null) {
-                logger.warn("Email or permissions extracted from token are null.");
-                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token.");
-                return;
-            }
-
-            List<GrantedAuthority> authorities = permissions.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-            logger.debug("Token details: email={}, permissions={}", email, permissions);
-
-            if (jwtUtil.validateToken(jwtToken)) {
-                logger.info("Token is valid. Setting authentication context for user: {}", email);
-
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        email, null, authorities);
-
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.info("Successfully authenticated user: {}", email);
-
-            } else {
-                logger.warn("Token validation failed for user: {}", email);
-                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token.");
-                return;
-            }
+            // One parse covers signature, expiry, subject and permissions; cache hits skip it entirely.
+            // The revocation check is not cached, so a revoked token stops working immediately
+            VerifiedToken verifiedToken = tokenRevocationService.checkNotRevoked(
+                    verifiedTokenCache.verify(jwtToken));
+            email = verifiedToken.getSubject();
+            logger.debug("Token details: email={}, permissions={}", email, verifiedToken.getPermissions());
+
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    email, null, verifiedToken.getAuthorities());
+
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            request.setAttribute(VerifiedToken.ATTRIBUTE, verifiedToken);
+            authMetrics.authenticated(start);
+            auditLog.tokenAccepted(email, requestURI, request.getRemoteAddr());
 
         } catch (Exception e) {
-            logger.error("Error while processing JWT token: {}", e.getMessage());
-            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired JWT token.");
+            logger.debug("Error while processing JWT token: {}", e.getMessage());
+            RejectionReason reason = e instanceof InvalidTokenException
+                    ? ((InvalidTokenException) e).getReason() : RejectionReason.MALFORMED;
+            authMetrics.rejected(reason, start);
+            auditLog.tokenRejected(reason, requestURI, request.getRemoteAddr());
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, INVALID_TOKEN_BODY);
             return;
         }
 
@@ -96,24 +117,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
-    private void sendErrorResponse(HttpServletResponse response, int statusCode, String message) throws IOException {
+    private void sendErrorResponse(HttpServletResponse response, int statusCode, byte[] body) throws IOException {
         response.setContentType("application/json");
         response.setStatus(statusCode);
-        String jsonResponse = String.format("{\"error\": \"%s\", \"message\": \"%s\"}", getErrorTitle(statusCode), message);
-        try (PrintWriter out = response.getWriter()) {
-            out.print(jsonResponse);
-            out.flush();
-        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 
-    private String getErrorTitle(int statusCode) {
-        switch (statusCode) {
-            case HttpServletResponse.SC_BAD_REQUEST:
-                return "Bad Request";
-            case HttpServletResponse.SC_UNAUTHORIZED:
-                return "Unauthorized";
-            default:
-                return "Error";
-        }
+    static byte[] errorBody(String error, String message) {
+        return ("{\"error\": \"" + error + "\", \"message\": \"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
     }
 }
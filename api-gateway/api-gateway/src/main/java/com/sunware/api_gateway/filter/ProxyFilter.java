@@ -0,0 +1,253 @@
+package com.sunware.api_gateway.filter;
+
+import com.sunware.api_gateway.service.IdentityAssertionService;
+import com.sunware.api_gateway.service.ProxyRouteService;
+import com.sunware.api_gateway.service.UpstreamResolver;
+import com.sunware.api_gateway.service.UpstreamUnavailableException;
+import com.sunware.api_gateway.util.ProxyFailure;
+import com.sunware.api_gateway.util.ProxyHeaders;
+import com.sunware.api_gateway.util.ProxyMetrics;
+import com.sunware.api_gateway.util.ProxyRoute;
+import com.sunware.api_gateway.util.RequestPath;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.identity.IdentityHeader;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reverse proxy for the routes in {@link ProxyRouteService}. It runs after the security filter chain, so the
+ * caller is already authenticated and the route policy applied; requests no route matches carry on to the
+ * local controllers.
+ * <p>
+ * Bodies are streamed in both directions through one small buffer per request, never held whole in memory,
+ * over keep-alive connections pooled per upstream. A response is flushed to the caller whenever the upstream
+ * has nothing more buffered, so event streams and long polls pass through as they arrive. Authenticated
+ * requests carry the signed {@link IdentityHeader} from {@link IdentityAssertionService} when it is enabled.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProxyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyFilter.class);
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Map<ProxyFailure, byte[]> FAILURE_BODIES = failureBodies();
+
+    private final ProxyRouteService proxyRouteService;
+    private final UpstreamResolver upstreamResolver;
+    private final CloseableHttpClient proxyHttpClient;
+    private final ProxyMetrics proxyMetrics;
+    private final IdentityAssertionService identityAssertionService;
+    private final Timeout poolTimeout;
+
+    // One request config per distinct route timeout
+    private final Map<Duration, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+
+    public ProxyFilter(ProxyRouteService proxyRouteService, UpstreamResolver upstreamResolver,
+                       CloseableHttpClient proxyHttpClient, ProxyMetrics proxyMetrics,
+                       IdentityAssertionService identityAssertionService,
+                       @Value("${gateway.proxy.pool-timeout-ms:1000}") long poolTimeoutMs) {
+        this.proxyRouteService = proxyRouteService;
+        this.upstreamResolver = upstreamResolver;
+        this.proxyHttpClient = proxyHttpClient;
+        this.proxyMetrics = proxyMetrics;
+        this.identityAssertionService = identityAssertionService;
+        this.poolTimeout = Timeout.ofMilliseconds(poolTimeoutMs);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        // Matched and forwarded in the decoded form the route policy checked; a path that does not decode
+        // safely was already denied there unless public, and is never forwarded
+        String path;
+        try {
+            path = RequestPath.decode(request.getRequestURI().substring(request.getContextPath().length()));
+        } catch (IllegalArgumentException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ProxyRoute route = proxyRouteService.match(request.getMethod(), path);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        URI target;
+        try {
+            target = route.targetUri(upstreamResolver.choose(route), path, request.getQueryString());
+        } catch (UpstreamUnavailableException e) {
+            fail(route, ProxyFailure.NO_UPSTREAM, e, request, response, start);
+            return;
+        }
+
+        HttpUriRequestBase upstreamRequest = new HttpUriRequestBase(request.getMethod(), target);
+        copyRequestHeaders(request, upstreamRequest, route.isForwardAuthorization());
+        String identity = identityAssertionService.assertionFor(
+                (VerifiedToken) request.getAttribute(VerifiedToken.ATTRIBUTE), System.currentTimeMillis());
+        if (identity != null) {
+            upstreamRequest.setHeader(IdentityHeader.NAME, identity);
+        }
+        if (hasBody(request)) {
+            upstreamRequest.setEntity(new InputStreamEntity(request.getInputStream(), request.getContentLengthLong(),
+                    null));
+        }
+        upstreamRequest.setConfig(requestConfigs.computeIfAbsent(route.getResponseTimeout(), this::requestConfig));
+
+        try {
+            // The client releases the connection to the pool once the body has been read to the end, and
+            // discards it if the handler fails part way
+            int status = proxyHttpClient.execute(upstreamRequest,
+                    upstreamResponse -> copyResponse(upstreamResponse, response));
+            proxyMetrics.proxied(route.getName(), status, start);
+        } catch (IOException e) {
+            fail(route, classify(e), e, request, response, start);
+        }
+    }
+
+    private RequestConfig requestConfig(Duration responseTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(poolTimeout)
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .setRedirectsEnabled(false)
+                .build();
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private static void copyRequestHeaders(HttpServletRequest request, HttpUriRequestBase upstreamRequest,
+                                           boolean forwardAuthorization) {
+        Set<String> connectionOptions =
+                ProxyHeaders.connectionOptions(Collections.list(request.getHeaders(ProxyHeaders.CONNECTION)));
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (ProxyHeaders.isForwardedToUpstream(name, connectionOptions, forwardAuthorization)) {
+                Enumeration<String> values = request.getHeaders(name);
+                while (values.hasMoreElements()) {
+                    upstreamRequest.addHeader(name, values.nextElement());
+                }
+            }
+        }
+        upstreamRequest.setHeader(ProxyHeaders.X_FORWARDED_FOR,
+                ProxyHeaders.forwardedFor(request.getHeader(ProxyHeaders.X_FORWARDED_FOR), request.getRemoteAddr()));
+        upstreamRequest.setHeader(ProxyHeaders.X_FORWARDED_PROTO, request.getScheme());
+        String host = request.getHeader("Host");
+        if (host != null) {
+            upstreamRequest.setHeader(ProxyHeaders.X_FORWARDED_HOST, host);
+        }
+    }
+
+    private static int copyResponse(ClassicHttpResponse upstreamResponse, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(upstreamResponse.getCode());
+        List<String> connection = new ArrayList<>(1);
+        for (Header header : upstreamResponse.getHeaders(ProxyHeaders.CONNECTION)) {
+            connection.add(header.getValue());
+        }
+        Set<String> connectionOptions = ProxyHeaders.connectionOptions(connection);
+        for (Header header : upstreamResponse.getHeaders()) {
+            if (!ProxyHeaders.isHopByHop(header.getName(), connectionOptions)) {
+                response.addHeader(header.getName(), header.getValue());
+            }
+        }
+        HttpEntity entity = upstreamResponse.getEntity();
+        if (entity != null) {
+            // Not closed here: closing an unfinished body would read the rest of it first
+            InputStream in = entity.getContent();
+            ServletOutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        }
+        return upstreamResponse.getCode();
+    }
+
+    private void fail(ProxyRoute route, ProxyFailure failure, Exception e, HttpServletRequest request,
+                      HttpServletResponse response, long start) throws IOException {
+        proxyMetrics.failed(route.getName(), failure, start);
+        if (response.isCommitted()) {
+            // Part of the upstream response is already out; rethrowing makes the container drop the connection
+            // rather than end the body as if it were complete
+            logger.debug("Proxying {} {} via route {} broke off: {}", request.getMethod(), request.getRequestURI(),
+                    route.getName(), e.toString());
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+        logger.warn("Proxying {} {} via route {} failed ({}): {}", request.getMethod(), request.getRequestURI(),
+                route.getName(), failure.getTag(), e.toString());
+        byte[] body = FAILURE_BODIES.get(failure);
+        response.reset();
+        response.setStatus(failure.getStatus());
+        response.setContentType("application/json");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static ProxyFailure classify(IOException e) {
+        if (e instanceof ConnectionRequestTimeoutException) {
+            return ProxyFailure.POOL_EXHAUSTED;
+        }
+        if (e instanceof SocketTimeoutException) { // Connect and response timeouts
+            return ProxyFailure.TIMEOUT;
+        }
+        if (e instanceof ConnectException || e instanceof UnknownHostException || e instanceof NoRouteToHostException) {
+            return ProxyFailure.CONNECT_FAILED;
+        }
+        return ProxyFailure.FAILED;
+    }
+
+    static byte[] failureBody(ProxyFailure failure) {
+        return FAILURE_BODIES.get(failure);
+    }
+
+    private static Map<ProxyFailure, byte[]> failureBodies() {
+        Map<ProxyFailure, byte[]> bodies = new EnumMap<>(ProxyFailure.class);
+        for (ProxyFailure failure : ProxyFailure.values()) {
+            bodies.put(failure, JwtAuthenticationFilter.errorBody(failure.getError(), failure.getMessage()));
+        }
+        return bodies;
+    }
+}
@@ -0,0 +1,130 @@
+package com.sunware.api_gateway.filter;
+
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.InvalidTokenException;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link JwtAuthenticationFilter}.
+ * <p>
+ * Token verification runs on the bounded auth scheduler, never on a Netty event-loop thread, and the
+ * resulting authentication is handed downstream through {@link ReactiveSecurityContextHolder}.
+ * Not a {@code @Component}: it is added to the security filter chain only, so WebFlux does not also
+ * register it as a global filter.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveJwtAuthenticationFilter.class);
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenPrecheck tokenPrecheck;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+    private final AuditLog auditLog;
+    private final Scheduler authScheduler;
+
+    public ReactiveJwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenPrecheck tokenPrecheck,
+                                           TokenRevocationService tokenRevocationService,
+                                           AuthMetrics authMetrics, AuditLog auditLog, Scheduler authScheduler) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenPrecheck = tokenPrecheck;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authMetrics = authMetrics;
+        this.auditLog = auditLog;
+        this.authScheduler = authScheduler;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // Bypass JWT processing for public endpoints like /auth/**
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (JwtAuthenticationFilter.isPublicPath(path)) {
+            return chain.filter(exchange);
+        }
+
+        // The precheck is a short in-memory scan, cheap enough for the event loop
+        long start = System.nanoTime();
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        TokenPrecheck.Result precheck = tokenPrecheck.check(authorizationHeader, System.currentTimeMillis());
+        if (precheck != TokenPrecheck.Result.PASSED) {
+            logger.debug("Rejected request to {} before verification: {}", path, precheck);
+            RejectionReason reason = RejectionReason.of(precheck);
+            authMetrics.rejected(reason, start);
+            auditLog.tokenRejected(reason, path, clientIp(exchange.getRequest()));
+            return precheck == TokenPrecheck.Result.MISSING
+                    ? sendErrorResponse(exchange.getResponse(), HttpStatus.BAD_REQUEST,
+                            JwtAuthenticationFilter.MISSING_TOKEN_BODY)
+                    : sendErrorResponse(exchange.getResponse(), HttpStatus.UNAUTHORIZED,
+                            JwtAuthenticationFilter.INVALID_TOKEN_BODY);
+        }
+
+        String jwtToken = authorizationHeader.substring(TokenPrecheck.BEARER_PREFIX.length());
+        return Mono.fromCallable(() -> verifiedTokenCache.verify(jwtToken))
+                .subscribeOn(authScheduler)
+                .map(tokenRevocationService::checkNotRevoked)
+                .doOnNext(verifiedToken -> exchange.getAttributes().put(VerifiedToken.ATTRIBUTE, verifiedToken))
+                .map(ReactiveJwtAuthenticationFilter::toAuthentication)
+                .doOnNext(authentication -> {
+                    authMetrics.authenticated(start);
+                    auditLog.tokenAccepted(authentication.getName(), path, clientIp(exchange.getRequest()));
+                })
+                .onErrorResume(e -> {
+                    logger.debug("Error while processing JWT token: {}", e.getMessage());
+                    RejectionReason reason = e instanceof InvalidTokenException
+                            ? ((InvalidTokenException) e).getReason() : RejectionReason.MALFORMED;
+                    authMetrics.rejected(reason, start);
+                    auditLog.tokenRejected(reason, path, clientIp(exchange.getRequest()));
+                    return Mono.empty();
+                })
+                .flatMap(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+                        .thenReturn(authentication))
+                .switchIfEmpty(Mono.defer(() -> sendErrorResponse(exchange.getResponse(),
+                        HttpStatus.UNAUTHORIZED, JwtAuthenticationFilter.INVALID_TOKEN_BODY).then(Mono.empty())))
+                .then();
+    }
+
+    // The peer's address; behind a proxy, set server.forward-headers-strategy so this is the client's
+    public static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static UsernamePasswordAuthenticationToken toAuthentication(VerifiedToken verifiedToken) {
+        return new UsernamePasswordAuthenticationToken(
+                verifiedToken.getSubject(), null, verifiedToken.getAuthorities());
+    }
+
+    private static Mono<Void> sendErrorResponse(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,199 @@
+package com.sunware.api_gateway.filter;
+
+import com.sunware.api_gateway.service.IdentityAssertionService;
+import com.sunware.api_gateway.service.ProxyRouteService;
+import com.sunware.api_gateway.service.UpstreamResolver;
+import com.sunware.api_gateway.service.UpstreamUnavailableException;
+import com.sunware.api_gateway.util.ProxyFailure;
+import com.sunware.api_gateway.util.ProxyHeaders;
+import com.sunware.api_gateway.util.ProxyMetrics;
+import com.sunware.api_gateway.util.ProxyRoute;
+import com.sunware.api_gateway.util.RequestPath;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.identity.IdentityHeader;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * WebFlux edition of {@link ProxyFilter}. It runs after the security web filter chain and forwards matching
+ * requests on the event loop: request and response bodies flow through as data buffers with back-pressure,
+ * so a slow caller or upstream holds at most a few buffers, never the whole body.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProxyFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProxyFilter.class);
+
+    private final ProxyRouteService proxyRouteService;
+    private final UpstreamResolver upstreamResolver;
+    private final WebClient proxyWebClient;
+    private final ProxyMetrics proxyMetrics;
+    private final IdentityAssertionService identityAssertionService;
+
+    public ReactiveProxyFilter(ProxyRouteService proxyRouteService, UpstreamResolver upstreamResolver,
+                               WebClient proxyWebClient, ProxyMetrics proxyMetrics,
+                               IdentityAssertionService identityAssertionService) {
+        this.proxyRouteService = proxyRouteService;
+        this.upstreamResolver = upstreamResolver;
+        this.proxyWebClient = proxyWebClient;
+        this.proxyMetrics = proxyMetrics;
+        this.identityAssertionService = identityAssertionService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        // Same decoded path as the route policy and the servlet ProxyFilter
+        String path;
+        try {
+            path = RequestPath.decode(request.getPath().pathWithinApplication().value());
+        } catch (IllegalArgumentException e) {
+            return chain.filter(exchange);
+        }
+        ProxyRoute route = proxyRouteService.match(request.getMethod().name(), path);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        final long start = System.nanoTime();
+        URI target;
+        try {
+            target = route.targetUri(upstreamResolver.choose(route), path, request.getURI().getRawQuery());
+        } catch (UpstreamUnavailableException e) {
+            return fail(exchange, route, ProxyFailure.NO_UPSTREAM, e, start);
+        }
+
+        String identity = identityAssertionService.assertionFor(exchange.getAttribute(VerifiedToken.ATTRIBUTE),
+                System.currentTimeMillis());
+        WebClient.RequestBodySpec upstreamRequest = proxyWebClient.method(request.getMethod())
+                .uri(target)
+                .headers(headers -> {
+                    copyRequestHeaders(request, headers, route.isForwardAuthorization());
+                    if (identity != null) {
+                        headers.set(IdentityHeader.NAME, identity);
+                    }
+                })
+                .httpRequest(httpRequest -> {
+                    HttpClientRequest nativeRequest = httpRequest.getNativeRequest();
+                    nativeRequest.responseTimeout(route.getResponseTimeout());
+                });
+        if (hasBody(request)) {
+            upstreamRequest.body(BodyInserters.fromDataBuffers(request.getBody()));
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        return upstreamRequest
+                .exchangeToMono(upstreamResponse -> {
+                    HttpStatusCode status = upstreamResponse.statusCode();
+                    response.setStatusCode(status);
+                    HttpHeaders headers = response.getHeaders();
+                    HttpHeaders upstreamHeaders = upstreamResponse.headers().asHttpHeaders();
+                    Set<String> connectionOptions =
+                            ProxyHeaders.connectionOptions(upstreamHeaders.get(ProxyHeaders.CONNECTION));
+                    for (Map.Entry<String, List<String>> header : upstreamHeaders.entrySet()) {
+                        if (!ProxyHeaders.isHopByHop(header.getKey(), connectionOptions)) {
+                            headers.addAll(header.getKey(), header.getValue());
+                        }
+                    }
+                    return response.writeWith(upstreamResponse.bodyToFlux(DataBuffer.class))
+                            .doOnSuccess(done -> proxyMetrics.proxied(route.getName(), status.value(), start));
+                })
+                .onErrorResume(e -> fail(exchange, route, classify(e), e, start));
+    }
+
+    private static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private static void copyRequestHeaders(ServerHttpRequest request, HttpHeaders upstreamHeaders,
+                                           boolean forwardAuthorization) {
+        HttpHeaders headers = request.getHeaders();
+        Set<String> connectionOptions = ProxyHeaders.connectionOptions(headers.get(ProxyHeaders.CONNECTION));
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (ProxyHeaders.isForwardedToUpstream(header.getKey(), connectionOptions, forwardAuthorization)) {
+                upstreamHeaders.addAll(header.getKey(), header.getValue());
+            }
+        }
+        // A known length is passed on so the body is not re-framed as chunked, which not every upstream reads
+        long contentLength = headers.getContentLength();
+        if (contentLength > 0) {
+            upstreamHeaders.setContentLength(contentLength);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null) {
+            upstreamHeaders.set(ProxyHeaders.X_FORWARDED_FOR, ProxyHeaders.forwardedFor(
+                    headers.getFirst(ProxyHeaders.X_FORWARDED_FOR), remoteAddress.getAddress().getHostAddress()));
+        }
+        upstreamHeaders.set(ProxyHeaders.X_FORWARDED_PROTO, request.getURI().getScheme());
+        String host = headers.getFirst(HttpHeaders.HOST);
+        if (host != null) {
+            upstreamHeaders.set(ProxyHeaders.X_FORWARDED_HOST, host);
+        }
+    }
+
+    private Mono<Void> fail(ServerWebExchange exchange, ProxyRoute route, ProxyFailure failure, Throwable e,
+                            long start) {
+        proxyMetrics.failed(route.getName(), failure, start);
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            // Part of the upstream response is already out; the error closes the connection instead of ending
+            // the body as if it were complete
+            logger.debug("Proxying {} {} via route {} broke off: {}", request.getMethod(), request.getPath(),
+                    route.getName(), e.toString());
+            return Mono.error(e);
+        }
+        logger.warn("Proxying {} {} via route {} failed ({}): {}", request.getMethod(), request.getPath(),
+                route.getName(), failure.getTag(), e.toString());
+        byte[] body = ProxyFilter.failureBody(failure);
+        response.getHeaders().clear();
+        response.setStatusCode(HttpStatusCode.valueOf(failure.getStatus()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    static ProxyFailure classify(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // reactor-netty shades its pool, so its acquire exceptions are matched by name
+            if (cause.getClass().getSimpleName().startsWith("PoolAcquire")) {
+                return ProxyFailure.POOL_EXHAUSTED;
+            }
+            if (cause instanceof ReadTimeoutException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.channel.ConnectTimeoutException) {
+                return ProxyFailure.TIMEOUT;
+            }
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException) {
+                return ProxyFailure.CONNECT_FAILED;
+            }
+        }
+        return ProxyFailure.FAILED;
+    }
+}
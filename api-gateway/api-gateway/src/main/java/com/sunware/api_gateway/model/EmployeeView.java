@@ -0,0 +1,72 @@
+package com.sunware.api_gateway.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-only view of an employee and the names of its permissions.
+ * Detached from JPA so it can be cached and shared between threads.
+ */
+public final class EmployeeView {
+
+    private final Long id;
+    private final String email;
+    private final Set<String> permissions;
+
+    public EmployeeView(Long id, String email, Set<String> permissions) {
+        this.id = id;
+        this.email = email;
+        this.permissions = Collections.unmodifiableSet(new LinkedHashSet<>(permissions));
+    }
+
+    public static EmployeeView of(Employee employee) {
+        Set<String> names = new LinkedHashSet<>();
+        if (employee.getPermissions() != null) {
+            for (Permission permission : employee.getPermissions()) {
+                names.add(permission.getName());
+            }
+        }
+        return new EmployeeView(employee.getId(), employee.getEmail(), names);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EmployeeView)) {
+            return false;
+        }
+        EmployeeView other = (EmployeeView) o;
+        return Objects.equals(id, other.id) && Objects.equals(email, other.email)
+                && permissions.equals(other.permissions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email, permissions);
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeView{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", permissions=" + permissions +
+                '}';
+    }
+}
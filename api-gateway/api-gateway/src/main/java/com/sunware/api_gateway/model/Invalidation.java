@@ -0,0 +1,70 @@
+package com.sunware.api_gateway.model;
+
+import java.util.Objects;
+
+/**
+ * A change one gateway instance tells its peers about, so they drop or update in-memory state: an employee
+ * whose permissions changed (every employee when the email is null), or a new token revocation.
+ */
+public final class Invalidation {
+
+    public enum Type {
+        EMPLOYEE,
+        REVOCATION
+    }
+
+    private final Type type;
+    private final String email;
+    private final Revocation revocation;
+
+    private Invalidation(Type type, String email, Revocation revocation) {
+        this.type = type;
+        this.email = email;
+        this.revocation = revocation;
+    }
+
+    public static Invalidation employee(String email) {
+        return new Invalidation(Type.EMPLOYEE, email, null);
+    }
+
+    public static Invalidation revocation(Revocation revocation) {
+        return new Invalidation(Type.REVOCATION, null, Objects.requireNonNull(revocation));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Invalidation)) {
+            return false;
+        }
+        Invalidation other = (Invalidation) o;
+        return type == other.type && Objects.equals(email, other.email)
+                && Objects.equals(revocation, other.revocation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, email, revocation);
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.EMPLOYEE
+                ? "Invalidation{employee=" + (email == null ? "*" : email) + '}'
+                : "Invalidation{" + revocation + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.sunware.api_gateway.model;
+
+/**
+ * Stored state of one refresh token. Only a SHA-256 digest of the token is kept; every token rotated
+ * out of the same login shares its familyId, so a replayed token can end the whole session.
+ */
+public final class RefreshToken {
+
+    private final String tokenHash;
+    private final String familyId;
+    private final String email;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+    private final boolean used;
+
+    public RefreshToken(String tokenHash, String familyId, String email, long issuedAtMillis, long expiresAtMillis,
+                        boolean used) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.email = email;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.used = used;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public RefreshToken markUsed() {
+        return new RefreshToken(tokenHash, familyId, email, issuedAtMillis, expiresAtMillis, true);
+    }
+}
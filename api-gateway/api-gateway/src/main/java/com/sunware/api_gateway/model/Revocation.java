@@ -0,0 +1,92 @@
+package com.sunware.api_gateway.model;
+
+import java.util.Objects;
+
+/**
+ * One entry of the token denylist. An entry is only kept until {@code expiresAtMillis}, the point after
+ * which every token it covers has expired on its own.
+ */
+public final class Revocation {
+
+    public enum Type {
+        // A single token, keyed by its jti claim
+        TOKEN,
+        // Every token of one subject issued before issuedBeforeMillis
+        USER,
+        // Every token issued before issuedBeforeMillis; the key is empty
+        ALL
+    }
+
+    private final Type type;
+    private final String key;
+    private final long issuedBeforeMillis;
+    private final long expiresAtMillis;
+
+    public Revocation(Type type, String key, long issuedBeforeMillis, long expiresAtMillis) {
+        this.type = type;
+        this.key = key;
+        this.issuedBeforeMillis = issuedBeforeMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public static Revocation token(String jti, long expiresAtMillis) {
+        return new Revocation(Type.TOKEN, jti, 0L, expiresAtMillis);
+    }
+
+    // Tokens issued before the cutoff are all gone by cutoff + token lifetime
+    public static Revocation user(String subject, long issuedBeforeMillis, long tokenLifetimeMillis) {
+        return new Revocation(Type.USER, subject, issuedBeforeMillis, issuedBeforeMillis + tokenLifetimeMillis);
+    }
+
+    public static Revocation all(long issuedBeforeMillis, long tokenLifetimeMillis) {
+        return new Revocation(Type.ALL, "", issuedBeforeMillis, issuedBeforeMillis + tokenLifetimeMillis);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getIssuedBeforeMillis() {
+        return issuedBeforeMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Revocation)) {
+            return false;
+        }
+        Revocation other = (Revocation) o;
+        return type == other.type && key.equals(other.key) && issuedBeforeMillis == other.issuedBeforeMillis
+                && expiresAtMillis == other.expiresAtMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, key, issuedBeforeMillis, expiresAtMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "Revocation{" +
+                "type=" + type +
+                ", key='" + key + '\'' +
+                ", issuedBefore=" + issuedBeforeMillis +
+                ", expiresAt=" + expiresAtMillis +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.sunware.api_gateway.model;
+
+// Access token plus the refresh token that replaces it once it expires
+public final class TokenPair {
+
+    private final String accessToken;
+    private final String refreshToken;
+
+    public TokenPair(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
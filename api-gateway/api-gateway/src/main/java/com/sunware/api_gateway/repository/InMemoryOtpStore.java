@@ -0,0 +1,126 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link OtpStore}: OTPs live in memory, spread over independent shards so the expiry sweep
+ * only ever walks one shard at a time. Pending OTPs are local to this instance; use the JDBC store
+ * when several gateway instances share one login flow.
+ */
+@Repository
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final int SHARDS = 16;
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, PendingOtp>[] shards = new ConcurrentHashMap[SHARDS];
+
+    private final int maxAttempts;
+
+    private int nextShardToSweep;
+
+    public InMemoryOtpStore(@Value("${otp.max-attempts:5}") int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    public void store(String email, String otp, Duration ttl) {
+        shard(email).put(email, new PendingOtp(otp, System.currentTimeMillis() + ttl.toMillis(), 0));
+    }
+
+    @Override
+    public OtpVerification verify(String email, String otp) {
+        long now = System.currentTimeMillis();
+        OtpVerification[] result = {OtpVerification.NOT_FOUND};
+
+        // compute() runs atomically per key, so two concurrent correct guesses cannot both succeed
+        shard(email).computeIfPresent(email, (key, pending) -> {
+            if (pending.expiresAtMillis <= now) {
+                result[0] = OtpVerification.EXPIRED;
+                return null;
+            }
+            if (pending.matches(otp)) {
+                result[0] = OtpVerification.VALID;
+                return null;
+            }
+            int attempts = pending.attempts + 1;
+            if (attempts >= maxAttempts) {
+                result[0] = OtpVerification.TOO_MANY_ATTEMPTS;
+                return null;
+            }
+            result[0] = OtpVerification.INVALID;
+            return new PendingOtp(pending.otp, pending.expiresAtMillis, attempts);
+        });
+        return result[0];
+    }
+
+    @Override
+    public void invalidate(String email) {
+        shard(email).remove(email);
+    }
+
+    @Override
+    public int purgeExpired() {
+        int removed = 0;
+        for (int i = 0; i < SHARDS; i++) {
+            removed += purgeShard(i);
+        }
+        return removed;
+    }
+
+    // Sweep one shard per tick so a large backlog never stalls a single pass
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:5000}")
+    public void sweepNextShard() {
+        int shard = nextShardToSweep;
+        nextShardToSweep = (shard + 1) % SHARDS;
+        purgeShard(shard);
+    }
+
+    private int purgeShard(int index) {
+        long now = System.currentTimeMillis();
+        int[] removed = {0};
+        shards[index].values().removeIf(pending -> {
+            boolean expired = pending.expiresAtMillis <= now;
+            if (expired) {
+                removed[0]++;
+            }
+            return expired;
+        });
+        return removed[0];
+    }
+
+    private ConcurrentHashMap<String, PendingOtp> shard(String email) {
+        int h = email.hashCode();
+        return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+    }
+
+    private static final class PendingOtp {
+
+        private final String otp;
+        private final long expiresAtMillis;
+        private final int attempts;
+
+        private PendingOtp(String otp, long expiresAtMillis, int attempts) {
+            this.otp = otp;
+            this.expiresAtMillis = expiresAtMillis;
+            this.attempts = attempts;
+        }
+
+        private boolean matches(String candidate) {
+            return candidate != null && MessageDigest.isEqual(
+                    otp.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import com.sunware.api_gateway.model.RefreshToken;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Default {@link RefreshTokenStore}: tokens live in memory on this instance, so a client must refresh
+ * against the instance that logged it in. Use the JDBC store behind a load balancer without affinity.
+ */
+@Repository
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final ConcurrentHashMap<String, RefreshToken> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(RefreshToken token) {
+        tokens.put(token.getTokenHash(), token);
+    }
+
+    @Override
+    public RefreshToken find(String tokenHash) {
+        return tokens.get(tokenHash);
+    }
+
+    @Override
+    public RefreshToken markUsed(String tokenHash) {
+        RefreshToken[] previous = {null};
+        // compute() runs atomically per key, so two concurrent refreshes cannot both see an unused token
+        tokens.computeIfPresent(tokenHash, (key, token) -> {
+            previous[0] = token;
+            return token.isUsed() ? token : token.markUsed();
+        });
+        return previous[0];
+    }
+
+    // The deletes walk the whole map; they only run on logout, replays and revocations
+    @Override
+    public int deleteFamily(String familyId) {
+        return removeIf(token -> token.getFamilyId().equals(familyId));
+    }
+
+    @Override
+    public int deleteByEmail(String email, long issuedBeforeMillis) {
+        return removeIf(token -> token.getEmail().equals(email) && token.getIssuedAtMillis() < issuedBeforeMillis);
+    }
+
+    @Override
+    public int deleteIssuedBefore(long issuedBeforeMillis) {
+        return removeIf(token -> token.getIssuedAtMillis() < issuedBeforeMillis);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${refresh-token.purge-interval-ms:60000}")
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        return removeIf(token -> token.isExpired(now));
+    }
+
+    private int removeIf(Predicate<RefreshToken> filter) {
+        int[] removed = {0};
+        tokens.values().removeIf(token -> {
+            boolean matches = filter.test(token);
+            if (matches) {
+                removed[0]++;
+            }
+            return matches;
+        });
+        return removed[0];
+    }
+}
@@ -0,0 +1,103 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link OtpStore} backed by a narrow otp_code table shared by all gateway instances.
+ * Every operation is a single-row statement on the email primary key; the purge uses the expiry index.
+ */
+@Repository
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+public class JdbcOtpStore implements OtpStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxAttempts;
+
+    public JdbcOtpStore(JdbcTemplate jdbcTemplate, @Value("${otp.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    public void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS otp_code ("
+                + "email VARCHAR(255) PRIMARY KEY, "
+                + "otp VARCHAR(64) NOT NULL, "
+                + "expires_at TIMESTAMP NOT NULL, "
+                + "attempts INT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_otp_code_expires_at ON otp_code (expires_at)");
+    }
+
+    @Override
+    public void store(String email, String otp, Duration ttl) {
+        Timestamp expiresAt = new Timestamp(System.currentTimeMillis() + ttl.toMillis());
+        int updated = jdbcTemplate.update(
+                "UPDATE otp_code SET otp = ?, expires_at = ?, attempts = 0 WHERE email = ?", otp, expiresAt, email);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO otp_code (email, otp, expires_at, attempts) VALUES (?, ?, ?, 0)",
+                        email, otp, expiresAt);
+            } catch (DuplicateKeyException e) {
+                // Another instance inserted first; overwrite it with ours
+                jdbcTemplate.update("UPDATE otp_code SET otp = ?, expires_at = ?, attempts = 0 WHERE email = ?",
+                        otp, expiresAt, email);
+            }
+        }
+    }
+
+    @Override
+    public OtpVerification verify(String email, String otp) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        // Match and consume in one statement so concurrent requests cannot both succeed
+        int consumed = jdbcTemplate.update(
+                "DELETE FROM otp_code WHERE email = ? AND otp = ? AND expires_at > ? AND attempts < ?",
+                email, otp, now, maxAttempts);
+        if (consumed == 1) {
+            return OtpVerification.VALID;
+        }
+
+        int counted = jdbcTemplate.update(
+                "UPDATE otp_code SET attempts = attempts + 1 WHERE email = ? AND expires_at > ? AND attempts < ?",
+                email, now, maxAttempts);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT attempts, expires_at FROM otp_code WHERE email = ?", email);
+        if (rows.isEmpty()) {
+            return OtpVerification.NOT_FOUND;
+        }
+        Timestamp expiresAt = (Timestamp) rows.get(0).get("expires_at");
+        if (!expiresAt.after(now)) {
+            invalidate(email);
+            return OtpVerification.EXPIRED;
+        }
+        if (counted == 0 || ((Number) rows.get(0).get("attempts")).intValue() >= maxAttempts) {
+            invalidate(email);
+            return OtpVerification.TOO_MANY_ATTEMPTS;
+        }
+        return OtpVerification.INVALID;
+    }
+
+    @Override
+    public void invalidate(String email) {
+        jdbcTemplate.update("DELETE FROM otp_code WHERE email = ?", email);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:5000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM otp_code WHERE expires_at <= ?",
+                new Timestamp(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import com.sunware.api_gateway.model.RefreshToken;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * {@link RefreshTokenStore} backed by a refresh_token table shared by all gateway instances.
+ * Redeeming a token is one conditional UPDATE on the primary key, so only one caller can win it.
+ */
+@Repository
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jdbc")
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRefreshTokenStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS refresh_token ("
+                + "token_hash VARCHAR(64) PRIMARY KEY, "
+                + "family_id VARCHAR(64) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, "
+                + "issued_at TIMESTAMP NOT NULL, "
+                + "expires_at TIMESTAMP NOT NULL, "
+                + "used BOOLEAN NOT NULL DEFAULT FALSE)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_refresh_token_family_id ON refresh_token (family_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_refresh_token_email ON refresh_token (email)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_refresh_token_expires_at ON refresh_token (expires_at)");
+    }
+
+    @Override
+    public void save(RefreshToken token) {
+        jdbcTemplate.update(
+                "INSERT INTO refresh_token (token_hash, family_id, email, issued_at, expires_at, used) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                token.getTokenHash(), token.getFamilyId(), token.getEmail(), new Timestamp(token.getIssuedAtMillis()),
+                new Timestamp(token.getExpiresAtMillis()), token.isUsed());
+    }
+
+    @Override
+    public RefreshToken find(String tokenHash) {
+        List<RefreshToken> rows = jdbcTemplate.query(
+                "SELECT token_hash, family_id, email, issued_at, expires_at, used FROM refresh_token "
+                        + "WHERE token_hash = ?",
+                (rs, row) -> new RefreshToken(rs.getString("token_hash"), rs.getString("family_id"),
+                        rs.getString("email"), rs.getTimestamp("issued_at").getTime(),
+                        rs.getTimestamp("expires_at").getTime(), rs.getBoolean("used")),
+                tokenHash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public RefreshToken markUsed(String tokenHash) {
+        int redeemed = jdbcTemplate.update(
+                "UPDATE refresh_token SET used = TRUE WHERE token_hash = ? AND used = FALSE", tokenHash);
+        RefreshToken token = find(tokenHash);
+        if (token == null || redeemed == 0) {
+            return token;
+        }
+        // The row reads used now; report the state from before this call
+        return new RefreshToken(token.getTokenHash(), token.getFamilyId(), token.getEmail(),
+                token.getIssuedAtMillis(), token.getExpiresAtMillis(), false);
+    }
+
+    @Override
+    public int deleteFamily(String familyId) {
+        return jdbcTemplate.update("DELETE FROM refresh_token WHERE family_id = ?", familyId);
+    }
+
+    @Override
+    public int deleteByEmail(String email, long issuedBeforeMillis) {
+        return jdbcTemplate.update("DELETE FROM refresh_token WHERE email = ? AND issued_at < ?",
+                email, new Timestamp(issuedBeforeMillis));
+    }
+
+    @Override
+    public int deleteIssuedBefore(long issuedBeforeMillis) {
+        return jdbcTemplate.update("DELETE FROM refresh_token WHERE issued_at < ?", new Timestamp(issuedBeforeMillis));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${refresh-token.purge-interval-ms:60000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM refresh_token WHERE expires_at <= ?",
+                new Timestamp(System.currentTimeMillis()));
+    }
+}
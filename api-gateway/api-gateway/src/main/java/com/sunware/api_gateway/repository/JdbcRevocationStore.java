@@ -0,0 +1,65 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import com.sunware.api_gateway.model.Revocation;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * {@link RevocationStore} backed by a token_revocation table shared by all gateway instances.
+ * Rows are only ever inserted and purged; the periodic load and the purge both use the expiry index.
+ */
+@Repository
+@ConditionalOnProperty(name = "revocation.store", havingValue = "jdbc")
+public class JdbcRevocationStore implements RevocationStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRevocationStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS token_revocation ("
+                + "type VARCHAR(8) NOT NULL, "
+                + "revoked_key VARCHAR(255) NOT NULL, "
+                + "issued_before TIMESTAMP NOT NULL, "
+                + "expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_token_revocation_expires_at ON token_revocation (expires_at)");
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void append(Revocation revocation) {
+        jdbcTemplate.update(
+                "INSERT INTO token_revocation (type, revoked_key, issued_before, expires_at) VALUES (?, ?, ?, ?)",
+                revocation.getType().name(), revocation.getKey(),
+                new Timestamp(revocation.getIssuedBeforeMillis()), new Timestamp(revocation.getExpiresAtMillis()));
+    }
+
+    @Override
+    public List<Revocation> loadActive(long nowMillis) {
+        return jdbcTemplate.query(
+                "SELECT type, revoked_key, issued_before, expires_at FROM token_revocation WHERE expires_at > ?",
+                (rs, row) -> new Revocation(Revocation.Type.valueOf(rs.getString("type")),
+                        rs.getString("revoked_key"),
+                        rs.getTimestamp("issued_before").getTime(),
+                        rs.getTimestamp("expires_at").getTime()),
+                new Timestamp(nowMillis));
+    }
+
+    @Override
+    public int purgeExpired(long nowMillis) {
+        return jdbcTemplate.update("DELETE FROM token_revocation WHERE expires_at <= ?", new Timestamp(nowMillis));
+    }
+}
@@ -0,0 +1,29 @@
+package com.sunware.api_gateway.repository;
+
+import java.time.Duration;
+
+/**
+ * Holds one pending OTP per email with an expiry and a failed-attempt counter.
+ * Implementations must make {@link #verify(String, String)} atomic so an OTP can be consumed only once.
+ */
+public interface OtpStore {
+
+    // Store a new OTP for email, replacing any pending one and resetting its attempts
+    void store(String email, String otp, Duration ttl);
+
+    // Check the OTP; a VALID result consumes it, every other result counts as a failed attempt
+    OtpVerification verify(String email, String otp);
+
+    void invalidate(String email);
+
+    // Remove expired OTPs; returns the number removed
+    int purgeExpired();
+
+    enum OtpVerification {
+        VALID,
+        INVALID,
+        EXPIRED,
+        NOT_FOUND,
+        TOO_MANY_ATTEMPTS
+    }
+}
@@ -0,0 +1,9 @@
+package com.sunware.api_gateway.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import com.sunware.api_gateway.model.Permission;
+
+@Repository
+public interface PermissionRepository extends JpaRepository<Permission, Long> {
+}
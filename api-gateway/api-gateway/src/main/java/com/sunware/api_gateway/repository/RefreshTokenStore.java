@@ -0,0 +1,31 @@
+package com.sunware.api_gateway.repository;
+
+import com.sunware.api_gateway.model.RefreshToken;
+
+/**
+ * Holds refresh tokens by digest. Used tokens are kept, marked, until they expire so that a replay can be
+ * told apart from an unknown token. Implementations must make {@link #markUsed(String)} atomic so a token
+ * can be redeemed only once.
+ */
+public interface RefreshTokenStore {
+
+    void save(RefreshToken token);
+
+    // The token's current state without redeeming it; null when unknown
+    RefreshToken find(String tokenHash);
+
+    // Mark the token used and return its state from before the call; null when unknown
+    RefreshToken markUsed(String tokenHash);
+
+    // Delete every token of one login session; returns the number removed
+    int deleteFamily(String familyId);
+
+    // Delete the user's tokens issued before the cutoff; returns the number removed
+    int deleteByEmail(String email, long issuedBeforeMillis);
+
+    // Delete everyone's tokens issued before the cutoff; returns the number removed
+    int deleteIssuedBefore(long issuedBeforeMillis);
+
+    // Remove expired tokens; returns the number removed
+    int purgeExpired();
+}
@@ -0,0 +1,25 @@
+package com.sunware.api_gateway.repository;
+
+import com.sunware.api_gateway.model.Revocation;
+
+import java.util.List;
+
+/**
+ * Durable copy of the token denylist. The hot path never reads it: every instance loads the active entries
+ * into memory and reloads them periodically to pick up revocations made elsewhere.
+ */
+public interface RevocationStore {
+
+    void append(Revocation revocation);
+
+    // Entries that still cover at least one unexpired token
+    List<Revocation> loadActive(long nowMillis);
+
+    // Remove entries whose tokens have all expired; returns the number removed
+    int purgeExpired(long nowMillis);
+
+    // True when every instance reads the same store, so a revocation made elsewhere is already in it
+    default boolean isShared() {
+        return false;
+    }
+}
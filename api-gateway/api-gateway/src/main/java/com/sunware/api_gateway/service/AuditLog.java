@@ -0,0 +1,214 @@
+package com.sunware.api_gateway.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.sunware.api_gateway.util.AuditEventType;
+import com.sunware.api_gateway.util.AuditFile;
+import com.sunware.api_gateway.util.AuditRingBuffer;
+import com.sunware.api_gateway.util.RejectionReason;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of authentication decisions: accepted and rejected tokens, denied access and the OTP flows.
+ * <p>
+ * Recording costs a request thread a clock read and a slot in a preallocated {@link AuditRingBuffer}; no
+ * I/O, no lock, no allocation. One writer thread drains the buffer in batches into a rotating
+ * {@link AuditFile}, syncing once per batch, so under load many events share one write and one fsync.
+ * When the buffer is full the event is dropped and counted rather than slowing the request down.
+ * Successes can be sampled; failures and denials are always kept. Meters:
+ * {@code auth.audit.events{result=written|dropped|sampled_out|failed}} and {@code auth.audit.buffer.depth}.
+ * <p>
+ * The writer is a platform thread like the OTP mail workers: it blocks in fsync, and its counters are
+ * updated by that thread alone.
+ */
+@Service
+public class AuditLog implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final int WRITE_BATCH = 4096;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private final AuditRingBuffer buffer;
+    private final AuditFile file;
+    private final double successSampleRate;
+    private final long flushIntervalNanos;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public AuditLog(@Value("${audit.enabled:true}") boolean enabled,
+                    @Value("${audit.file:audit/auth-audit.ndjson}") String file,
+                    @Value("${audit.buffer-size:65536}") int bufferSize,
+                    @Value("${audit.success-sample-rate:1.0}") double successSampleRate,
+                    @Value("${audit.flush-interval-ms:100}") long flushIntervalMs,
+                    @Value("${audit.max-file-bytes:104857600}") long maxFileBytes,
+                    @Value("${audit.max-files:10}") int maxFiles) {
+        if (successSampleRate < 0 || successSampleRate > 1) {
+            throw new IllegalArgumentException("audit.success-sample-rate must be between 0 and 1");
+        }
+        this.buffer = enabled ? new AuditRingBuffer(bufferSize) : null;
+        this.file = enabled ? new AuditFile(Path.of(file), maxFileBytes, maxFiles) : null;
+        this.successSampleRate = successSampleRate;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    }
+
+    // For components built outside Spring (tests, benchmarks)
+    public static AuditLog disabled() {
+        return new AuditLog(false, "", 1, 1.0, 0, 1, 0);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (buffer == null) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "auth-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Audit writer did not finish within {} ms; {} events may be lost",
+                    STOP_TIMEOUT_MS, buffer.size());
+        }
+    }
+
+    public void tokenAccepted(String subject, String path, String client) {
+        record(AuditEventType.TOKEN_ACCEPTED, subject, null, path, client);
+    }
+
+    public void tokenRejected(RejectionReason reason, String path, String client) {
+        record(AuditEventType.TOKEN_REJECTED, null, reason.getTag(), path, client);
+    }
+
+    public void accessDenied(String subject, String path, String client) {
+        record(AuditEventType.ACCESS_DENIED, subject, RejectionReason.FORBIDDEN.getTag(), path, client);
+    }
+
+    public void otpIssued(String email, String client) {
+        record(AuditEventType.OTP_ISSUED, email, null, null, client);
+    }
+
+    public void otpIssueFailed(String email, String reason, String client) {
+        record(AuditEventType.OTP_ISSUE_FAILED, email, reason, null, client);
+    }
+
+    public void otpValidated(String email, String client) {
+        record(AuditEventType.OTP_VALIDATED, email, null, null, client);
+    }
+
+    public void otpValidationFailed(String email, String reason, String client) {
+        record(AuditEventType.OTP_VALIDATION_FAILED, email, reason, null, client);
+    }
+
+    private void record(AuditEventType type, String subject, String reason, String path, String client) {
+        if (buffer == null) {
+            return;
+        }
+        if (type.isSuccess() && successSampleRate < 1.0
+                && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        if (!buffer.offer(type, System.currentTimeMillis(), subject, reason, path, client)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (buffer == null) {
+            return;
+        }
+        Gauge.builder("auth.audit.buffer.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.events", file, AuditFile::getWrittenEvents)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("auth.audit.events", dropped, LongAdder::sum)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("auth.audit.events", sampledOut, LongAdder::sum)
+                .tag("result", "sampled_out").register(registry);
+        FunctionCounter.builder("auth.audit.events", file, AuditFile::getLostEvents)
+                .tag("result", "failed").register(registry);
+    }
+
+    public long getWrittenCount() {
+        return file == null ? 0 : file.getWrittenEvents();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    public long getFailedCount() {
+        return file == null ? 0 : file.getLostEvents();
+    }
+
+    // Busy: drain and flush back to back, each batch is what arrived during the previous flush. Idle: poll
+    private void writeLoop() {
+        boolean failing = false;
+        while (running) {
+            int drained = buffer.drain(file::append, WRITE_BATCH);
+            try {
+                file.flush();
+                failing = false;
+            } catch (IOException e) {
+                if (!failing) {
+                    logger.error("Failed to write audit events, dropping them until writes succeed: {}",
+                            e.getMessage(), e);
+                }
+                failing = true;
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+
+        try {
+            while (buffer.drain(file::append, WRITE_BATCH) > 0) {
+                file.flush();
+            }
+            file.close();
+        } catch (IOException e) {
+            logger.error("Failed to write the last audit events on shutdown: {}", e.getMessage());
+        }
+    }
+}
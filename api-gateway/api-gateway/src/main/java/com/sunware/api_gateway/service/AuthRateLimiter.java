@@ -0,0 +1,117 @@
+package com.sunware.api_gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.AuthMetrics.RateLimit;
+import com.sunware.api_gateway.util.SlidingWindowSketch;
+import com.sunware.api_gateway.util.TokenBuckets;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the /auth endpoints before they reach the database or the mail queue:
+ * <ul>
+ * <li>OTP and refresh calls count against the client IP, in a fixed-size {@link SlidingWindowSketch};</li>
+ * <li>OTP requests count against the email, in {@link TokenBuckets};</li>
+ * <li>failed OTP validations count against the email too, and an email out of failures is locked out of
+ *     validation until the bucket refills, across however many OTPs were requested meanwhile.</li>
+ * </ul>
+ * All checks are in memory and lock-free, so rejecting abusive traffic costs no I/O. Limits are per instance.
+ */
+@Service
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final long ipLimit;
+    private final SlidingWindowSketch ipRequests;
+    private final TokenBuckets otpRequests;
+    private final TokenBuckets failedValidations;
+    private final AuthMetrics authMetrics;
+
+    public AuthRateLimiter(@Value("${auth.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${auth.rate-limit.ip.limit:60}") long ipLimit,
+                           @Value("${auth.rate-limit.ip.window-seconds:60}") long ipWindowSeconds,
+                           @Value("${auth.rate-limit.ip.sketch-width:16384}") int ipSketchWidth,
+                           @Value("${auth.rate-limit.email.otp-requests:5}") int otpRequestsPerEmail,
+                           @Value("${auth.rate-limit.email.period-seconds:900}") long emailPeriodSeconds,
+                           @Value("${auth.rate-limit.email.max-keys:100000}") long maxEmails,
+                           @Value("${auth.lockout.max-failures:10}") int maxFailures,
+                           @Value("${auth.lockout.period-seconds:900}") long lockoutPeriodSeconds,
+                           AuthMetrics authMetrics) {
+        this.enabled = enabled;
+        this.ipLimit = ipLimit;
+        this.ipRequests = new SlidingWindowSketch(ipSketchWidth, Duration.ofSeconds(ipWindowSeconds),
+                System.nanoTime());
+        this.otpRequests = new TokenBuckets(otpRequestsPerEmail, Duration.ofSeconds(emailPeriodSeconds), maxEmails);
+        this.failedValidations = new TokenBuckets(maxFailures, Duration.ofSeconds(lockoutPeriodSeconds), maxEmails);
+        this.authMetrics = authMetrics;
+    }
+
+    public void checkOtpRequest(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        checkIp(clientIp, now);
+        if (email != null) {
+            long wait = otpRequests.tryAcquire(normalize(email), now);
+            if (wait > 0) {
+                throw rejected(RateLimit.EMAIL, "Too many OTP requests. Please try again later.", wait);
+            }
+        }
+    }
+
+    public void checkOtpValidation(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        checkIp(clientIp, now);
+        if (email != null) {
+            long wait = failedValidations.waitNanos(normalize(email), now);
+            if (wait > 0) {
+                throw rejected(RateLimit.LOCKOUT, "Too many failed attempts. Please try again later.", wait);
+            }
+        }
+    }
+
+    // Refresh tokens are long random strings, so only the client IP is limited
+    public void checkRefresh(String clientIp) {
+        if (enabled) {
+            checkIp(clientIp, System.nanoTime());
+        }
+    }
+
+    public void recordFailedValidation(String email) {
+        if (enabled && email != null) {
+            failedValidations.tryAcquire(normalize(email), System.nanoTime());
+        }
+    }
+
+    public void recordSuccessfulValidation(String email) {
+        if (enabled && email != null) {
+            failedValidations.reset(normalize(email));
+        }
+    }
+
+    private void checkIp(String clientIp, long now) {
+        if (clientIp != null && ipRequests.incrementAndEstimate(clientIp, now) > ipLimit) {
+            // The sketch has no per-key expiry to report; a second is when the window has slid noticeably
+            throw rejected(RateLimit.IP, "Too many requests. Please try again later.", TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private RateLimitExceededException rejected(RateLimit limit, String message, long waitNanos) {
+        authMetrics.rateLimited(limit);
+        return new RateLimitExceededException(message, Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+    }
+
+    // Differently cased spellings of one address share a budget
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,111 +1,166 @@
 package com.sunware.api_gateway.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.sunware.api_gateway.model.Employee;
-import com.sunware.api_gateway.model.Permission;
-import com.sunware.api_gateway.repository.EmployeeRepository;
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.model.TokenPair;
+import com.sunware.api_gateway.repository.OtpStore;
+import com.sunware.api_gateway.repository.OtpStore.OtpVerification;
+import com.sunware.api_gateway.util.AuthMetrics;
 import com.sunware.api_gateway.util.JwtUtil;
 
-import org.apache.commons.lang.RandomStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Set;
-import java.util.HashSet;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
 
 @Service
 public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
+    private static final String OTP_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int OTP_LENGTH = 6;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Audit reasons of failed OTP requests besides the OtpVerification outcomes
+    private static final String OTP_FAILURE_ERROR = "error";
+    private static final String OTP_FAILURE_UNKNOWN_EMAIL = "unknown_email";
+
+    @Autowired
+    private EmployeeDirectoryService employeeDirectoryService;
+
     @Autowired
-    private EmployeeRepository employeeRepository;
+    private OtpStore otpStore;
+
+    @Value("${otp.ttl-seconds:300}")
+    private long otpTtlSeconds;
 
-    
     @Autowired
-    private JavaMailSender mailSender;
+    private OtpMailDispatcher otpMailDispatcher;
 
     @Autowired
     private JwtUtil jwtUtil; // Util class to generate JWT
 
-    // Generate OTP and send email
-    public String generateOtp(String email) {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    // Generate OTP and send email. Outcomes go to the audit log; the SLF4J lines are for debugging only
+    public String generateOtp(String email, String clientIp) {
+        long start = System.nanoTime();
+        String failure = OTP_FAILURE_ERROR;
         try {
-            Employee employee = employeeRepository.findByEmail(email);
+            EmployeeView employee = employeeDirectoryService.findByEmail(email);
 
             if (employee == null) {
-                logger.error("Employee not found for email: {}", email);
+                logger.debug("Employee not found for email: {}", email);
+                failure = OTP_FAILURE_UNKNOWN_EMAIL;
                 throw new RuntimeException("Invalid email");
             }
 
-            // Generate 6-digit alphanumeric OTP
-            String otp = RandomStringUtils.randomAlphanumeric(6);
-            employee.setTemporaryOtp(otp);
-            employeeRepository.save(employee);
-
-            // Send OTP to email
-            sendOtpEmail(email, otp);
+            // Generate 6-character alphanumeric OTP; SecureRandom, as java.util.Random output can be predicted
+            String otp = newOtp();
+            otpStore.store(email, otp, Duration.ofSeconds(otpTtlSeconds));
+
+            // Queue the OTP email; delivery happens on the mail workers
+            if (!otpMailDispatcher.dispatch(email, otp)) {
+                otpStore.invalidate(email);
+                authMetrics.otpIssued(false, start);
+                auditLog.otpIssueFailed(email, "mail_queue_full", clientIp);
+                logger.debug("OTP mail queue is full; rejecting OTP request for email: {}", email);
+                throw new OtpDispatchRejectedException("Too many OTP requests. Please try again later.");
+            }
 
-            logger.info("Generated OTP for email: {}", email);
+            authMetrics.otpIssued(true, start);
+            auditLog.otpIssued(email, clientIp);
+            logger.debug("Generated OTP for email: {}", email);
             return otp;
+        } catch (OtpDispatchRejectedException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error generating OTP for email: {}. Exception: {}", email, e.getMessage(), e);
+            authMetrics.otpIssueFailed(start);
+            auditLog.otpIssueFailed(email, failure, clientIp);
+            if (OTP_FAILURE_ERROR.equals(failure)) {
+                logger.error("Error generating OTP for email: {}. Exception: {}", email, e.getMessage(), e);
+            }
             throw new RuntimeException(e.getMessage());
         }
     }
 
-    // Send OTP to employee's email
-    public void sendOtpEmail(String to, String otp) {
+    // Validate the OTP; the refresh token lets the client get new access tokens without another OTP
+    public TokenPair validateOtpAndGenerateToken(String email, String otp, String clientIp) {
+        long start = System.nanoTime();
+        OtpVerification verification = null;
+        String failure = OTP_FAILURE_ERROR;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject("Your OTP Code");
-            message.setText("Your OTP code is: " + otp);
-
-            mailSender.send(message);
-            logger.info("OTP email sent to: {}", to);
-        } catch (Exception e) {
-            logger.error("Failed to send OTP email to: {}. Exception: {}", to, e.getMessage(), e);
-            throw new RuntimeException("Failed to send OTP email. Please try again later.");
-        }
-    }
-
-    // Validate the OTP
-    public String validateOtpAndGenerateToken(String email, String otp) {
-        try {
-            Employee employee = employeeRepository.findByEmail(email);
+            EmployeeView employee = employeeDirectoryService.findByEmail(email);
 
             if (employee == null) {
-                logger.error("Employee not found for email: {}", email);
+                logger.debug("Employee not found for email: {}", email);
+                authRateLimiter.recordFailedValidation(email);
+                failure = OTP_FAILURE_UNKNOWN_EMAIL;
                 throw new RuntimeException("Invalid email");
             }
 
-            String storedOtp = employee.getTemporaryOtp();
-
-            logger.debug("Retrieved OTP from DB for email {}: {}", email, storedOtp);
             logger.debug("Provided OTP: {}", otp);
 
-            if (otp.equals(storedOtp)) {
-                // OTP is valid, clear it from the employee record to prevent reuse
-                employee.setTemporaryOtp(null);
-                employeeRepository.save(employee);
-                // Fetch permissions and generate JWT
-                Set<Permission> permissions = new HashSet<>(employee.getPermissions());
-                String jwt = jwtUtil.generateTokenWithPermissions(email, permissions);
-
-                logger.info("OTP successfully validated for email: {}", email);
-                return jwt;
+            // A valid OTP is consumed by the store, which prevents reuse
+            verification = otpStore.verify(email, otp);
+            authMetrics.otpValidated(verification, start);
+            // Failures count towards the email's lockout whichever OTP they were made against
+            if (verification == OtpVerification.VALID) {
+                authRateLimiter.recordSuccessfulValidation(email);
             } else {
-                logger.warn("Invalid OTP provided for email: {}", email);
-                throw new RuntimeException("Invalid OTP");
+                authRateLimiter.recordFailedValidation(email);
+                failure = verification.name().toLowerCase(Locale.ROOT);
+            }
+            switch (verification) {
+                case VALID:
+                    // Permissions come from the cached view and generate the JWT
+                    String jwt = jwtUtil.generateToken(email, employee.getPermissions());
+                    TokenPair tokens = new TokenPair(jwt, refreshTokenService.issue(email));
+                    auditLog.otpValidated(email, clientIp);
+                    logger.debug("OTP successfully validated for email: {}", email);
+                    return tokens;
+                case EXPIRED:
+                    throw new RuntimeException("OTP expired");
+                case TOO_MANY_ATTEMPTS:
+                    throw new RuntimeException("Too many invalid attempts. Please request a new OTP.");
+                default:
+                    throw new RuntimeException("Invalid OTP");
             }
         } catch (Exception e) {
-            logger.error("Error validating OTP for email: {}. Exception: {}", email, e.getMessage(), e);
+            if (verification == null) {
+                authMetrics.otpValidateFailed(start);
+            }
+            auditLog.otpValidationFailed(email, failure, clientIp);
+            if (OTP_FAILURE_ERROR.equals(failure)) {
+                logger.error("Error validating OTP for email: {}. Exception: {}", email, e.getMessage(), e);
+            } else {
+                logger.debug("OTP validation failed for email: {}: {}", email, failure);
+            }
             throw new RuntimeException(e.getMessage());
         }
     }
+
+    private static String newOtp() {
+        char[] otp = new char[OTP_LENGTH];
+        for (int i = 0; i < OTP_LENGTH; i++) {
+            otp[i] = OTP_ALPHABET.charAt(RANDOM.nextInt(OTP_ALPHABET.length()));
+        }
+        return new String(otp);
+    }
 }
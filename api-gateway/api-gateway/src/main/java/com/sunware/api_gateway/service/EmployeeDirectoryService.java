@@ -0,0 +1,74 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.model.Employee;
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.repository.EmployeeRepository;
+
+/**
+ * Read-through cache of employees and their permission names in front of {@link EmployeeSnapshotService}
+ * and, for employees the snapshot cannot answer, {@link EmployeeRepository}.
+ * Size bound, TTL and stats are configured through spring.cache.caffeine.spec.
+ */
+@Service
+public class EmployeeDirectoryService {
+
+    public static final String EMPLOYEE_CACHE = "employees";
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeDirectoryService.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeSnapshotService employeeSnapshotService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Unknown emails are not cached so newly added employees can log in immediately
+    @Cacheable(cacheNames = EMPLOYEE_CACHE, key = "#email", unless = "#result == null")
+    public EmployeeView findByEmail(String email) {
+        EmployeeView snapshotted = employeeSnapshotService.find(email);
+        if (snapshotted != null) {
+            return snapshotted;
+        }
+        Employee employee = employeeRepository.findByEmail(email);
+        return employee == null ? null : EmployeeView.of(employee);
+    }
+
+    public void invalidate(String email) {
+        employeeSnapshotService.invalidate(email);
+        Cache cache = cacheManager.getCache(EMPLOYEE_CACHE);
+        if (cache != null) {
+            cache.evict(email);
+            logger.debug("Evicted cached employee: {}", email);
+        }
+    }
+
+    public void invalidateAll() {
+        employeeSnapshotService.invalidateAll();
+        Cache cache = cacheManager.getCache(EMPLOYEE_CACHE);
+        if (cache != null) {
+            cache.clear();
+            logger.debug("Cleared employee cache");
+        }
+    }
+
+    @EventListener
+    public void onPermissionsChanged(EmployeePermissionsChangedEvent event) {
+        if (event.getEmail() == null) {
+            invalidateAll();
+        } else {
+            invalidate(event.getEmail());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.sunware.api_gateway.service;
+
+/**
+ * Published when an employee's permissions (or the employee itself) change, so cached views are dropped.
+ * A null email means every employee may be affected, e.g. after a permission is renamed.
+ */
+public class EmployeePermissionsChangedEvent {
+
+    private final String email;
+
+    public EmployeePermissionsChangedEvent(String email) {
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,138 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.util.EmployeeDelta;
+import com.sunware.api_gateway.util.EmployeeDirectorySnapshot;
+import com.sunware.api_gateway.util.EmployeeSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exports the employee, permission and employee_permission tables to the snapshot directory that
+ * {@link EmployeeSnapshotService} reads. Each run diffs the tables against the files already there and writes
+ * a delta with the changes, or a new full snapshot when there is none yet or the delta chain is long.
+ * Enable it on one instance (or a job) that can write to the directory the gateways share.
+ */
+@Service
+@ConditionalOnProperty(name = "employee-snapshot.export.enabled", havingValue = "true")
+public class EmployeeSnapshotExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotExporter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path dir;
+    private final int maxDeltas;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public EmployeeSnapshotExporter(JdbcTemplate jdbcTemplate,
+                                    @Value("${employee-snapshot.dir:}") String dir,
+                                    @Value("${employee-snapshot.export.max-deltas:24}") int maxDeltas) {
+        if (dir == null || dir.isEmpty()) {
+            throw new IllegalArgumentException("employee-snapshot.dir is required to export employee snapshots");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dir = Path.of(dir).toAbsolutePath();
+        this.maxDeltas = maxDeltas;
+    }
+
+    @Scheduled(fixedDelayString = "${employee-snapshot.export.interval-ms:60000}")
+    public void scheduledExport() {
+        try {
+            export();
+        } catch (RuntimeException e) {
+            logger.error("Failed to export employee snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    // Returns the version the directory is at afterwards
+    public long export() {
+        lock.lock();
+        try {
+            Files.createDirectories(dir);
+            long readAt = System.currentTimeMillis();
+            Map<String, EmployeeView> employees = readEmployees();
+            EmployeeDirectorySnapshot previous = EmployeeDirectorySnapshot.load(dir);
+
+            if (previous == null || previous.getDeltaCount() >= maxDeltas) {
+                long version = previous == null ? 1L : previous.getVersion() + 1;
+                EmployeeSnapshot.write(EmployeeDirectorySnapshot.snapshotPath(dir, version), version, readAt,
+                        employees.values());
+                // The previous generation stays for instances that are still catching up to it
+                if (previous != null) {
+                    EmployeeDirectorySnapshot.deleteOlderThan(dir, previous.getBaseVersion());
+                }
+                logger.info("Exported employee snapshot version {} with {} employees", version, employees.size());
+                return version;
+            }
+
+            Map<String, EmployeeView> changes = diff(previous.toMap(), employees);
+            if (changes.isEmpty()) {
+                EmployeeDirectorySnapshot.writeChecked(dir, previous.getVersion(), readAt);
+                return previous.getVersion();
+            }
+            long version = previous.getVersion() + 1;
+            new EmployeeDelta(previous.getVersion(), version, readAt, changes)
+                    .write(EmployeeDirectorySnapshot.deltaPath(dir, previous.getVersion(), version));
+            logger.info("Exported employee delta {} -> {} with {} changes", previous.getVersion(), version,
+                    changes.size());
+            return version;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create employee snapshot directory " + dir, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // One pass over the join; employees without permissions come back once with a null permission name
+    private Map<String, EmployeeView> readEmployees() {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        Map<String, LinkedHashSet<String>> permissions = new HashMap<>();
+        jdbcTemplate.query("SELECT e.id, e.email, p.name FROM employee e "
+                        + "LEFT JOIN employee_permission ep ON ep.employee_id = e.id "
+                        + "LEFT JOIN permission p ON p.id = ep.permission_id",
+                rs -> {
+                    String email = rs.getString(2);
+                    ids.put(email, rs.getLong(1));
+                    LinkedHashSet<String> names = permissions.computeIfAbsent(email, e -> new LinkedHashSet<>());
+                    String name = rs.getString(3);
+                    if (name != null) {
+                        names.add(name);
+                    }
+                });
+        Map<String, EmployeeView> employees = new HashMap<>(ids.size() * 2);
+        ids.forEach((email, id) -> employees.put(email, new EmployeeView(id, email, permissions.get(email))));
+        return employees;
+    }
+
+    private static Map<String, EmployeeView> diff(Map<String, EmployeeView> before, Map<String, EmployeeView> after) {
+        Map<String, EmployeeView> changes = new LinkedHashMap<>();
+        after.forEach((email, employee) -> {
+            if (!employee.equals(before.get(email))) {
+                changes.put(email, employee);
+            }
+        });
+        for (String email : before.keySet()) {
+            if (!after.containsKey(email)) {
+                changes.put(email, null);
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.util.EmployeeDirectorySnapshot;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves employee lookups from the memory-mapped export in {@code employee-snapshot.dir}, so a freshly started
+ * instance answers logins without touching the database and keeps answering while it is unavailable.
+ * New deltas and snapshots are picked up in the background. Disabled when no directory is configured.
+ * <p>
+ * The export lags the database by up to the export interval. An employee invalidated locally is not served
+ * from the snapshot again until an export read after the invalidation has been loaded. Once the export has
+ * not been confirmed current for {@code employee-snapshot.max-age-ms}, because the exporter stopped or the
+ * directory is no longer updated, nothing is served from it.
+ */
+@Service
+public class EmployeeSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotService.class);
+
+    private final Path dir;
+    private final long maxAgeMillis;
+
+    private volatile EmployeeDirectorySnapshot snapshot;
+
+    // When the tables were last known to match the loaded snapshot: its export time or a later unchanged export
+    private volatile long currentAtMillis;
+    private volatile boolean staleLogged;
+
+    // Local invalidations not yet covered by the loaded export, by email
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private volatile long allInvalidatedAt;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public EmployeeSnapshotService(@Value("${employee-snapshot.dir:}") String dir,
+                                   @Value("${employee-snapshot.max-age-ms:600000}") long maxAgeMillis) {
+        this.dir = dir == null || dir.isEmpty() ? null : Path.of(dir).toAbsolutePath();
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    // Null when the snapshot does not know the email or may be stale for it; the caller then asks the database
+    public EmployeeView find(String email) {
+        EmployeeDirectorySnapshot current = snapshot;
+        if (current == null || email == null) {
+            return null;
+        }
+        if (maxAgeMillis > 0 && System.currentTimeMillis() - currentAtMillis > maxAgeMillis) {
+            if (!staleLogged) {
+                staleLogged = true;
+                logger.warn("Employee snapshot version {} was last confirmed current {} ms ago, over the {} ms "
+                                + "maximum; looking employees up in the database", current.getVersion(),
+                        System.currentTimeMillis() - currentAtMillis, maxAgeMillis);
+            }
+            return null;
+        }
+        long createdAt = current.getCreatedAtMillis();
+        if (createdAt <= allInvalidatedAt) {
+            return null;
+        }
+        if (!invalidatedAt.isEmpty()) {
+            Long invalidated = invalidatedAt.get(email);
+            if (invalidated != null && createdAt <= invalidated) {
+                return null;
+            }
+        }
+        return current.find(email);
+    }
+
+    public void invalidate(String email) {
+        if (dir != null) {
+            invalidatedAt.put(email, System.currentTimeMillis());
+        }
+    }
+
+    public void invalidateAll() {
+        allInvalidatedAt = System.currentTimeMillis();
+    }
+
+    // On failure the current snapshot stays in place
+    @Scheduled(initialDelayString = "${employee-snapshot.refresh-interval-ms:5000}",
+            fixedDelayString = "${employee-snapshot.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (dir == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            EmployeeDirectorySnapshot current = snapshot;
+            Long latest = EmployeeDirectorySnapshot.latestSnapshotVersion(dir);
+            EmployeeDirectorySnapshot next;
+            if (latest == null) {
+                next = current;
+            } else if (current == null || latest > current.getBaseVersion()) {
+                long start = System.nanoTime();
+                next = EmployeeDirectorySnapshot.load(dir);
+                logger.info("Loaded employee snapshot version {} ({} deltas) in {} ms", next.getVersion(),
+                        next.getDeltaCount(), (System.nanoTime() - start) / 1_000_000);
+            } else {
+                next = current.applyDeltas(dir);
+                if (next != current) {
+                    logger.info("Applied employee deltas up to version {}", next.getVersion());
+                }
+            }
+            if (next != current) {
+                snapshot = next;
+                long createdAt = next.getCreatedAtMillis();
+                invalidatedAt.values().removeIf(invalidated -> invalidated < createdAt);
+            }
+            if (next != null) {
+                long currentAt = Math.max(next.getCreatedAtMillis(),
+                        EmployeeDirectorySnapshot.checkedAtMillis(dir, next.getVersion()));
+                if (currentAt > currentAtMillis) {
+                    currentAtMillis = currentAt;
+                    staleLogged = false;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to load employee snapshot from {}: {}", dir, e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public EmployeeDirectorySnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.identity.IdentityHeader;
+import com.sunware.identity.IdentitySigner;
+
+import java.util.Base64;
+
+/**
+ * Signs the {@link IdentityHeader} the reverse proxy adds to requests it forwards, so services behind the
+ * gateway check one short HMAC with the identity-verifier library instead of parsing and verifying the JWT
+ * again. Permissions travel as permission-table ids from the current {@link com.sunware.api_gateway.util.PermissionCatalog};
+ * names the catalog does not know are left out. Disabled, and the header never sent, while no key is set.
+ */
+@Service
+public class IdentityAssertionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentityAssertionService.class);
+
+    private final JwtUtil jwtUtil;
+    private final IdentitySigner signer;
+    private final long ttlSeconds;
+
+    public IdentityAssertionService(JwtUtil jwtUtil,
+                                    @Value("${gateway.identity.key:}") String key,
+                                    @Value("${gateway.identity.key-id:k1}") String keyId,
+                                    @Value("${gateway.identity.ttl-seconds:30}") long ttlSeconds) {
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("gateway.identity.ttl-seconds must be positive");
+        }
+        this.jwtUtil = jwtUtil;
+        this.signer = key == null || key.isBlank() ? null : new IdentitySigner(keyId, Base64.getDecoder().decode(key.trim()));
+        this.ttlSeconds = ttlSeconds;
+        if (signer == null) {
+            logger.info("No gateway.identity.key set; proxied requests carry no {} header", IdentityHeader.NAME);
+        }
+    }
+
+    public boolean isEnabled() {
+        return signer != null;
+    }
+
+    // Header value for the caller of this token, or null when disabled; never outlives the token itself
+    public String assertionFor(VerifiedToken token, long nowMillis) {
+        if (signer == null || token == null) {
+            return null;
+        }
+        long expiresAt = Math.min(nowMillis / 1000 + ttlSeconds, token.getExpirationMillis() / 1000);
+        return signer.sign(token.getSubject(), jwtUtil.getPermissionCatalog().bits(token.getPermissions()), expiresAt);
+    }
+}
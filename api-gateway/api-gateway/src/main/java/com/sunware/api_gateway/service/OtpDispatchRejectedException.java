@@ -0,0 +1,11 @@
+package com.sunware.api_gateway.service;
+
+/**
+ * Thrown when the OTP mail queue is full and the request should be retried later (HTTP 429).
+ */
+public class OtpDispatchRejectedException extends RuntimeException {
+
+    public OtpDispatchRejectedException(String message) {
+        super(message);
+    }
+}
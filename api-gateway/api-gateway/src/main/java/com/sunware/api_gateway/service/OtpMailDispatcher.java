@@ -0,0 +1,214 @@
+package com.sunware.api_gateway.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends OTP emails off the request thread.
+ * <p>
+ * Requests go into a bounded queue; when it is full {@link #dispatch(String, String)} returns false
+ * immediately so the caller can answer 429 instead of tying up a Tomcat thread. Worker threads drain
+ * the queue in batches and hand each batch to one {@link JavaMailSender#send(SimpleMailMessage...)}
+ * call, which delivers the whole batch over a single SMTP connection. Failed messages are retried with
+ * exponential backoff.
+ * <p>
+ * The workers are deliberately platform threads even when the gateway runs request handling on virtual
+ * threads: the JavaMail SMTP transport blocks on the socket inside synchronized methods, which would pin a
+ * virtual thread to its carrier for the whole send. SMTP concurrency is capped by the worker count anyway,
+ * so a couple of platform threads cost nothing and keep the carriers free for request handling.
+ */
+@Service
+public class OtpMailDispatcher implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtpMailDispatcher.class);
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<PendingMail> queue;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    public OtpMailDispatcher(JavaMailSender mailSender,
+                             @Value("${otp.mail.queue-capacity:1000}") int queueCapacity,
+                             @Value("${otp.mail.workers:2}") int workers,
+                             @Value("${otp.mail.batch-size:20}") int batchSize,
+                             @Value("${otp.mail.max-attempts:3}") int maxAttempts,
+                             @Value("${otp.mail.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::drainLoop, "otp-mail-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workerThreads.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+        if (!queue.isEmpty()) {
+            logger.warn("Stopping OTP mail dispatcher with {} undelivered messages", queue.size());
+        }
+    }
+
+    // Queue an OTP email; false means the queue is full and nothing was queued
+    public boolean dispatch(String to, String otp) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("Your OTP Code");
+        message.setText("Your OTP code is: " + otp);
+
+        if (queue.offer(new PendingMail(message, 1))) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.otp.mail.queue.depth", queue, BlockingQueue::size)
+                .description("OTP emails waiting for a mail worker")
+                .register(registry);
+        FunctionCounter.builder("auth.otp.mail", sent, AtomicLong::get).tag("result", "sent").register(registry);
+        FunctionCounter.builder("auth.otp.mail", failed, AtomicLong::get).tag("result", "failed").register(registry);
+        FunctionCounter.builder("auth.otp.mail", rejected, AtomicLong::get).tag("result", "rejected").register(registry);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void drainLoop() {
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error in OTP mail worker: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingMail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = batch.get(i).message;
+        }
+
+        try {
+            mailSender.send(messages);
+            sent.addAndGet(messages.length);
+        } catch (MailSendException e) {
+            // Only the messages listed as failed need another attempt
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (PendingMail mail : batch) {
+                if (failedMessages.isEmpty() || failedMessages.containsKey(mail.message)) {
+                    retry(mail, e);
+                } else {
+                    sent.incrementAndGet();
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> retry(mail, e));
+        }
+    }
+
+    private void retry(PendingMail mail, Exception cause) {
+        String to = String.join(",", mail.message.getTo());
+        if (mail.attempt >= maxAttempts || !running) {
+            failed.incrementAndGet();
+            logger.error("Giving up on OTP email to {} after {} attempts: {}", to, mail.attempt, cause.getMessage());
+            return;
+        }
+
+        long delay = retryBackoffMs << (mail.attempt - 1);
+        logger.warn("OTP email to {} failed (attempt {}), retrying in {} ms: {}",
+                to, mail.attempt, delay, cause.getMessage());
+        PendingMail next = new PendingMail(mail.message, mail.attempt + 1);
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(next)) {
+                failed.incrementAndGet();
+                logger.error("Dropping OTP email retry to {}: queue is full", to);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class PendingMail {
+
+        private final SimpleMailMessage message;
+        private final int attempt;
+
+        private PendingMail(SimpleMailMessage message, int attempt) {
+            this.message = message;
+            this.attempt = attempt;
+        }
+    }
+}
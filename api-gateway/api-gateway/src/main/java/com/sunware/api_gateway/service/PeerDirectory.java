@@ -0,0 +1,56 @@
+package com.sunware.api_gateway.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Where the other gateway instances' peer bus listens: the static {@code gateway.peers.static} list plus
+ * every instance of this service registered in discovery with a {@code peer-port} metadata entry. The list
+ * may include this instance; the bus recognizes itself by the instance id in the answer and skips it.
+ */
+public class PeerDirectory {
+
+    public static final String PEER_PORT_METADATA = "peer-port";
+
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final String serviceId;
+    private final List<URI> staticPeers;
+
+    public PeerDirectory(ObjectProvider<DiscoveryClient> discoveryClient, String serviceId, List<URI> staticPeers) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.staticPeers = List.copyOf(staticPeers);
+    }
+
+    // Comma-separated base URIs, e.g. "http://10.0.0.5:9190,http://10.0.0.6:9190"; blank entries are ignored
+    public static List<URI> parse(String peers) {
+        Set<URI> uris = new LinkedHashSet<>();
+        for (String peer : peers.split(",")) {
+            if (!peer.isBlank()) {
+                uris.add(URI.create(peer.trim()));
+            }
+        }
+        return List.copyOf(uris);
+    }
+
+    public List<URI> peers() {
+        DiscoveryClient client = discoveryClient.getIfAvailable();
+        if (client == null) {
+            return staticPeers;
+        }
+        Set<URI> peers = new LinkedHashSet<>(staticPeers);
+        for (ServiceInstance instance : client.getInstances(serviceId)) {
+            String port = instance.getMetadata().get(PEER_PORT_METADATA);
+            if (port != null && !port.isBlank()) {
+                peers.add(URI.create("http://" + instance.getHost() + ":" + port.trim()));
+            }
+        }
+        return List.copyOf(peers);
+    }
+}
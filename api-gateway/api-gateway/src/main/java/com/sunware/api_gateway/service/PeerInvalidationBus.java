@@ -0,0 +1,451 @@
+package com.sunware.api_gateway.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import com.sunware.api_gateway.model.Invalidation;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.util.InvalidationCodec;
+import com.sunware.api_gateway.util.InvalidationCodec.Frame;
+import com.sunware.api_gateway.util.InvalidationCodec.Kind;
+import com.sunware.api_gateway.util.InvalidationLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the in-memory state of sibling gateway instances in step: when an employee's permissions change or a
+ * token is revoked here, every peer drops its cached employee or applies the revocation within milliseconds,
+ * instead of after its cache TTL or revocation refresh.
+ * <p>
+ * Each instance numbers its own invalidations and collects those of the next {@code batch-delay-ms} into one
+ * signed {@link InvalidationCodec binary frame}, pushed to every peer without waiting for answers. Peers
+ * track, per sending instance, the last sequence number they applied without a gap. Anti-entropy repairs
+ * whatever a push lost: every {@code anti-entropy-interval-ms}, and straight away when a push reveals a gap,
+ * an instance sends each peer that digest of sequence numbers and gets back the entries after its own one.
+ * A peer further behind than the {@link InvalidationLog} reaches, e.g. after a long partition, gets a
+ * snapshot instead: all active revocations, after which it drops every cached employee.
+ * <p>
+ * Invalidations are idempotent, so entries that arrive twice or out of order are simply applied again. The
+ * bus listens on its own port with the JDK HTTP server, the same on either web stack, and should only be
+ * reachable from the other instances; frames that are not signed with the shared key are rejected.
+ */
+public class PeerInvalidationBus implements MeterBinder {
+
+    /**
+     * What the bus applies received invalidations to.
+     */
+    public interface Target {
+
+        void apply(Invalidation invalidation);
+
+        // Missed more than a delta can replay: drop everything cached and take the sender's revocations
+        void resync(List<Revocation> revocations);
+
+        // Sent to peers that need a snapshot
+        List<Revocation> activeRevocations();
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerInvalidationBus.class);
+
+    static final String PUSH_PATH = "/peer/push";
+    static final String PULL_PATH = "/peer/pull";
+    private static final int MAX_FRAME_BYTES = 16 << 20;
+    private static final int MAX_PUSH_ENTRIES = 1000;
+    private static final int ORIGIN_EXPIRY_ROUNDS = 10;
+
+    private final long instanceId = new SecureRandom().nextLong();
+    private final InvalidationCodec codec;
+    private final Supplier<List<URI>> peers;
+    private final Target target;
+    private final int port;
+    private final long batchDelayMs;
+    private final long antiEntropyIntervalMs;
+    private final Duration timeout;
+    private final InvalidationLog log;
+
+    private final Map<Long, Origin> origins = new ConcurrentHashMap<>();
+    private final Set<URI> self = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock outgoingLock = new ReentrantLock();
+    private List<InvalidationLog.Entry> outgoing = new ArrayList<>();
+    private final AtomicBoolean syncRequested = new AtomicBoolean();
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong pushFailures = new AtomicLong();
+    private final AtomicLong deltas = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong syncFailures = new AtomicLong();
+    private final AtomicLong rejectedFrames = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpClient client;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public PeerInvalidationBus(InvalidationCodec codec, Supplier<List<URI>> peers, Target target, int port,
+                               long batchDelayMs, int logSize, long antiEntropyIntervalMs, long timeoutMs) {
+        this.codec = codec;
+        this.peers = peers;
+        this.target = target;
+        this.port = port;
+        this.batchDelayMs = batchDelayMs;
+        this.antiEntropyIntervalMs = antiEntropyIntervalMs;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.log = new InvalidationLog(logSize);
+    }
+
+    public void start() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(2, daemonThreads("peer-bus-http"));
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext(PUSH_PATH, exchange -> handle(exchange, this::onPush));
+        server.createContext(PULL_PATH, exchange -> handle(exchange, this::onPull));
+        server.start();
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        scheduler = Executors.newScheduledThreadPool(2, daemonThreads("peer-bus"));
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::antiEntropy, 0, antiEntropyIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Peer invalidation bus listening on port {}", getPort());
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flush(); // Best effort: what the peers miss here was already applied locally and dies with this instance
+        scheduler.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getInstanceId() {
+        return instanceId;
+    }
+
+    @EventListener
+    public void onPermissionsChanged(EmployeePermissionsChangedEvent event) {
+        publish(Invalidation.employee(event.getEmail()));
+    }
+
+    @EventListener
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        publish(Invalidation.revocation(event.getRevocation()));
+    }
+
+    // Numbers the invalidation and queues it for the next push; the caller has already applied it locally
+    public void publish(Invalidation invalidation) {
+        InvalidationLog.Entry entry = log.append(invalidation);
+        if (!running) {
+            return; // Still in the log, so peers get it when they pull
+        }
+        boolean first;
+        outgoingLock.lock();
+        try {
+            first = outgoing.isEmpty();
+            outgoing.add(entry);
+        } finally {
+            outgoingLock.unlock();
+        }
+        if (first) {
+            scheduler.schedule(this::flush, batchDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        List<InvalidationLog.Entry> batch;
+        outgoingLock.lock();
+        try {
+            batch = outgoing;
+            outgoing = new ArrayList<>();
+        } finally {
+            outgoingLock.unlock();
+        }
+        List<URI> targets = targets();
+        for (int from = 0; from < batch.size(); from += MAX_PUSH_ENTRIES) {
+            List<InvalidationLog.Entry> entries = batch.subList(from, Math.min(batch.size(), from + MAX_PUSH_ENTRIES));
+            byte[] frame = codec.encode(new Frame(Kind.PUSH, instanceId,
+                    entries.get(entries.size() - 1).getSequence(), entries, Map.of()));
+            for (URI peer : targets) {
+                client.sendAsync(request(peer, PUSH_PATH, frame), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error != null || response.statusCode() != 204) {
+                                pushFailures.incrementAndGet();
+                                logger.debug("Push to peer {} failed: {}", peer,
+                                        error != null ? error.toString() : "HTTP " + response.statusCode());
+                            }
+                        });
+            }
+        }
+    }
+
+    // Pulls from every peer what this instance has not applied yet
+    private void antiEntropy() {
+        syncRequested.set(false);
+        try {
+            Map<Long, Long> digest = new HashMap<>();
+            long expiry = System.currentTimeMillis() - ORIGIN_EXPIRY_ROUNDS * antiEntropyIntervalMs;
+            origins.entrySet().removeIf(origin -> origin.getValue().lastHeardMillis < expiry);
+            origins.forEach((id, origin) -> digest.put(id, origin.applied));
+            byte[] frame = codec.encode(new Frame(Kind.PULL, instanceId, log.getHead(), List.of(), digest));
+
+            List<CompletableFuture<Void>> pulls = new ArrayList<>();
+            for (URI peer : targets()) {
+                pulls.add(client.sendAsync(request(peer, PULL_PATH, frame), HttpResponse.BodyHandlers.ofByteArray())
+                        .thenAccept(response -> onPullAnswer(peer, response))
+                        .exceptionally(error -> {
+                            syncFailures.incrementAndGet();
+                            logger.debug("Pull from peer {} failed: {}", peer, error.toString());
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(pulls.toArray(new CompletableFuture[0])).join();
+        } catch (RuntimeException e) {
+            logger.error("Peer anti-entropy round failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void onPullAnswer(URI peer, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        Frame frame = codec.decode(response.body());
+        if (frame.getSender() == instanceId) {
+            self.add(peer);
+            return;
+        }
+        if (frame.getKind() == Kind.SNAPSHOT) {
+            Origin origin = origin(frame.getSender());
+            origin.lock.lock();
+            try {
+                List<Revocation> revocations = new ArrayList<>(frame.getEntries().size());
+                frame.getEntries().forEach(entry -> revocations.add(entry.getInvalidation().getRevocation()));
+                target.resync(revocations);
+                origin.applied = frame.getHead();
+            } finally {
+                origin.lock.unlock();
+            }
+            snapshots.incrementAndGet();
+            logger.info("Resynced from peer {} with {} revocations", peer, frame.getEntries().size());
+        } else if (frame.getKind() == Kind.DELTA) {
+            if (!frame.getEntries().isEmpty()) {
+                deltas.incrementAndGet();
+            }
+            receive(frame.getSender(), frame.getEntries());
+        }
+    }
+
+    private byte[] onPush(Frame frame) {
+        if (frame.getKind() != Kind.PUSH) {
+            throw new IllegalArgumentException("Expected a push, got " + frame.getKind());
+        }
+        if (frame.getSender() != instanceId) {
+            receive(frame.getSender(), frame.getEntries());
+        }
+        return null;
+    }
+
+    // An unknown puller is treated as having applied nothing, so it gets the whole log if the log still has it
+    private byte[] onPull(Frame frame) {
+        if (frame.getKind() != Kind.PULL) {
+            throw new IllegalArgumentException("Expected a pull, got " + frame.getKind());
+        }
+        long since = frame.getDigest().getOrDefault(instanceId, 0L);
+        List<InvalidationLog.Entry> missed = log.after(since);
+        if (missed != null) {
+            long head = missed.isEmpty() ? since : missed.get(missed.size() - 1).getSequence();
+            return codec.encode(new Frame(Kind.DELTA, instanceId, head, missed, Map.of()));
+        }
+        // Head first: anything logged after it is sent again by the next delta, whether the snapshot has it or not
+        long head = log.getHead();
+        List<InvalidationLog.Entry> entries = new ArrayList<>();
+        for (Revocation revocation : target.activeRevocations()) {
+            entries.add(new InvalidationLog.Entry(head, Invalidation.revocation(revocation)));
+        }
+        return codec.encode(new Frame(Kind.SNAPSHOT, instanceId, head, entries, Map.of()));
+    }
+
+    // Applies entries past the sender's contiguous sequence number; a gap triggers an immediate pull
+    private void receive(long sender, List<InvalidationLog.Entry> entries) {
+        Origin origin = origin(sender);
+        boolean gap = false;
+        origin.lock.lock();
+        try {
+            for (InvalidationLog.Entry entry : entries) {
+                long sequence = entry.getSequence();
+                if (sequence <= origin.applied) {
+                    continue;
+                }
+                target.apply(entry.getInvalidation());
+                applied.incrementAndGet();
+                if (sequence == origin.applied + 1) {
+                    origin.applied = sequence;
+                } else {
+                    gap = true;
+                }
+            }
+        } finally {
+            origin.lock.unlock();
+        }
+        if (gap && running && syncRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::antiEntropy);
+        }
+    }
+
+    private Origin origin(long sender) {
+        Origin origin = origins.computeIfAbsent(sender, id -> new Origin());
+        origin.lastHeardMillis = System.currentTimeMillis();
+        return origin;
+    }
+
+    private List<URI> targets() {
+        List<URI> targets = new ArrayList<>();
+        for (URI peer : peers.get()) {
+            if (!self.contains(peer)) {
+                targets.add(peer);
+            }
+        }
+        return targets;
+    }
+
+    private HttpRequest request(URI peer, String path, byte[] frame) {
+        return HttpRequest.newBuilder(peer.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(frame))
+                .build();
+    }
+
+    private void handle(HttpExchange exchange, Function<Frame, byte[]> handler) {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_FRAME_BYTES + 1);
+            }
+            if (body.length > MAX_FRAME_BYTES) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            byte[] answer;
+            try {
+                answer = handler.apply(codec.decode(body));
+            } catch (IllegalArgumentException e) {
+                rejectedFrames.incrementAndGet();
+                logger.warn("Rejected peer frame from {}: {}", exchange.getRemoteAddress(), e.getMessage());
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            if (answer == null) {
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(answer);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to handle peer frame from {}: {}", exchange.getRemoteAddress(), e.getMessage(), e);
+            try {
+                exchange.sendResponseHeaders(500, -1);
+            } catch (IOException | RuntimeException ignored) {
+                // Response already started; closing the exchange is all that is left
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.peers.known", origins, Map::size)
+                .description("Peer instances heard from recently")
+                .register(registry);
+        FunctionCounter.builder("gateway.peers.invalidations", log, InvalidationLog::getHead)
+                .tag("result", "published").register(registry);
+        FunctionCounter.builder("gateway.peers.invalidations", applied, AtomicLong::get)
+                .tag("result", "applied").register(registry);
+        FunctionCounter.builder("gateway.peers.push.failures", pushFailures, AtomicLong::get).register(registry);
+        FunctionCounter.builder("gateway.peers.sync", deltas, AtomicLong::get)
+                .tag("result", "delta").register(registry);
+        FunctionCounter.builder("gateway.peers.sync", snapshots, AtomicLong::get)
+                .tag("result", "snapshot").register(registry);
+        FunctionCounter.builder("gateway.peers.sync", syncFailures, AtomicLong::get)
+                .tag("result", "failed").register(registry);
+        FunctionCounter.builder("gateway.peers.frames.rejected", rejectedFrames, AtomicLong::get).register(registry);
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    public long getSnapshotCount() {
+        return snapshots.get();
+    }
+
+    public long getRejectedFrameCount() {
+        return rejectedFrames.get();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // What this instance has applied from one sending instance
+    private static final class Origin {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long applied;
+        private volatile long lastHeardMillis;
+    }
+}
@@ -0,0 +1,49 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.repository.PermissionRepository;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.PermissionCatalog;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Loads the permission table into the {@link PermissionCatalog} that JwtUtil encodes and decodes with.
+ * New permissions are picked up on the next refresh; until then they travel by name.
+ */
+@Service
+public class PermissionCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionCatalogService.class);
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    // An unchanged table keeps the current catalog and its memoized decodings; on failure it stays in place too
+    @Scheduled(initialDelayString = "${jwt.permissions.catalog-refresh-ms:300000}",
+            fixedDelayString = "${jwt.permissions.catalog-refresh-ms:300000}")
+    public void refresh() {
+        try {
+            PermissionCatalog catalog = PermissionCatalog.of(permissionRepository.findAll());
+            if (!catalog.hasSameEntries(jwtUtil.getPermissionCatalog())) {
+                jwtUtil.setPermissionCatalog(catalog);
+                logger.info("Loaded permission catalog with {} permissions", catalog.size());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to load permission catalog: {}", e.getMessage(), e);
+        }
+    }
+}
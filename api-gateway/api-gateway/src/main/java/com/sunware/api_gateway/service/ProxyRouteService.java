@@ -0,0 +1,84 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import com.sunware.api_gateway.util.FileChangeWatcher;
+import com.sunware.api_gateway.util.ProxyRoute;
+import com.sunware.api_gateway.util.ProxyRouteTable;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Holds the {@link ProxyRouteTable} both proxies consult. The table comes from the classpath or, when
+ * {@code gateway.proxy.routes-file} is set, from a local file that is reloaded whenever it changes; a reload
+ * that fails keeps the current table.
+ */
+@Service
+public class ProxyRouteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyRouteService.class);
+
+    private static final String DEFAULT_ROUTES = "proxy-routes.properties";
+
+    @Value("${gateway.proxy.routes-file:}")
+    private String routesFile;
+
+    @Value("${gateway.proxy.response-timeout-ms:30000}")
+    private long responseTimeoutMs;
+
+    private volatile ProxyRouteTable table = ProxyRouteTable.EMPTY;
+    private FileChangeWatcher routesWatcher;
+
+    @PostConstruct
+    public void init() {
+        if (routesFile == null || routesFile.isEmpty()) {
+            try (InputStream in = new ClassPathResource(DEFAULT_ROUTES).getInputStream()) {
+                table = ProxyRouteTable.load(in, DEFAULT_ROUTES, Duration.ofMillis(responseTimeoutMs));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + DEFAULT_ROUTES, e);
+            }
+        } else {
+            Path file = Path.of(routesFile);
+            table = ProxyRouteTable.load(file, Duration.ofMillis(responseTimeoutMs));
+            routesWatcher = FileChangeWatcher.watch(file, this::reload, "proxy-routes-watcher");
+        }
+        logger.info("Loaded {} proxy routes: {}", table.getRoutes().size(), table.getRoutes());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (routesWatcher != null) {
+            routesWatcher.close();
+        }
+    }
+
+    public void reload() {
+        if (routesFile == null || routesFile.isEmpty()) {
+            return;
+        }
+        try {
+            table = ProxyRouteTable.load(Path.of(routesFile), Duration.ofMillis(responseTimeoutMs));
+            logger.info("Reloaded proxy routes from {}: {}", routesFile, table.getRoutes());
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload proxy routes from {}: {}", routesFile, e.getMessage(), e);
+        }
+    }
+
+    // Null when the request is not proxied
+    public ProxyRoute match(String method, String path) {
+        return table.match(method, path);
+    }
+
+    public ProxyRouteTable getTable() {
+        return table;
+    }
+}
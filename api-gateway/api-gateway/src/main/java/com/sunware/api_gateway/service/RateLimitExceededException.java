@@ -0,0 +1,18 @@
+package com.sunware.api_gateway.service;
+
+/**
+ * Thrown by {@link AuthRateLimiter} when a caller is over its limit or locked out (HTTP 429 with Retry-After).
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,164 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.model.RefreshToken;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.model.TokenPair;
+import com.sunware.api_gateway.repository.RefreshTokenStore;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.AuthMetrics.RefreshOutcome;
+import com.sunware.api_gateway.util.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Opaque, single-use refresh tokens. Every refresh redeems the presented token and issues its successor in
+ * the same family; presenting an already redeemed token means it was copied, so the whole family is deleted
+ * and the user's access tokens are revoked. Access tokens are re-signed from the cached employee view,
+ * without touching the OTP store or the mail queue.
+ * <p>
+ * Revoking a user or everyone issued before a cutoff ends their refresh sessions as well: the covered tokens
+ * are deleted when the revocation is made here, and refused while it is active if it came from elsewhere.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final EmployeeDirectoryService employeeDirectoryService;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+    private final long ttlMillis;
+
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore,
+                               EmployeeDirectoryService employeeDirectoryService,
+                               JwtUtil jwtUtil,
+                               TokenRevocationService tokenRevocationService,
+                               AuthMetrics authMetrics,
+                               @Value("${refresh-token.ttl-seconds:1209600}") long ttlSeconds) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.employeeDirectoryService = employeeDirectoryService;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authMetrics = authMetrics;
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    // Start a new family after a successful OTP login
+    public String issue(String email) {
+        return issue(email, randomToken(16));
+    }
+
+    public TokenPair refresh(String refreshToken) {
+        long start = System.nanoTime();
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            authMetrics.refreshed(RefreshOutcome.INVALID, start);
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        RefreshToken redeemed = refreshTokenStore.markUsed(hash(refreshToken));
+        if (redeemed == null) {
+            authMetrics.refreshed(RefreshOutcome.INVALID, start);
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (redeemed.isUsed()) {
+            // Both the client and whoever copied the token now hold dead tokens; the user has to log in again
+            refreshTokenStore.deleteFamily(redeemed.getFamilyId());
+            tokenRevocationService.revokeUser(redeemed.getEmail(), System.currentTimeMillis());
+            authMetrics.refreshed(RefreshOutcome.REUSED, start);
+            logger.warn("Refresh token reuse detected for email: {}; session revoked", redeemed.getEmail());
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (redeemed.isExpired(System.currentTimeMillis())) {
+            authMetrics.refreshed(RefreshOutcome.EXPIRED, start);
+            throw new RuntimeException("Refresh token expired");
+        }
+        if (tokenRevocationService.getRevocations().covers(redeemed.getEmail(), redeemed.getIssuedAtMillis())) {
+            refreshTokenStore.deleteFamily(redeemed.getFamilyId());
+            authMetrics.refreshed(RefreshOutcome.INVALID, start);
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        EmployeeView employee = employeeDirectoryService.findByEmail(redeemed.getEmail());
+        if (employee == null) {
+            refreshTokenStore.deleteFamily(redeemed.getFamilyId());
+            authMetrics.refreshed(RefreshOutcome.INVALID, start);
+            throw new RuntimeException("Invalid email");
+        }
+
+        String accessToken = jwtUtil.generateToken(employee.getEmail(), employee.getPermissions());
+        String next = issue(employee.getEmail(), redeemed.getFamilyId());
+        authMetrics.refreshed(RefreshOutcome.ROTATED, start);
+        logger.debug("Rotated refresh token for email: {}", employee.getEmail());
+        return new TokenPair(accessToken, next);
+    }
+
+    // Ends the session the token belongs to, if it was issued to the given user; other tokens are ignored.
+    // It is only looked up, not redeemed, so presenting someone else's token cannot trip their reuse detection
+    public void revoke(String refreshToken, String email) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return;
+        }
+        RefreshToken stored = refreshTokenStore.find(hash(refreshToken));
+        if (stored == null) {
+            return;
+        }
+        if (!stored.getEmail().equals(email)) {
+            logger.warn("Logout by {} presented a refresh token of another user; ignored", email);
+            return;
+        }
+        refreshTokenStore.deleteFamily(stored.getFamilyId());
+    }
+
+    @EventListener
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        Revocation revocation = event.getRevocation();
+        int removed;
+        if (revocation.getType() == Revocation.Type.USER) {
+            removed = refreshTokenStore.deleteByEmail(revocation.getKey(), revocation.getIssuedBeforeMillis());
+        } else if (revocation.getType() == Revocation.Type.ALL) {
+            removed = refreshTokenStore.deleteIssuedBefore(revocation.getIssuedBeforeMillis());
+        } else {
+            return;
+        }
+        logger.debug("Deleted {} refresh tokens covered by {}", removed, revocation);
+    }
+
+    private String issue(String email, String familyId) {
+        String token = randomToken(32);
+        long now = System.currentTimeMillis();
+        refreshTokenStore.save(new RefreshToken(hash(token), familyId, email, now, now + ttlMillis, false));
+        return token;
+    }
+
+    private static String randomToken(int bytes) {
+        byte[] random = new byte[bytes];
+        RANDOM.nextBytes(random);
+        return ENCODER.encodeToString(random);
+    }
+
+    // Only the digest is stored, so a leaked table or heap dump yields no usable tokens
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
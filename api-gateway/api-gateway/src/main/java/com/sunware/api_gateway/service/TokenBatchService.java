@@ -0,0 +1,106 @@
+package com.sunware.api_gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.TokenVerificationResult;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk verification and issuance for service-to-service callers.
+ * <p>
+ * Batches run on a dedicated ForkJoinPool, so a large reconciliation job neither competes with parallel
+ * streams elsewhere in the common pool nor ties up a request thread; callers get a future that completes on
+ * the pool, which Spring MVC and WebFlux both answer asynchronously.
+ * <p>
+ * Issued tokens are for services only: subjects must be {@code svc:<name>}, so a token can never pass for an
+ * employee, and permissions must be on {@code jwt.batch.issuable-permissions} and held by the caller, so
+ * holding issue_tokens does not grant any other permission.
+ */
+@Service
+public class TokenBatchService {
+
+    public static final String SERVICE_SUBJECT_PREFIX = "svc:";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final int maxBatchSize;
+    private final Set<String> issuablePermissions;
+    private final ForkJoinPool pool;
+
+    public TokenBatchService(JwtUtil jwtUtil,
+                             TokenRevocationService tokenRevocationService,
+                             @Value("${jwt.batch.max-size:10000}") int maxBatchSize,
+                             @Value("${jwt.batch.parallelism:0}") int parallelism,
+                             @Value("${jwt.batch.issuable-permissions:}") String issuablePermissions) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.maxBatchSize = maxBatchSize;
+        this.issuablePermissions = Arrays.stream(issuablePermissions.split(","))
+                .map(String::trim)
+                .filter(permission -> !permission.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Results in input order; revoked tokens are reported as such, like the authentication filter does
+    public CompletableFuture<List<TokenVerificationResult>> verify(List<String> tokens) {
+        checkSize(tokens);
+        return CompletableFuture.supplyAsync(() -> {
+            List<TokenVerificationResult> results = jwtUtil.verifyTokens(tokens);
+            List<TokenVerificationResult> checked = new ArrayList<>(results.size());
+            for (TokenVerificationResult result : results) {
+                checked.add(result.isValid() && tokenRevocationService.isRevoked(result.getToken())
+                        ? TokenVerificationResult.rejected(RejectionReason.REVOKED) : result);
+            }
+            return checked;
+        }, pool);
+    }
+
+    // callerPermissions are the authorities of whoever asks; nobody can hand out more than they hold
+    public CompletableFuture<List<String>> issue(List<String> subjects, Collection<String> permissionNames,
+                                                 Collection<String> callerPermissions) {
+        checkSize(subjects);
+        for (String subject : subjects) {
+            if (subject == null || !subject.startsWith(SERVICE_SUBJECT_PREFIX)
+                    || subject.length() == SERVICE_SUBJECT_PREFIX.length()) {
+                throw new IllegalArgumentException("Subjects must be service names of the form "
+                        + SERVICE_SUBJECT_PREFIX + "<name>");
+            }
+        }
+        for (String permission : permissionNames) {
+            if (!issuablePermissions.contains(permission)) {
+                throw new IllegalArgumentException("Permission " + permission + " may not be issued");
+            }
+            if (!callerPermissions.contains(permission)) {
+                throw new IllegalArgumentException("Permission " + permission + " is not held by the caller");
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> jwtUtil.generateTokens(subjects, permissionNames), pool);
+    }
+
+    private void checkSize(List<String> batch) {
+        if (batch == null || batch.isEmpty()) {
+            throw new IllegalArgumentException("Batch must not be empty");
+        }
+        if (batch.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + batch.size() + " exceeds the limit of " + maxBatchSize);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.sunware.api_gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.repository.RevocationStore;
+import com.sunware.api_gateway.util.InvalidTokenException;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.RevocationList;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revokes tokens before their exp: one token by jti, every token of a user, or every token issued before
+ * a cutoff. Revocations are written to the {@link RevocationStore} first and then applied to the in-memory
+ * {@link RevocationList} the authentication filters check, which is a single volatile read per request.
+ * Each one is then published as a {@link TokenRevokedEvent}, which the peer bus passes on to other instances.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevocationStore revocationStore;
+    private final JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile RevocationList revocations = RevocationList.EMPTY;
+
+    // Serializes writers so a reload cannot overwrite a revocation applied while it was reading the store
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public TokenRevocationService(RevocationStore revocationStore, JwtUtil jwtUtil,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.revocationStore = revocationStore;
+        this.jwtUtil = jwtUtil;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Without anyone to tell, for instances built outside a Spring context
+    public TokenRevocationService(RevocationStore revocationStore, JwtUtil jwtUtil) {
+        this(revocationStore, jwtUtil, event -> { });
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return revocations.isRevoked(token);
+    }
+
+    // Hot-path check for the authentication filters; applied to cache hits too
+    public VerifiedToken checkNotRevoked(VerifiedToken token) {
+        if (revocations.isRevoked(token)) {
+            throw new InvalidTokenException(RejectionReason.REVOKED, "JWT token has been revoked");
+        }
+        return token;
+    }
+
+    // Revoke one token; it must still verify, since an invalid or expired token is rejected anyway
+    public Revocation revokeToken(String token) {
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+        if (verified.getTokenId() == null) {
+            throw new IllegalArgumentException("Token has no jti claim; revoke its user instead");
+        }
+        return apply(Revocation.token(verified.getTokenId(), verified.getExpirationMillis()));
+    }
+
+    // Revoke every token of the user issued before the cutoff; tokens from a later login stay valid
+    public Revocation revokeUser(String subject, long issuedBeforeMillis) {
+        if (subject == null || subject.isEmpty()) {
+            throw new IllegalArgumentException("User email is required");
+        }
+        return apply(Revocation.user(subject, issuedBeforeMillis, jwtUtil.getExpirationTimeMs()));
+    }
+
+    public Revocation revokeIssuedBefore(long issuedBeforeMillis) {
+        return apply(Revocation.all(issuedBeforeMillis, jwtUtil.getExpirationTimeMs()));
+    }
+
+    private Revocation apply(Revocation revocation) {
+        lock.lock();
+        try {
+            revocationStore.append(revocation);
+            revocations = revocations.with(revocation, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Revoked {}", revocation);
+        eventPublisher.publishEvent(new TokenRevokedEvent(revocation));
+        return revocation;
+    }
+
+    // Revocations made on other instances, received over the peer bus. Ones already known or expired are skipped;
+    // the rest are kept in the local store too, unless it is shared and so already has them
+    public int applyPeerRevocations(Collection<Revocation> received) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Set<Revocation> known = new HashSet<>(revocations.getEntries());
+            List<Revocation> added = new ArrayList<>();
+            for (Revocation revocation : received) {
+                if (!revocation.isExpired(now) && known.add(revocation)) {
+                    if (!revocationStore.isShared()) {
+                        revocationStore.append(revocation);
+                    }
+                    added.add(revocation);
+                }
+            }
+            if (!added.isEmpty()) {
+                List<Revocation> next = new ArrayList<>(revocations.getEntries());
+                next.addAll(added);
+                revocations = RevocationList.of(next, now);
+                logger.info("Applied {} token revocations from peers", added.size());
+            }
+            return added.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Picks up revocations made by other instances; on failure the current list stays in place
+    @Scheduled(initialDelayString = "${revocation.refresh-interval-ms:10000}",
+            fixedDelayString = "${revocation.refresh-interval-ms:10000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            RevocationList loaded = RevocationList.of(revocationStore.loadActive(now), now);
+            if (loaded.size() != revocations.size()) {
+                logger.info("Loaded {} active token revocations", loaded.size());
+            }
+            revocations = loaded;
+        } catch (RuntimeException e) {
+            logger.error("Failed to load token revocations: {}", e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int removed = revocationStore.purgeExpired(System.currentTimeMillis());
+            if (removed > 0) {
+                logger.info("Purged {} expired token revocations", removed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to purge token revocations: {}", e.getMessage(), e);
+        }
+        refresh();
+    }
+
+    public RevocationList getRevocations() {
+        return revocations;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sunware.api_gateway.service;
+
+import com.sunware.api_gateway.model.Revocation;
+
+/**
+ * Published after a revocation made on this instance is stored and applied, so it can be passed on to the
+ * other instances. Revocations received from peers are applied without it.
+ */
+public class TokenRevokedEvent {
+
+    private final Revocation revocation;
+
+    public TokenRevokedEvent(Revocation revocation) {
+        this.revocation = revocation;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+}
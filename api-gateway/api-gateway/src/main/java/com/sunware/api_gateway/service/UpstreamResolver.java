@@ -0,0 +1,69 @@
+package com.sunware.api_gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Service;
+import com.sunware.api_gateway.util.ProxyRoute;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the upstream instance for each proxied request, round robin per route.
+ * <p>
+ * {@code lb://} routes are resolved through the {@link DiscoveryClient}: Eureka when it is enabled, plus any
+ * {@code spring.cloud.discovery.client.simple.instances} entries. Instance lists are kept for
+ * {@code gateway.proxy.discovery-cache-ms}, so the registry is not copied on every request.
+ */
+@Service
+public class UpstreamResolver {
+
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final Cache<String, List<URI>> instances;
+    private final Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+
+    public UpstreamResolver(ObjectProvider<DiscoveryClient> discoveryClient,
+                            @Value("${gateway.proxy.discovery-cache-ms:1000}") long discoveryCacheMs) {
+        this.discoveryClient = discoveryClient;
+        this.instances = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(discoveryCacheMs))
+                .maximumSize(1000)
+                .build();
+    }
+
+    public URI choose(ProxyRoute route) {
+        List<URI> candidates = route.isDiscovered()
+                ? instances.get(route.getServiceId(), this::discover)
+                : route.getUris();
+        if (candidates.isEmpty()) {
+            throw new UpstreamUnavailableException("No instances of " + route.getServiceId() + " for route "
+                    + route.getName());
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        int position = positions.computeIfAbsent(route.getName(), name -> new AtomicInteger()).getAndIncrement();
+        return candidates.get(Math.floorMod(position, candidates.size()));
+    }
+
+    private List<URI> discover(String serviceId) {
+        DiscoveryClient client = discoveryClient.getIfAvailable();
+        if (client == null) {
+            return List.of();
+        }
+        List<URI> uris = new ArrayList<>();
+        for (ServiceInstance instance : client.getInstances(serviceId)) {
+            uris.add(instance.getUri());
+        }
+        return List.copyOf(uris);
+    }
+}
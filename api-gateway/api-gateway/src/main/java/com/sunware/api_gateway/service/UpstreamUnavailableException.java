@@ -0,0 +1,11 @@
+package com.sunware.api_gateway.service;
+
+/**
+ * Thrown by {@link UpstreamResolver} when a route has no instance to send a request to (HTTP 503).
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sunware.api_gateway.util;
+
+/**
+ * Kinds of authentication decision recorded in the audit trail; the name is the {@code event} field of a
+ * record. Successes may be sampled, failures and denials are always recorded.
+ */
+public enum AuditEventType {
+
+    TOKEN_ACCEPTED("token.accepted", true),
+    TOKEN_REJECTED("token.rejected", false),
+    ACCESS_DENIED("access.denied", false),
+    OTP_ISSUED("otp.issued", true),
+    OTP_ISSUE_FAILED("otp.issue_failed", false),
+    OTP_VALIDATED("otp.validated", true),
+    OTP_VALIDATION_FAILED("otp.validation_failed", false);
+
+    private final String eventName;
+    private final boolean success;
+
+    AuditEventType(String eventName, boolean success) {
+        this.eventName = eventName;
+        this.success = success;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,191 @@
+package com.sunware.api_gateway.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only NDJSON audit trail, one event per line:
+ * <pre>
+ * {"ts":"2026-10-18T09:30:00.123Z","event":"token.rejected","reason":"expired","path":"/api/read","client":"10.0.0.7"}
+ * </pre>
+ * Events are encoded into a buffer and written and synced as one batch on {@link #flush()}. Before a batch
+ * would take the file past the size limit, the file is renamed to {@code <name>.<UTC timestamp>} and a new
+ * one started; only the newest rotated files are kept. Not thread-safe: owned by the audit writer thread.
+ */
+public final class AuditFile implements Closeable {
+
+    private static final DateTimeFormatter ROTATED_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private final StringBuilder line = new StringBuilder(256);
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private int pendingEvents;
+    private FileChannel channel;
+    private long size;
+
+    // Single writer; volatile so the metrics thread reads current values
+    private volatile long writtenEvents;
+    private volatile long lostEvents;
+
+    public AuditFile(Path file, long maxBytes, int maxFiles) {
+        if (maxBytes < 1 || maxFiles < 0) {
+            throw new IllegalArgumentException("Audit file size limit must be positive and kept files not negative");
+        }
+        this.file = file.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    public void append(AuditRingBuffer.Slot event) {
+        encode(event);
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > pending.remaining()) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + bytes.length);
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.put(bytes);
+        pendingEvents++;
+    }
+
+    public int getPendingEvents() {
+        return pendingEvents;
+    }
+
+    // Writes and syncs the buffered events; on failure they are counted as lost and the file is reopened next time
+    public void flush() throws IOException {
+        if (pendingEvents == 0) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                open();
+            }
+            pending.flip();
+            if (size > 0 && size + pending.remaining() > maxBytes) {
+                rotate();
+            }
+            while (pending.hasRemaining()) {
+                size += channel.write(pending);
+            }
+            channel.force(false);
+            writtenEvents += pendingEvents;
+        } catch (IOException e) {
+            lostEvents += pendingEvents;
+            closeChannel();
+            throw e;
+        } finally {
+            pending.clear();
+            pendingEvents = 0;
+            if (pending.capacity() > INITIAL_BUFFER_BYTES) {
+                pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // Give back what a burst grew
+            }
+        }
+    }
+
+    public long getWrittenEvents() {
+        return writtenEvents;
+    }
+
+    public long getLostEvents() {
+        return lostEvents;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void rotate() throws IOException {
+        closeChannel();
+        String prefix = file.getFileName() + ".";
+        Path rotated = file.resolveSibling(prefix + ROTATED_SUFFIX.format(Instant.now()));
+        for (int i = 1; Files.exists(rotated); i++) {
+            rotated = file.resolveSibling(prefix + ROTATED_SUFFIX.format(Instant.now()) + "-" + i);
+        }
+        Files.move(file, rotated);
+
+        // The fixed-width timestamp makes name order the age order
+        List<Path> kept = new ArrayList<>();
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(file.getParent(), prefix + "*")) {
+            siblings.forEach(kept::add);
+        }
+        Collections.sort(kept);
+        for (int i = 0; i < kept.size() - maxFiles; i++) {
+            Files.deleteIfExists(kept.get(i));
+        }
+        open();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to save; the next flush opens a new channel
+            }
+            channel = null;
+        }
+    }
+
+    private void encode(AuditRingBuffer.Slot event) {
+        line.setLength(0);
+        line.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimeMillis()), line);
+        line.append("\",\"event\":\"").append(event.getType().getEventName()).append('"');
+        field("subject", event.getSubject());
+        field("reason", event.getReason());
+        field("path", event.getPath());
+        field("client", event.getClient());
+        line.append("}\n");
+    }
+
+    private void field(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
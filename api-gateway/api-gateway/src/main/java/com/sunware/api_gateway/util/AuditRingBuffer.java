@@ -0,0 +1,146 @@
+package com.sunware.api_gateway.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free hand-off of audit events from request threads to a single writer thread.
+ * <p>
+ * All slots are allocated up front and reused, so recording an event allocates nothing: a producer claims a
+ * sequence number with one CAS, fills the slot's fields and publishes it by advancing the slot's sequence.
+ * When the writer has not yet freed the slot a producer would need, the buffer is full and
+ * {@link #offer} returns false at once instead of waiting. Only one thread may call {@link #drain}.
+ */
+public final class AuditRingBuffer {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final Slot[] slots;
+    private final int mask;
+
+    // Per slot: equal to the claiming sequence while free, that sequence + 1 once published
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLongArray sequences;
+    private volatile long consumed;
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Audit buffer capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = new Slot[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    // False when the buffer is full; the event is then not recorded
+    public boolean offer(AuditEventType type, long timeMillis, String subject, String reason, String path,
+                         String client) {
+        long sequence = claimed.get();
+        while (true) {
+            int index = (int) sequence & mask;
+            long state = sequences.get(index);
+            if (state == sequence) {
+                if (claimed.compareAndSet(sequence, sequence + 1)) {
+                    slots[index].set(type, timeMillis, subject, reason, path, client);
+                    sequences.lazySet(index, sequence + 1);
+                    return true;
+                }
+                sequence = claimed.get();
+            } else if (state < sequence) {
+                return false; // Still holds the event of the previous lap
+            } else {
+                sequence = claimed.get(); // Taken by another producer
+            }
+        }
+    }
+
+    // Hands published events to the sink in order, at most limit of them, and frees their slots
+    public int drain(Consumer<Slot> sink, int limit) {
+        long sequence = consumed;
+        int count = 0;
+        while (count < limit) {
+            int index = (int) sequence & mask;
+            if (sequences.get(index) != sequence + 1) {
+                break; // Not published yet
+            }
+            Slot slot = slots[index];
+            try {
+                sink.accept(slot);
+            } finally {
+                slot.clear();
+                sequences.lazySet(index, sequence + slots.length);
+                sequence++;
+                count++;
+                consumed = sequence;
+            }
+        }
+        return count;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    // Claimed but not yet drained; approximate while producers are active
+    public int size() {
+        return (int) Math.max(0, claimed.get() - consumed);
+    }
+
+    /**
+     * One preallocated event; only valid inside the {@link #drain} sink call it is passed to.
+     */
+    public static final class Slot {
+
+        private AuditEventType type;
+        private long timeMillis;
+        private String subject;
+        private String reason;
+        private String path;
+        private String client;
+
+        private void set(AuditEventType type, long timeMillis, String subject, String reason, String path,
+                         String client) {
+            this.type = type;
+            this.timeMillis = timeMillis;
+            this.subject = subject;
+            this.reason = reason;
+            this.path = path;
+            this.client = client;
+        }
+
+        // Drops the references so drained events do not keep request strings reachable
+        private void clear() {
+            set(null, 0, null, null, null, null);
+        }
+
+        public AuditEventType getType() {
+            return type;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getClient() {
+            return client;
+        }
+    }
+}
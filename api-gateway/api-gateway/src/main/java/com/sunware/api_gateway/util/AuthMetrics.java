@@ -0,0 +1,157 @@
+package com.sunware.api_gateway.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import com.sunware.api_gateway.repository.OtpStore.OtpVerification;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the authentication hot path, published at /actuator/prometheus.
+ * <p>
+ * Every meter is registered up front, so recording is a nanoTime difference and a lock-free update with
+ * no tag lookup per request. Timers publish histogram buckets, so p99 can be computed across instances.
+ */
+@Component
+public class AuthMetrics {
+
+    private final Timer filterAuthenticated;
+    private final Timer filterRejected;
+    private final Timer tokenParse;
+    private final Timer tokenAuthorities;
+    private final Map<RejectionReason, Counter> rejections = new EnumMap<>(RejectionReason.class);
+
+    private final Timer otpIssueQueued;
+    private final Timer otpIssueRejected;
+    private final Timer otpIssueFailed;
+    private final Map<OtpVerification, Timer> otpValidate = new EnumMap<>(OtpVerification.class);
+    private final Timer otpValidateFailed;
+    private final Map<RefreshOutcome, Timer> refresh = new EnumMap<>(RefreshOutcome.class);
+    private final Map<RateLimit, Counter> rateLimited = new EnumMap<>(RateLimit.class);
+
+    public AuthMetrics(MeterRegistry registry) {
+        filterAuthenticated = fastTimer("auth.filter", "Time spent authenticating a request in the JWT filter",
+                registry, "outcome", "authenticated");
+        filterRejected = fastTimer("auth.filter", "Time spent authenticating a request in the JWT filter",
+                registry, "outcome", "rejected");
+        tokenParse = fastTimer("auth.token.parse", "JWT parse and signature check", registry);
+        tokenAuthorities = fastTimer("auth.token.authorities", "Decoding token permissions into authorities",
+                registry);
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, Counter.builder("auth.rejections")
+                    .description("Requests rejected by the authentication layer")
+                    .tag("reason", reason.getTag())
+                    .register(registry));
+        }
+
+        otpIssueQueued = otpTimer("auth.otp.issue", registry, "queued");
+        otpIssueRejected = otpTimer("auth.otp.issue", registry, "rejected");
+        otpIssueFailed = otpTimer("auth.otp.issue", registry, "failed");
+        for (OtpVerification verification : OtpVerification.values()) {
+            otpValidate.put(verification,
+                    otpTimer("auth.otp.validate", registry, verification.name().toLowerCase(Locale.ROOT)));
+        }
+        otpValidateFailed = otpTimer("auth.otp.validate", registry, "failed");
+        for (RefreshOutcome outcome : RefreshOutcome.values()) {
+            refresh.put(outcome, otpTimer("auth.refresh", registry, outcome.name().toLowerCase(Locale.ROOT)));
+        }
+        for (RateLimit limit : RateLimit.values()) {
+            rateLimited.put(limit, Counter.builder("auth.rate_limited")
+                    .description("/auth requests answered 429 before any database or mail work")
+                    .tag("limit", limit.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    // Meters that record nothing, for components built outside a Spring context
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry());
+    }
+
+    public void authenticated(long startNanos) {
+        filterAuthenticated.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rejected(RejectionReason reason, long startNanos) {
+        filterRejected.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        rejections.get(reason).increment();
+    }
+
+    // Rejections outside the filter, e.g. an authenticated user without the required authority
+    public void rejected(RejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    public void tokenParsed(long nanos) {
+        tokenParse.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void authoritiesDecoded(long nanos) {
+        tokenAuthorities.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void otpIssued(boolean queued, long startNanos) {
+        (queued ? otpIssueQueued : otpIssueRejected).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void otpIssueFailed(long startNanos) {
+        otpIssueFailed.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void otpValidated(OtpVerification verification, long startNanos) {
+        otpValidate.get(verification).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void otpValidateFailed(long startNanos) {
+        otpValidateFailed.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void refreshed(RefreshOutcome outcome, long startNanos) {
+        refresh.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rateLimited(RateLimit limit) {
+        rateLimited.get(limit).increment();
+    }
+
+    public enum RefreshOutcome {
+        ROTATED,
+        REUSED,
+        EXPIRED,
+        INVALID
+    }
+
+    public enum RateLimit {
+        IP,
+        EMAIL,
+        LOCKOUT
+    }
+
+    // Microsecond-scale operations: buckets from 10 us to 100 ms
+    private static Timer fastTimer(String name, String description, MeterRegistry registry, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
+    }
+
+    // OTP and refresh flows hit the database and the mail queue: buckets from 1 ms to 10 s
+    private static Timer otpTimer(String name, MeterRegistry registry, String outcome) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
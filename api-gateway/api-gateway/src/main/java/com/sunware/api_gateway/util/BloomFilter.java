@@ -0,0 +1,59 @@
+package com.sunware.api_gateway.util;
+
+/**
+ * Fixed-size Bloom filter over strings, sized at roughly 1% false positives for the expected entry count.
+ * <p>
+ * Probes are derived from {@link String#hashCode()}, which the String caches: a token served from
+ * {@link VerifiedTokenCache} carries the same jti and subject instances, so repeat lookups hash nothing.
+ * Not thread-safe while being filled; build it once and publish it read-only.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int PROBES = 7;
+    private static final int MIN_BITS = 1024;
+
+    private final long[] words;
+    private final int mask;
+
+    BloomFilter(int expectedEntries) {
+        long wanted = Math.max(MIN_BITS, (long) expectedEntries * BITS_PER_ENTRY);
+        int bits = Integer.highestOneBit((int) Math.min(1 << 30, wanted) - 1) << 1;
+        this.words = new long[bits >>> 6];
+        this.mask = bits - 1;
+    }
+
+    // seed keeps different kinds of key (jti, subject) from colliding with each other
+    void add(String value, long seed) {
+        long hash = mix(value.hashCode() ^ seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value, long seed) {
+        long hash = mix(value.hashCode() ^ seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MurmurHash3 finalizer, spreads the 32-bit String hash over 64 bits for the two probe hashes
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.EmployeeView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Changes to the employee directory between two snapshot versions: employees added or changed, and emails
+ * removed. Deltas are small and are read into memory whole; like snapshots they end with a CRC32.
+ */
+public final class EmployeeDelta {
+
+    static final int MAGIC = 0x454D5044; // "EMPD"
+    static final int FORMAT_VERSION = 1;
+
+    private static final byte UPSERT = 1;
+    private static final byte REMOVE = 2;
+
+    private final long fromVersion;
+    private final long toVersion;
+    private final long createdAtMillis;
+
+    // A null value removes the email
+    private final Map<String, EmployeeView> changes;
+
+    public EmployeeDelta(long fromVersion, long toVersion, long createdAtMillis, Map<String, EmployeeView> changes) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.createdAtMillis = createdAtMillis;
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+    }
+
+    public static EmployeeDelta read(Path file) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read employee delta " + file, e);
+        }
+        if (bytes.length < 4) {
+            throw new IllegalArgumentException(file + " is not an employee delta");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IllegalArgumentException("Employee delta " + file + " is corrupt (checksum mismatch)");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException(file + " is not a supported employee delta");
+            }
+            long fromVersion = in.readLong();
+            long toVersion = in.readLong();
+            long createdAtMillis = in.readLong();
+            int count = in.readInt();
+            Map<String, EmployeeView> changes = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                byte op = in.readByte();
+                String email = in.readUTF();
+                if (op == REMOVE) {
+                    changes.put(email, null);
+                    continue;
+                }
+                long id = in.readLong();
+                int permissionCount = in.readUnsignedShort();
+                Set<String> permissions = new LinkedHashSet<>();
+                for (int p = 0; p < permissionCount; p++) {
+                    permissions.add(in.readUTF());
+                }
+                changes.put(email, new EmployeeView(id, email, permissions));
+            }
+            return new EmployeeDelta(fromVersion, toVersion, createdAtMillis, changes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Employee delta " + file + " is truncated", e);
+        }
+    }
+
+    public void write(Path file) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fromVersion);
+            out.writeLong(toVersion);
+            out.writeLong(createdAtMillis);
+            out.writeInt(changes.size());
+            for (Map.Entry<String, EmployeeView> change : changes.entrySet()) {
+                EmployeeView employee = change.getValue();
+                out.writeByte(employee == null ? REMOVE : UPSERT);
+                out.writeUTF(change.getKey());
+                if (employee != null) {
+                    out.writeLong(employee.getId() == null ? 0L : employee.getId());
+                    out.writeShort(employee.getPermissions().size());
+                    for (String permission : employee.getPermissions()) {
+                        out.writeUTF(permission);
+                    }
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode employee delta", e);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write employee delta " + file, e);
+        }
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public Map<String, EmployeeView> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,212 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.EmployeeView;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A mapped {@link EmployeeSnapshot} plus the deltas applied on top of it, as found in a snapshot directory:
+ * <pre>
+ * employees-00000000000000000007.snap                              full export, version 7
+ * employees-00000000000000000007-00000000000000000008.delta        changes from version 7 to 8
+ * employees.checked                                                last export run that found no changes
+ * </pre>
+ * Deltas form a chain starting at the snapshot's version. Applied changes are kept in a small on-heap map
+ * that is consulted before the mapped file; instances are immutable and applying deltas returns a new one.
+ */
+public final class EmployeeDirectorySnapshot {
+
+    private static final String PREFIX = "employees-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String DELTA_SUFFIX = ".delta";
+    private static final String CHECKED_FILE = "employees.checked";
+
+    private final EmployeeSnapshot base;
+
+    // Changed employees; a null value means removed
+    private final Map<String, EmployeeView> overlay;
+    private final long version;
+    private final long createdAtMillis;
+    private final int deltaCount;
+
+    private EmployeeDirectorySnapshot(EmployeeSnapshot base, Map<String, EmployeeView> overlay, long version,
+                                      long createdAtMillis, int deltaCount) {
+        this.base = base;
+        this.overlay = overlay;
+        this.version = version;
+        this.createdAtMillis = createdAtMillis;
+        this.deltaCount = deltaCount;
+    }
+
+    // The newest snapshot in the directory with its deltas, or null when there is none
+    public static EmployeeDirectorySnapshot load(Path dir) {
+        Long latest = latestSnapshotVersion(dir);
+        if (latest == null) {
+            return null;
+        }
+        EmployeeSnapshot base = EmployeeSnapshot.open(snapshotPath(dir, latest));
+        return new EmployeeDirectorySnapshot(base, Map.of(), base.getVersion(), base.getCreatedAtMillis(), 0)
+                .applyDeltas(dir);
+    }
+
+    // Applies the deltas that continue this version's chain; returns this instance when there are none
+    public EmployeeDirectorySnapshot applyDeltas(Path dir) {
+        EmployeeDirectorySnapshot current = this;
+        while (true) {
+            Path next = nextDelta(dir, current.version);
+            if (next == null) {
+                return current;
+            }
+            EmployeeDelta delta = EmployeeDelta.read(next);
+            if (delta.getFromVersion() != current.version || delta.getToVersion() <= current.version) {
+                throw new IllegalArgumentException("Employee delta " + next + " does not continue version "
+                        + current.version);
+            }
+            current = current.apply(delta);
+        }
+    }
+
+    public EmployeeDirectorySnapshot apply(EmployeeDelta delta) {
+        Map<String, EmployeeView> next = new HashMap<>(overlay);
+        next.putAll(delta.getChanges());
+        return new EmployeeDirectorySnapshot(base, next, delta.getToVersion(), delta.getCreatedAtMillis(),
+                deltaCount + 1);
+    }
+
+    public EmployeeView find(String email) {
+        if (overlay.containsKey(email)) {
+            return overlay.get(email);
+        }
+        return base.find(email);
+    }
+
+    // Every employee, for diffing against the database; not meant for the request path
+    public Map<String, EmployeeView> toMap() {
+        Map<String, EmployeeView> employees = new HashMap<>(base.size() + overlay.size());
+        base.forEach(employee -> employees.put(employee.getEmail(), employee));
+        overlay.forEach((email, employee) -> {
+            if (employee == null) {
+                employees.remove(email);
+            } else {
+                employees.put(email, employee);
+            }
+        });
+        return employees;
+    }
+
+    public long getBaseVersion() {
+        return base.getVersion();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // When the database was read for the newest applied export
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public int getDeltaCount() {
+        return deltaCount;
+    }
+
+    public static Path snapshotPath(Path dir, long version) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, version, SNAPSHOT_SUFFIX));
+    }
+
+    public static Path deltaPath(Path dir, long fromVersion, long toVersion) {
+        return dir.resolve(String.format("%s%020d-%020d%s", PREFIX, fromVersion, toVersion, DELTA_SUFFIX));
+    }
+
+    // Records that the tables still matched the version at that time, since an export without changes writes no delta
+    public static void writeChecked(Path dir, long version, long checkedAtMillis) {
+        Path file = dir.resolve(CHECKED_FILE);
+        Path temp = file.resolveSibling(CHECKED_FILE + ".tmp");
+        try {
+            Files.writeString(temp, version + " " + checkedAtMillis);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    // When the tables were last found to match the version; 0 when no check of that version is recorded
+    public static long checkedAtMillis(Path dir, long version) {
+        Path file = dir.resolve(CHECKED_FILE);
+        if (!Files.isRegularFile(file)) {
+            return 0L;
+        }
+        try {
+            String[] fields = Files.readString(file).trim().split(" ");
+            return fields.length == 2 && Long.parseLong(fields[0]) == version ? Long.parseLong(fields[1]) : 0L;
+        } catch (IOException | NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    public static Long latestSnapshotVersion(Path dir) {
+        TreeMap<Long, Path> snapshots = list(dir, SNAPSHOT_SUFFIX);
+        return snapshots.isEmpty() ? null : snapshots.lastKey();
+    }
+
+    // Removes snapshots and deltas that start before the given version; returns how many were deleted
+    public static int deleteOlderThan(Path dir, long version) {
+        int deleted = 0;
+        for (String suffix : new String[] {SNAPSHOT_SUFFIX, DELTA_SUFFIX}) {
+            for (Map.Entry<Long, Path> file : list(dir, suffix).headMap(version).entrySet()) {
+                try {
+                    if (Files.deleteIfExists(file.getValue())) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to delete " + file.getValue(), e);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static Path nextDelta(Path dir, long fromVersion) {
+        String prefix = String.format("%s%020d-", PREFIX, fromVersion);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + DELTA_SUFFIX)) {
+            for (Path path : stream) {
+                return path;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list employee snapshot directory " + dir, e);
+        }
+    }
+
+    private static TreeMap<Long, Path> list(Path dir, String suffix) {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.length() < PREFIX.length() + 20) {
+                    continue;
+                }
+                try {
+                    files.put(Long.parseLong(name.substring(PREFIX.length(), PREFIX.length() + 20)), path);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list employee snapshot directory " + dir, e);
+        }
+        return files;
+    }
+}
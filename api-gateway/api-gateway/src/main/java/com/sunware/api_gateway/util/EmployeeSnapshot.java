@@ -0,0 +1,279 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.EmployeeView;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Read-only, memory-mapped export of the employee directory.
+ * <p>
+ * Layout (big-endian): a fixed header, the permission names, the distinct permission combinations as bitsets
+ * over those names, one fixed-size entry per employee sorted by the UTF-8 bytes of its email, the email bytes,
+ * and a CRC32 of everything before it. Opening the file validates the checksum and decodes the names and
+ * combinations once; a lookup is then a binary search over the mapped entries, and employees that share a
+ * combination share one permission set.
+ */
+public final class EmployeeSnapshot {
+
+    static final int MAGIC = 0x454D5053; // "EMPS"
+    static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int ENTRY_SIZE = 20; // email offset, email length, employee id, combination index
+
+    private final ByteBuffer buffer;
+    private final long version;
+    private final long createdAtMillis;
+    private final int employeeCount;
+    private final int entriesOffset;
+    private final int emailsOffset;
+    private final List<Set<String>> combinations;
+
+    private EmployeeSnapshot(ByteBuffer buffer, String source) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE + 4 || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(source + " is not an employee snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported employee snapshot format " + buffer.getInt(4)
+                    + " in " + source);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IllegalArgumentException("Employee snapshot " + source + " is corrupt (checksum mismatch)");
+        }
+
+        this.version = buffer.getLong(8);
+        this.createdAtMillis = buffer.getLong(16);
+        int permissionCount = buffer.getInt(24);
+        int combinationCount = buffer.getInt(28);
+        this.employeeCount = buffer.getInt(32);
+        int words = buffer.getInt(36);
+
+        String[] names = new String[permissionCount];
+        int position = HEADER_SIZE;
+        for (int i = 0; i < permissionCount; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+
+        List<Set<String>> sets = new ArrayList<>(combinationCount);
+        for (int i = 0; i < combinationCount; i++) {
+            Set<String> set = new LinkedHashSet<>();
+            for (int w = 0; w < words; w++) {
+                long word = buffer.getLong(position + w * 8);
+                while (word != 0) {
+                    set.add(names[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                    word &= word - 1;
+                }
+            }
+            sets.add(Collections.unmodifiableSet(set));
+            position += words * 8;
+        }
+        this.combinations = sets;
+        this.entriesOffset = position;
+        this.emailsOffset = position + employeeCount * ENTRY_SIZE;
+    }
+
+    public static EmployeeSnapshot open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new EmployeeSnapshot(mapped, file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map employee snapshot " + file, e);
+        }
+    }
+
+    // Null when the email is not in the snapshot
+    public EmployeeView find(String email) {
+        if (email == null) {
+            return null;
+        }
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = employeeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = entriesOffset + mid * ENTRY_SIZE;
+            int cmp = compare(key, emailsOffset + buffer.getInt(entry), buffer.getInt(entry + 4));
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return new EmployeeView(buffer.getLong(entry + 8), email, combinations.get(buffer.getInt(entry + 16)));
+            }
+        }
+        return null;
+    }
+
+    public void forEach(Consumer<EmployeeView> action) {
+        for (int i = 0; i < employeeCount; i++) {
+            int entry = entriesOffset + i * ENTRY_SIZE;
+            byte[] email = new byte[buffer.getInt(entry + 4)];
+            buffer.get(emailsOffset + buffer.getInt(entry), email);
+            action.accept(new EmployeeView(buffer.getLong(entry + 8), new String(email, StandardCharsets.UTF_8),
+                    combinations.get(buffer.getInt(entry + 16))));
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public int size() {
+        return employeeCount;
+    }
+
+    // Unsigned byte order, the order write() sorts by
+    private int compare(byte[] key, int offset, int length) {
+        int common = Math.min(key.length, length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.toUnsignedInt(key[i]) - Byte.toUnsignedInt(buffer.get(offset + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return key.length - length;
+    }
+
+    // Writes next to the target and moves it into place, so a mapped older file is never modified
+    public static void write(Path file, long version, long createdAtMillis, Collection<EmployeeView> employees) {
+        Map<String, Integer> permissionIndex = new HashMap<>();
+        List<byte[]> permissionNames = new ArrayList<>();
+        for (EmployeeView employee : employees) {
+            for (String permission : employee.getPermissions()) {
+                if (!permissionIndex.containsKey(permission)) {
+                    permissionIndex.put(permission, permissionNames.size());
+                    byte[] name = permission.getBytes(StandardCharsets.UTF_8);
+                    if (name.length > 0xFFFF) {
+                        throw new IllegalArgumentException("Permission name too long: " + permission);
+                    }
+                    permissionNames.add(name);
+                }
+            }
+        }
+        int words = (permissionNames.size() + 63) >>> 6;
+
+        Map<List<Long>, Integer> combinationIndex = new HashMap<>();
+        List<long[]> combinations = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>(employees.size());
+        for (EmployeeView employee : employees) {
+            long[] bits = new long[words];
+            for (String permission : employee.getPermissions()) {
+                int bit = permissionIndex.get(permission);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            List<Long> key = new ArrayList<>(words);
+            for (long word : bits) {
+                key.add(word);
+            }
+            Integer combination = combinationIndex.get(key);
+            if (combination == null) {
+                combination = combinations.size();
+                combinationIndex.put(key, combination);
+                combinations.add(bits);
+            }
+            entries.add(new Entry(employee.getEmail().getBytes(StandardCharsets.UTF_8),
+                    employee.getId() == null ? 0L : employee.getId(), combination));
+        }
+        entries.sort((a, b) -> Arrays.compareUnsigned(a.email, b.email));
+        for (int i = 1; i < entries.size(); i++) {
+            if (Arrays.equals(entries.get(i - 1).email, entries.get(i).email)) {
+                throw new IllegalArgumentException("Duplicate employee email in snapshot: "
+                        + new String(entries.get(i).email, StandardCharsets.UTF_8));
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(version);
+            out.writeLong(createdAtMillis);
+            out.writeInt(permissionNames.size());
+            out.writeInt(combinations.size());
+            out.writeInt(entries.size());
+            out.writeInt(words);
+            out.writeLong(0L); // Reserved
+            for (byte[] name : permissionNames) {
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            for (long[] bits : combinations) {
+                for (long word : bits) {
+                    out.writeLong(word);
+                }
+            }
+            int emailOffset = 0;
+            for (Entry entry : entries) {
+                out.writeInt(emailOffset);
+                out.writeInt(entry.email.length);
+                out.writeLong(entry.id);
+                out.writeInt(entry.combination);
+                emailOffset += entry.email.length;
+            }
+            for (Entry entry : entries) {
+                out.write(entry.email);
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeInt((int) crc.getValue());
+            fileOut.getChannel().force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write employee snapshot " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move employee snapshot into place " + file, e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] email;
+        private final long id;
+        private final int combination;
+
+        private Entry(byte[] email, long id, int combination) {
+            this.email = email;
+            this.id = id;
+            this.combination = combination;
+        }
+    }
+}
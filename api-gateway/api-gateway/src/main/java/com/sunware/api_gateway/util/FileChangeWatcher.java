@@ -0,0 +1,99 @@
+package com.sunware.api_gateway.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a callback on a daemon thread whenever a watched file or directory changes.
+ * Bursts of events (editors often write a file in several steps) are collapsed into one callback.
+ */
+public final class FileChangeWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileChangeWatcher.class);
+    private static final long DEBOUNCE_MS = 250;
+
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private FileChangeWatcher(Path target, Runnable onChange, String name) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        boolean directory = Files.isDirectory(absolute);
+        Path dir = directory ? absolute : absolute.getParent();
+        Path fileName = directory ? null : absolute.getFileName();
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        this.thread = new Thread(() -> run(fileName, onChange), name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public static FileChangeWatcher watch(Path target, Runnable onChange, String name) {
+        try {
+            return new FileChangeWatcher(target, onChange, name);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to watch " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void run(Path fileName, Runnable onChange) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key, fileName);
+                // Collect the rest of the burst before reacting
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(next, fileName);
+                }
+                if (relevant) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        logger.error("File change handler failed: {}", e.getMessage(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; exit quietly
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (fileName == null || event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(context)) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close file watcher: {}", e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
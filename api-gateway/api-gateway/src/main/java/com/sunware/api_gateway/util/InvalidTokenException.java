@@ -0,0 +1,18 @@
+package com.sunware.api_gateway.util;
+
+/**
+ * Thrown by {@link JwtUtil} when a token fails verification, with the reason it failed.
+ */
+public class InvalidTokenException extends IllegalArgumentException {
+
+    private final RejectionReason reason;
+
+    public InvalidTokenException(RejectionReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
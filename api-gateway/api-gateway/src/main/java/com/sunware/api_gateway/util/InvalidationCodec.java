@@ -0,0 +1,226 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.Invalidation;
+import com.sunware.api_gateway.model.Revocation;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary frames of the peer invalidation bus, signed with HMAC-SHA256 under the key every gateway instance
+ * shares. One layout serves all kinds:
+ * <pre>
+ * magic:int kind:byte sender:long head:long
+ * entries:int { sequence:long type:byte (EMPLOYEE hasEmail:bool [email:utf] | REVOCATION kind:byte key:utf
+ *               issuedBefore:long expiresAt:long) }
+ * digest:int { instance:long sequence:long }
+ * mac:32 bytes over everything before it
+ * </pre>
+ * {@code head} is the sender's latest sequence number; {@code digest} (pull requests only) lists the latest
+ * sequence number the sender has applied from each instance it knows.
+ */
+public final class InvalidationCodec {
+
+    public enum Kind {
+        // Sender's new invalidations
+        PUSH,
+        // Request for whatever the receiver has that the sender's digest does not cover
+        PULL,
+        // Answer to a pull: the entries after the puller's sequence number
+        DELTA,
+        // Answer to a pull that is too far behind: every active revocation; the puller drops all cached employees
+        SNAPSHOT
+    }
+
+    private static final int MAGIC = 0x53474931; // "SGI1"
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+
+    public InvalidationCodec(byte[] key) {
+        if (key == null || key.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("Peer bus key must be at least " + MIN_KEY_LENGTH + " bytes");
+        }
+        this.key = new SecretKeySpec(key, MAC_ALGORITHM);
+        try {
+            this.prototype = Mac.getInstance(MAC_ALGORITHM);
+            this.prototype.init(this.key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    public byte[] encode(Frame frame) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + frame.entries.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(frame.kind.ordinal());
+            out.writeLong(frame.sender);
+            out.writeLong(frame.head);
+            out.writeInt(frame.entries.size());
+            for (InvalidationLog.Entry entry : frame.entries) {
+                out.writeLong(entry.getSequence());
+                write(out, entry.getInvalidation());
+            }
+            out.writeInt(frame.digest.size());
+            for (Map.Entry<Long, Long> applied : frame.digest.entrySet()) {
+                out.writeLong(applied.getKey());
+                out.writeLong(applied.getValue());
+            }
+            out.flush();
+            out.write(newMac().doFinal(bytes.toByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    // Throws IllegalArgumentException for frames that are malformed or not signed with the shared key
+    public Frame decode(byte[] data) {
+        if (data.length < MAC_LENGTH + 4) {
+            throw new IllegalArgumentException("Peer frame too short");
+        }
+        int length = data.length - MAC_LENGTH;
+        Mac mac = newMac();
+        mac.update(data, 0, length);
+        if (!MessageDigest.isEqual(mac.doFinal(), Arrays.copyOfRange(data, length, data.length))) {
+            throw new IllegalArgumentException("Peer frame signature mismatch");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, length))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a peer invalidation frame");
+            }
+            Kind kind = enumAt(Kind.values(), in.readByte());
+            long sender = in.readLong();
+            long head = in.readLong();
+            int count = count(in, length);
+            List<InvalidationLog.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long sequence = in.readLong();
+                entries.add(new InvalidationLog.Entry(sequence, read(in)));
+            }
+            int digestSize = count(in, length);
+            Map<Long, Long> digest = new LinkedHashMap<>();
+            for (int i = 0; i < digestSize; i++) {
+                digest.put(in.readLong(), in.readLong());
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Trailing bytes in peer frame");
+            }
+            return new Frame(kind, sender, head, entries, digest);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated peer frame", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Invalidation invalidation) throws IOException {
+        out.writeByte(invalidation.getType().ordinal());
+        if (invalidation.getType() == Invalidation.Type.EMPLOYEE) {
+            out.writeBoolean(invalidation.getEmail() != null);
+            if (invalidation.getEmail() != null) {
+                out.writeUTF(invalidation.getEmail());
+            }
+        } else {
+            Revocation revocation = invalidation.getRevocation();
+            out.writeByte(revocation.getType().ordinal());
+            out.writeUTF(revocation.getKey());
+            out.writeLong(revocation.getIssuedBeforeMillis());
+            out.writeLong(revocation.getExpiresAtMillis());
+        }
+    }
+
+    private static Invalidation read(DataInputStream in) throws IOException {
+        Invalidation.Type type = enumAt(Invalidation.Type.values(), in.readByte());
+        if (type == Invalidation.Type.EMPLOYEE) {
+            return Invalidation.employee(in.readBoolean() ? in.readUTF() : null);
+        }
+        Revocation.Type revocationType = enumAt(Revocation.Type.values(), in.readByte());
+        return Invalidation.revocation(new Revocation(revocationType, in.readUTF(), in.readLong(), in.readLong()));
+    }
+
+    // A count can never exceed the bytes left, which keeps a forged length from sizing a huge list
+    private static int count(DataInputStream in, int length) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > length) {
+            throw new IllegalArgumentException("Bad count in peer frame: " + count);
+        }
+        return count;
+    }
+
+    private static <E> E enumAt(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown value in peer frame: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException unavailable) {
+                throw new IllegalStateException("HmacSHA256 is not available", unavailable);
+            }
+        }
+    }
+
+    /**
+     * One decoded frame; see the class comment for what each field means per kind.
+     */
+    public static final class Frame {
+
+        private final Kind kind;
+        private final long sender;
+        private final long head;
+        private final List<InvalidationLog.Entry> entries;
+        private final Map<Long, Long> digest;
+
+        public Frame(Kind kind, long sender, long head, List<InvalidationLog.Entry> entries, Map<Long, Long> digest) {
+            this.kind = kind;
+            this.sender = sender;
+            this.head = head;
+            this.entries = entries;
+            this.digest = digest;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public long getSender() {
+            return sender;
+        }
+
+        public long getHead() {
+            return head;
+        }
+
+        public List<InvalidationLog.Entry> getEntries() {
+            return entries;
+        }
+
+        public Map<Long, Long> getDigest() {
+            return digest;
+        }
+    }
+}
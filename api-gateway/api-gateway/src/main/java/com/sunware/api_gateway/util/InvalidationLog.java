@@ -0,0 +1,104 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.Invalidation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This instance's own invalidations, numbered 1, 2, 3... and kept for the most recent {@code capacity} of
+ * them, so a peer that missed some can be sent exactly those. A peer further behind than the log reaches
+ * needs a full resync instead.
+ */
+public final class InvalidationLog {
+
+    private final int capacity;
+    private final ArrayDeque<Entry> entries;
+    private long head;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InvalidationLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalidation log capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    public Entry append(Invalidation invalidation) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(++head, invalidation);
+            if (entries.size() == capacity) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sequence number of the latest invalidation, 0 before the first
+    public long getHead() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Entries after the given sequence number, or null when some of them have already left the log
+    public List<Entry> after(long sequence) {
+        lock.lock();
+        try {
+            if (sequence >= head) {
+                return List.of();
+            }
+            long oldest = entries.isEmpty() ? head + 1 : entries.peekFirst().getSequence();
+            if (sequence < oldest - 1) {
+                return null;
+            }
+            List<Entry> missed = new ArrayList<>((int) (head - sequence));
+            for (Iterator<Entry> it = entries.descendingIterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.getSequence() <= sequence) {
+                    break;
+                }
+                missed.add(entry);
+            }
+            Collections.reverse(missed);
+            return missed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One numbered invalidation.
+     */
+    public static final class Entry {
+
+        private final long sequence;
+        private final Invalidation invalidation;
+
+        public Entry(long sequence, Invalidation invalidation) {
+            this.sequence = sequence;
+            this.invalidation = invalidation;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+    }
+}
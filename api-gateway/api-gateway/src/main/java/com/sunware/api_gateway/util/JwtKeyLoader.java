@@ -0,0 +1,88 @@
+package com.sunware.api_gateway.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Loads asymmetric signing keys from local PEM files or a PKCS#12/JKS keystore.
+ */
+public final class JwtKeyLoader {
+
+    private JwtKeyLoader() {
+    }
+
+    // Load a PKCS#8 private key and an X.509 public key, both PEM encoded
+    public static KeyPair loadPemKeyPair(SignatureAlgorithm algorithm, String privateKeyPath, String publicKeyPath) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm(algorithm));
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(readPem(Path.of(privateKeyPath), "PRIVATE KEY")));
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(readPem(Path.of(publicKeyPath), "PUBLIC KEY")));
+            return new KeyPair(publicKey, privateKey);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("Unable to load JWT key pair from PEM files: " + e.getMessage(), e);
+        }
+    }
+
+    // Load the private key and certificate public key stored under alias
+    public static KeyPair loadKeyStoreKeyPair(String keystorePath, String password, String alias) {
+        try {
+            char[] passwordChars = password == null ? new char[0] : password.toCharArray();
+            KeyStore keyStore = KeyStore.getInstance(new File(keystorePath), passwordChars);
+            Key key = keyStore.getKey(alias, passwordChars);
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (!(key instanceof PrivateKey) || certificate == null) {
+                throw new IllegalArgumentException("Keystore entry '" + alias + "' is not a private key entry");
+            }
+            return new KeyPair(certificate.getPublicKey(), (PrivateKey) key);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("Unable to load JWT key pair from keystore: " + e.getMessage(), e);
+        }
+    }
+
+    public static String toPem(Key key) {
+        String type = key instanceof PrivateKey ? "PRIVATE KEY" : "PUBLIC KEY";
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII))
+                .encodeToString(key.getEncoded());
+        return "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+    }
+
+    private static byte[] readPem(Path path, String type) throws IOException {
+        String pem = Files.readString(path, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IOException(path + " does not contain a " + type + " PEM block");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+
+    private static String keyAlgorithm(SignatureAlgorithm algorithm) {
+        if (algorithm.isRsa()) {
+            return "RSA";
+        }
+        if (algorithm.isEllipticCurve()) {
+            return "EC";
+        }
+        throw new IllegalArgumentException("Unsupported asymmetric JWT algorithm: " + algorithm.getValue());
+    }
+}
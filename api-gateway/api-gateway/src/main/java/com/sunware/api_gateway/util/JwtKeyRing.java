@@ -0,0 +1,182 @@
+package com.sunware.api_gateway.util;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the signing keys in effect at one point in time: the single active
+ * signing key plus every key that may still have to verify a token.
+ * <p>
+ * A key becomes active at its {@code activateAt} time and stays active until the next key activates.
+ * It keeps verifying for one token lifetime after that, so tokens it signed expire naturally instead
+ * of being invalidated. Keys scheduled for the future are already published and accepted, so caches
+ * of downstream JWKS consumers are warm by the time the key starts signing.
+ */
+public final class JwtKeyRing {
+
+    private final JwtSigningKey activeKey;
+    private final Map<String, Key> verificationKeys;
+    private final Map<String, Object> jwks;
+    private final Set<String> algorithms;
+    private final List<Entry> entries;
+
+    private JwtKeyRing(JwtSigningKey activeKey, Map<String, Key> verificationKeys, List<Entry> entries) {
+        this.activeKey = activeKey;
+        this.verificationKeys = verificationKeys;
+        this.entries = entries;
+
+        List<Map<String, Object>> published = new ArrayList<>();
+        Set<String> verifiedAlgorithms = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            if (verificationKeys.containsKey(entry.getKey().getKeyId())) {
+                verifiedAlgorithms.add(entry.getKey().getAlgorithm().getValue());
+                if (entry.getKey().getJwk() != null) {
+                    published.add(entry.getKey().getJwk());
+                }
+            }
+        }
+        this.jwks = Map.of("keys", Collections.unmodifiableList(published));
+        this.algorithms = Collections.unmodifiableSet(verifiedAlgorithms);
+    }
+
+    // A ring holding one key that is active from the epoch and never retires
+    public static JwtKeyRing single(JwtSigningKey key) {
+        return select(List.of(new Entry(key, Instant.EPOCH, null)), Instant.EPOCH);
+    }
+
+    // Pick the active key and the verification set from entries as of now
+    public static JwtKeyRing select(List<Entry> entries, Instant now) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::getActivateAt));
+
+        Entry active = null;
+        for (Entry entry : sorted) {
+            if (!entry.isRetired() && !entry.getActivateAt().isAfter(now)) {
+                active = entry;
+            }
+        }
+        if (active == null) {
+            throw new IllegalArgumentException("JWT key ring has no key active at " + now);
+        }
+
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        for (Entry entry : sorted) {
+            if (entry.getVerifyUntil() == null || entry.getVerifyUntil().isAfter(now)) {
+                verificationKeys.put(entry.getKey().getKeyId(), entry.getKey().getVerificationKey());
+            }
+        }
+        return new JwtKeyRing(active.getKey(), Collections.unmodifiableMap(verificationKeys),
+                Collections.unmodifiableList(sorted));
+    }
+
+    // Derive each key's verification deadline from when its successor activates
+    public static List<Entry> schedule(List<Entry> entries, long tokenLifetimeMs) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::getActivateAt));
+
+        List<Entry> scheduled = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            Entry entry = sorted.get(i);
+            Instant verifyUntil = i + 1 < sorted.size()
+                    ? sorted.get(i + 1).getActivateAt().plusMillis(tokenLifetimeMs)
+                    : null;
+            scheduled.add(new Entry(entry.getKey(), entry.getActivateAt(), verifyUntil));
+        }
+        return scheduled;
+    }
+
+    // Keep keys that vanished from a reloaded manifest verifying until tokens they may have signed expire
+    public List<Entry> carryOver(List<Entry> reloaded, Instant now, long tokenLifetimeMs) {
+        List<String> reloadedIds = reloaded.stream()
+                .map(entry -> entry.getKey().getKeyId())
+                .collect(Collectors.toList());
+        Instant deadline = now.plusMillis(tokenLifetimeMs);
+
+        List<Entry> merged = new ArrayList<>(reloaded);
+        for (Entry previous : entries) {
+            String kid = previous.getKey().getKeyId();
+            if (reloadedIds.contains(kid) || !verificationKeys.containsKey(kid)) {
+                continue;
+            }
+            Instant verifyUntil = previous.getVerifyUntil() == null || previous.getVerifyUntil().isAfter(deadline)
+                    ? deadline
+                    : previous.getVerifyUntil();
+            merged.add(new Entry(previous.getKey(), previous.getActivateAt(), verifyUntil, true));
+        }
+        return merged;
+    }
+
+    public JwtSigningKey getActiveKey() {
+        return activeKey;
+    }
+
+    public Key getVerificationKey(String keyId) {
+        return verificationKeys.get(keyId);
+    }
+
+    public Map<String, Key> getVerificationKeys() {
+        return verificationKeys;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    // JWS alg values of the verification keys; a token with any other alg cannot verify
+    public Set<String> getAlgorithms() {
+        return algorithms;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * One key in the ring with its activation time and, once known, the time it stops verifying.
+     */
+    public static final class Entry {
+
+        private final JwtSigningKey key;
+        private final Instant activateAt;
+        private final Instant verifyUntil;
+        private final boolean retired;
+
+        public Entry(JwtSigningKey key, Instant activateAt, Instant verifyUntil) {
+            this(key, activateAt, verifyUntil, false);
+        }
+
+        private Entry(JwtSigningKey key, Instant activateAt, Instant verifyUntil, boolean retired) {
+            this.key = Objects.requireNonNull(key);
+            this.activateAt = Objects.requireNonNull(activateAt);
+            this.verifyUntil = verifyUntil;
+            this.retired = retired;
+        }
+
+        public JwtSigningKey getKey() {
+            return key;
+        }
+
+        public Instant getActivateAt() {
+            return activateAt;
+        }
+
+        public Instant getVerifyUntil() {
+            return verifyUntil;
+        }
+
+        // Retired entries were removed from the manifest and may only verify, never sign
+        public boolean isRetired() {
+            return retired;
+        }
+    }
+}
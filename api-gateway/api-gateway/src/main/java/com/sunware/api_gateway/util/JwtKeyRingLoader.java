@@ -0,0 +1,98 @@
+package com.sunware.api_gateway.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Reads a key ring manifest. Each key is a group of properties named after its kid:
+ * <pre>
+ * key.2026-10.algorithm=HS256
+ * key.2026-10.secret=&lt;base64 secret&gt;
+ * key.2026-10.activate-at=2026-10-01T00:00:00Z
+ *
+ * key.2026-11.algorithm=RS256
+ * key.2026-11.private-key-path=2026-11-private.pem
+ * key.2026-11.public-key-path=2026-11-public.pem
+ * key.2026-11.activate-at=2026-11-01T00:00:00Z
+ * </pre>
+ * Relative key paths are resolved against the manifest's directory.
+ */
+public final class JwtKeyRingLoader {
+
+    private static final String PREFIX = "key.";
+
+    private JwtKeyRingLoader() {
+    }
+
+    public static List<JwtKeyRing.Entry> load(Path manifest) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read JWT key ring " + manifest + ": " + e.getMessage(), e);
+        }
+
+        TreeSet<String> keyIds = new TreeSet<>();
+        for (String name : properties.stringPropertyNames()) {
+            int end = name.lastIndexOf('.');
+            if (name.startsWith(PREFIX) && end > PREFIX.length()) {
+                keyIds.add(name.substring(PREFIX.length(), end));
+            }
+        }
+        if (keyIds.isEmpty()) {
+            throw new IllegalArgumentException("JWT key ring " + manifest + " does not define any keys");
+        }
+
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        List<JwtKeyRing.Entry> entries = new ArrayList<>(keyIds.size());
+        for (String kid : keyIds) {
+            entries.add(loadEntry(kid, properties, baseDir));
+        }
+        return entries;
+    }
+
+    private static JwtKeyRing.Entry loadEntry(String kid, Properties properties, Path baseDir) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(required(properties, kid, "algorithm"));
+
+        JwtSigningKey key;
+        if (algorithm.isHmac()) {
+            Key secret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(required(properties, kid, "secret")));
+            key = new JwtSigningKey(kid, algorithm, secret, secret);
+        } else {
+            KeyPair keyPair = JwtKeyLoader.loadPemKeyPair(algorithm,
+                    baseDir.resolve(required(properties, kid, "private-key-path")).toString(),
+                    baseDir.resolve(required(properties, kid, "public-key-path")).toString());
+            key = new JwtSigningKey(kid, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+        }
+
+        try {
+            Instant activateAt = Instant.parse(required(properties, kid, "activate-at"));
+            return new JwtKeyRing.Entry(key, activateAt, null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid activate-at for JWT key " + kid + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String required(Properties properties, String kid, String attribute) {
+        String value = properties.getProperty(PREFIX + kid + "." + attribute);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("JWT key " + kid + " is missing " + attribute);
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,113 @@
+package com.sunware.api_gateway.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A key used to sign tokens, identified by the {@code kid} header it stamps on them.
+ * For HMAC the signing and verification keys are the same secret.
+ */
+public final class JwtSigningKey {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final String keyId;
+    private final SignatureAlgorithm algorithm;
+    private final Key signingKey;
+    private final Key verificationKey;
+    private final Map<String, Object> jwk;
+
+    public JwtSigningKey(String keyId, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+        this.algorithm = algorithm;
+        this.signingKey = signingKey;
+        this.verificationKey = verificationKey;
+        this.keyId = (keyId == null || keyId.isBlank()) ? thumbprint(verificationKey) : keyId;
+        this.jwk = algorithm.isHmac() ? null : Collections.unmodifiableMap(buildJwk());
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    public Key getVerificationKey() {
+        return verificationKey;
+    }
+
+    // Public JWK for asymmetric keys; null for HMAC secrets, which must never be published
+    public Map<String, Object> getJwk() {
+        return jwk;
+    }
+
+    private Map<String, Object> buildJwk() {
+        Map<String, Object> key = new LinkedHashMap<>();
+        if (verificationKey instanceof RSAPublicKey) {
+            RSAPublicKey rsa = (RSAPublicKey) verificationKey;
+            key.put("kty", "RSA");
+            key.put("n", encode(rsa.getModulus(), 0));
+            key.put("e", encode(rsa.getPublicExponent(), 0));
+        } else if (verificationKey instanceof ECPublicKey) {
+            ECPublicKey ec = (ECPublicKey) verificationKey;
+            int fieldBytes = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            key.put("kty", "EC");
+            key.put("crv", curveName(fieldBytes));
+            key.put("x", encode(ec.getW().getAffineX(), fieldBytes));
+            key.put("y", encode(ec.getW().getAffineY(), fieldBytes));
+        } else {
+            throw new IllegalArgumentException("Unsupported public key type: " + verificationKey.getAlgorithm());
+        }
+        key.put("use", "sig");
+        key.put("alg", algorithm.getValue());
+        key.put("kid", keyId);
+        return key;
+    }
+
+    // Unsigned big-endian encoding, left padded to length when length > 0 (RFC 7518 section 6)
+    private static String encode(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int offset = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0;
+        int size = bytes.length - offset;
+        byte[] unsigned = new byte[Math.max(size, length)];
+        System.arraycopy(bytes, offset, unsigned, unsigned.length - size, size);
+        return BASE64_URL.encodeToString(unsigned);
+    }
+
+    private static String curveName(int fieldBytes) {
+        switch (fieldBytes) {
+            case 32:
+                return "P-256";
+            case 48:
+                return "P-384";
+            case 66:
+                return "P-521";
+            default:
+                throw new IllegalArgumentException("Unsupported EC curve size: " + fieldBytes);
+        }
+    }
+
+    private static String thumbprint(Key key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return BASE64_URL.encodeToString(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
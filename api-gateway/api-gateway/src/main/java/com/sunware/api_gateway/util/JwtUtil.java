@@ -1,21 +1,52 @@
 package com.sunware.api_gateway.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import com.sunware.api_gateway.model.Permission;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
+    private static final String PERMISSIONS_CLAIM = "permissions";
+    private static final String PERMISSION_BITS_CLAIM = "perms";
+
+    // 96 random bits per jti: unique across instances without coordination, 16 characters on the wire
+    private static final SecureRandom TOKEN_ID_RANDOM = new SecureRandom();
+    private static final Base64.Encoder TOKEN_ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${jwt.secret:}")
     private String SECRET_KEY;
 
     @Value("${jwt.algorithm}")
@@ -24,42 +55,274 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long EXPIRATION_TIME_MS;
 
+    @Value("${jwt.key-id:}")
+    private String keyId;
+
+    // Asymmetric algorithms (RS*, PS*, ES*) load their key pair from PEM files or a keystore
+    @Value("${jwt.private-key-path:}")
+    private String privateKeyPath;
+
+    @Value("${jwt.public-key-path:}")
+    private String publicKeyPath;
+
+    @Value("${jwt.keystore.path:}")
+    private String keystorePath;
+
+    @Value("${jwt.keystore.password:}")
+    private String keystorePassword;
+
+    @Value("${jwt.keystore.alias:}")
+    private String keystoreAlias;
+
+    // "names" writes the permissions list; "bitset" writes catalog ids to the compact perms claim
+    @Value("${jwt.permissions.encoding:names}")
+    private String permissionEncoding;
+
+    // Optional key ring manifest; when set it replaces the single key configured above
+    @Value("${jwt.keyring.file:}")
+    private String keyRingFile;
+
     private SignatureAlgorithm ALGORITHM;
 
+    // Swapped atomically on rotation or reload; the parser is immutable and shared by all request threads
+    private volatile JwtKeyRing keyRing;
+    private JwtParser jwtParser;
+    private FileChangeWatcher keyRingWatcher;
+
+    @Autowired(required = false)
+    private AuthMetrics authMetrics = AuthMetrics.noop();
+
+    // Replaced wholesale by PermissionCatalogService whenever the permission table is reloaded
+    private volatile PermissionCatalog permissionCatalog = PermissionCatalog.empty();
+
+    // A lock rather than synchronized: the reload reads files while holding it, and with virtual threads
+    // enabled the scheduler runs rotateKeyRing() on a virtual thread that would otherwise pin its carrier
+    private final ReentrantLock keyRingLock = new ReentrantLock();
+
+    // Builders and parsers otherwise look up and create a new JSON mapper through ServiceLoader on every use
+    private final Serializer<Map<String, ?>> jsonSerializer = new JacksonSerializer<>();
+    private final Deserializer<Map<String, ?>> jsonDeserializer = new JacksonDeserializer<>();
+
     @PostConstruct
     public void init() {
-        if (SECRET_KEY == null || SECRET_KEY.isEmpty()) {
-            throw new IllegalArgumentException("JWT Secret key is not set in application properties");
+        if (EXPIRATION_TIME_MS <= 0) {
+            throw new IllegalArgumentException("JWT Expiration time is not set or invalid.");
+        }
+
+        if (keyRingFile != null && !keyRingFile.isEmpty()) {
+            Path manifest = Path.of(keyRingFile);
+            keyRing = JwtKeyRing.select(
+                    JwtKeyRing.schedule(JwtKeyRingLoader.load(manifest), EXPIRATION_TIME_MS), Instant.now());
+            keyRingWatcher = FileChangeWatcher.watch(manifest.toAbsolutePath().getParent(),
+                    this::reloadKeyRing, "jwt-keyring-watcher");
+        } else {
+            ALGORITHM = SignatureAlgorithm.forName(algorithm);
+            keyRing = JwtKeyRing.single(loadSigningKey());
         }
+        logger.info("JWT signing with key id {}", keyRing.getActiveKey().getKeyId());
 
-        ALGORITHM = SignatureAlgorithm.forName(algorithm);
+        jwtParser = Jwts.parserBuilder()
+                .deserializeJsonWith(jsonDeserializer)
+                .setSigningKeyResolver(new KeyIdResolver())
+                .build();
+    }
 
-        if (EXPIRATION_TIME_MS <= 0) {
-            throw new IllegalArgumentException("JWT Expiration time is not set or invalid.");
+    @PreDestroy
+    public void close() {
+        if (keyRingWatcher != null) {
+            keyRingWatcher.close();
+        }
+    }
+
+    // Re-read the manifest; on any error the current ring stays in place
+    public void reloadKeyRing() {
+        if (keyRingFile == null || keyRingFile.isEmpty()) {
+            return;
+        }
+        keyRingLock.lock();
+        try {
+            Instant now = Instant.now();
+            List<JwtKeyRing.Entry> reloaded = JwtKeyRing.schedule(
+                    JwtKeyRingLoader.load(Path.of(keyRingFile)), EXPIRATION_TIME_MS);
+            keyRing = JwtKeyRing.select(keyRing.carryOver(reloaded, now, EXPIRATION_TIME_MS), now);
+            logger.info("Reloaded JWT key ring; signing with key id {}, verifying {}",
+                    keyRing.getActiveKey().getKeyId(), keyRing.getVerificationKeys().keySet());
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload JWT key ring from {}: {}", keyRingFile, e.getMessage(), e);
+        } finally {
+            keyRingLock.unlock();
+        }
+    }
+
+    // Promote keys whose activation time has come and drop keys whose tokens have all expired
+    @Scheduled(fixedDelayString = "${jwt.keyring.refresh-interval-ms:60000}")
+    public void rotateKeyRing() {
+        keyRingLock.lock();
+        try {
+            JwtKeyRing current = keyRing;
+            JwtKeyRing next = JwtKeyRing.select(current.getEntries(), Instant.now());
+            if (!next.getActiveKey().getKeyId().equals(current.getActiveKey().getKeyId())
+                    || !next.getVerificationKeys().keySet().equals(current.getVerificationKeys().keySet())) {
+                keyRing = next;
+                logger.info("Rotated JWT key ring; signing with key id {}, verifying {}",
+                        next.getActiveKey().getKeyId(), next.getVerificationKeys().keySet());
+            }
+        } finally {
+            keyRingLock.unlock();
+        }
+    }
+
+    private JwtSigningKey loadSigningKey() {
+        if (ALGORITHM.isHmac()) {
+            if (SECRET_KEY == null || SECRET_KEY.isEmpty()) {
+                throw new IllegalArgumentException("JWT Secret key is not set in application properties");
+            }
+            Key secret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+            return new JwtSigningKey(keyId, ALGORITHM, secret, secret);
         }
+
+        KeyPair keyPair;
+        if (keystorePath != null && !keystorePath.isEmpty()) {
+            keyPair = JwtKeyLoader.loadKeyStoreKeyPair(keystorePath, keystorePassword, keystoreAlias);
+        } else if (privateKeyPath != null && !privateKeyPath.isEmpty()
+                && publicKeyPath != null && !publicKeyPath.isEmpty()) {
+            keyPair = JwtKeyLoader.loadPemKeyPair(ALGORITHM, privateKeyPath, publicKeyPath);
+        } else {
+            throw new IllegalArgumentException("JWT algorithm " + algorithm
+                    + " requires jwt.private-key-path/jwt.public-key-path or jwt.keystore.path");
+        }
+        return new JwtSigningKey(keyId, ALGORITHM, keyPair.getPrivate(), keyPair.getPublic());
+    }
+
+    // Same Set instance until the key ring changes, so callers can cache derived lookups by identity
+    public Set<String> getAcceptedAlgorithms() {
+        return keyRing.getAlgorithms();
+    }
+
+    // Public keys of the asymmetric keys in the ring as a JWK Set (RFC 7517); HMAC secrets are never included
+    public Map<String, Object> getJwks() {
+        return keyRing.getJwks();
     }
 
     // Generate token with permissions
     public String generateTokenWithPermissions(String email, Set<Permission> permissions) {
+        return generateToken(email, permissions.stream()
+                .map(Permission::getName)
+                .collect(Collectors.toList()));
+    }
+
+    // Generate token embedding the permissions as the authorities
+    public String generateToken(String email, Collection<String> permissionNames) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("permissions", permissions); // Embedding permissions in the token
+        if ("bitset".equals(permissionEncoding)) {
+            PermissionCatalog catalog = permissionCatalog;
+            String encoded = catalog.encode(permissionNames);
+            if (encoded != null) {
+                claims.put(PERMISSION_BITS_CLAIM, encoded);
+            }
+            List<String> unknown = catalog.unknown(permissionNames);
+            if (!unknown.isEmpty() || encoded == null) {
+                claims.put(PERMISSIONS_CLAIM, unknown);
+            }
+        } else {
+            claims.put(PERMISSIONS_CLAIM, permissionNames); // Embedding permissions in the token
+        }
         return createToken(claims, email);
     }
 
+    // Mint one token per subject with the same permissions; see verifyTokens for where the work runs
+    public List<String> generateTokens(List<String> subjects, Collection<String> permissionNames) {
+        return subjects.parallelStream()
+                .map(subject -> generateToken(subject, permissionNames))
+                .collect(Collectors.toList());
+    }
+
+    public PermissionCatalog getPermissionCatalog() {
+        return permissionCatalog;
+    }
+
+    public void setPermissionCatalog(PermissionCatalog permissionCatalog) {
+        this.permissionCatalog = permissionCatalog;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtSigningKey activeKey = keyRing.getActiveKey();
         return Jwts.builder()
+                .serializeToJsonWith(jsonSerializer)
                 .setClaims(claims)
+                .setId(newTokenId()) // jti, the handle for revoking this one token
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME_MS))
-                .signWith(ALGORITHM, SECRET_KEY)
+                .setHeaderParam(JwsHeader.KEY_ID, activeKey.getKeyId())
+                .signWith(activeKey.getSigningKey(), activeKey.getAlgorithm())
                 .compact();
     }
 
+    private static String newTokenId() {
+        byte[] bytes = new byte[12];
+        TOKEN_ID_RANDOM.nextBytes(bytes);
+        return TOKEN_ID_ENCODER.encodeToString(bytes);
+    }
+
+    // Lifetime of newly issued tokens; a revocation cutoff stays relevant for this long
+    public long getExpirationTimeMs() {
+        return EXPIRATION_TIME_MS;
+    }
+
+    // Verify signature and expiry with a single parse and return everything the filter needs
+    public VerifiedToken verifyToken(String token) {
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } finally {
+            authMetrics.tokenParsed(System.nanoTime() - start);
+        }
+
+        String subject = claims.getSubject();
+        if (subject == null) {
+            throw new InvalidTokenException(RejectionReason.MALFORMED, "Subject claim is missing");
+        }
+
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.before(new Date())) {
+            throw new InvalidTokenException(RejectionReason.EXPIRED, "JWT token is expired");
+        }
+
+        long decodeStart = System.nanoTime();
+        PermissionSet permissions = toPermissionSet(claims);
+        authMetrics.authoritiesDecoded(System.nanoTime() - decodeStart);
+        Date issuedAt = claims.getIssuedAt();
+        return new VerifiedToken(subject, permissions, claims.getId(),
+                issuedAt == null ? 0L : issuedAt.getTime(), expiration.getTime());
+    }
+
+    // Verify many tokens at once, results in input order. The parser and key ring are shared and immutable, so
+    // the tokens are split across the ForkJoinPool the caller runs in (the common pool when called from elsewhere)
+    public List<TokenVerificationResult> verifyTokens(List<String> tokens) {
+        return tokens.parallelStream()
+                .map(this::verifyQuietly)
+                .collect(Collectors.toList());
+    }
+
+    private TokenVerificationResult verifyQuietly(String token) {
+        if (token == null || token.isEmpty()) {
+            return TokenVerificationResult.rejected(RejectionReason.MALFORMED);
+        }
+        try {
+            return TokenVerificationResult.valid(verifyToken(token));
+        } catch (InvalidTokenException e) {
+            return TokenVerificationResult.rejected(e.getReason());
+        } catch (RuntimeException e) {
+            return TokenVerificationResult.rejected(RejectionReason.MALFORMED);
+        }
+    }
+
     // Validate token by checking expiration and email existence
     public Boolean validateToken(String token) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail != null && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject() != null && !claims.getExpiration().before(new Date()));
     }
 
     // Extract email from token
@@ -69,18 +332,18 @@ public class JwtUtil {
 
     // Extract permissions from the token
     public Set<String> extractPermissions(String token) {
-        Claims claims = extractAllClaims(token);
-
-        Object permissionsObj = claims.get("permissions");
-        if (permissionsObj instanceof List) {
-            List<?> permissionsList = (List<?>) permissionsObj;
-            return permissionsList.stream()
-                    .filter(Objects::nonNull)
-                    .map(String::valueOf) // Convert each item to a String
-                    .collect(Collectors.toSet());
-        } else {
-            throw new IllegalArgumentException("Permissions claim is missing or invalid");
+        return toPermissionSet(extractAllClaims(token)).getNames();
+    }
+
+    private PermissionSet toPermissionSet(Claims claims) {
+        Object encoded = claims.get(PERMISSION_BITS_CLAIM);
+        Object names = claims.get(PERMISSIONS_CLAIM);
+        if ((encoded == null && names == null)
+                || (encoded != null && !(encoded instanceof String))
+                || (names != null && !(names instanceof List))) {
+            throw new InvalidTokenException(RejectionReason.MALFORMED, "Permissions claim is missing or invalid");
         }
+        return permissionCatalog.decode((String) encoded, (List<?>) names);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -90,20 +353,34 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(SECRET_KEY)
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException(RejectionReason.EXPIRED, "JWT token is expired");
+        } catch (SignatureException e) {
+            throw new InvalidTokenException(RejectionReason.BAD_SIGNATURE, "Invalid or malformed JWT token");
         } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid or malformed JWT token");
+            throw new InvalidTokenException(RejectionReason.MALFORMED, "Invalid or malformed JWT token");
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    // Looks up the verification key by kid in the preloaded map instead of building keys per request
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            JwtKeyRing ring = keyRing;
+            String kid = header.getKeyId();
+            if (kid == null) {
+                // Tokens issued before kid headers were added were signed with the configured key
+                return ring.getActiveKey().getVerificationKey();
+            }
+            Key key = ring.getVerificationKey(kid);
+            if (key == null) {
+                throw new SignatureException("Unknown JWT key id: " + kid);
+            }
+            return key;
+        }
     }
 }
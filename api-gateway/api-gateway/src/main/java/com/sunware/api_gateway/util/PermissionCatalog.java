@@ -0,0 +1,170 @@
+package com.sunware.api_gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sunware.api_gateway.model.Permission;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Snapshot of the permission table used to encode permissions compactly in tokens.
+ * <p>
+ * A permission's id is its bit in the {@code perms} claim, written as {@code "1.<base64url bitset>"} where
+ * {@code 1} is the format version; names missing from the catalog still travel in the {@code permissions}
+ * list. Every permission has one preallocated authority, and decoded sets are memoized by claim value, so
+ * tokens sharing a permission combination decode to the same {@link PermissionSet} without allocating.
+ */
+public final class PermissionCatalog {
+
+    static final String FORMAT_VERSION = "1";
+
+    // Ids above this stay in the names list so a stray large id cannot blow up the token
+    static final int MAX_ID = 4095;
+
+    private static final int MEMO_SIZE = 1024;
+
+    private final String[] namesById;
+    private final GrantedAuthority[] authoritiesById;
+    private final Map<String, Integer> idsByName;
+    private final Map<String, GrantedAuthority> authoritiesByName;
+    private final Cache<Object, PermissionSet> decoded = Caffeine.newBuilder().maximumSize(MEMO_SIZE).build();
+
+    private PermissionCatalog(Map<Integer, String> namesById) {
+        int length = namesById.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        this.namesById = new String[length];
+        this.authoritiesById = new GrantedAuthority[length];
+        this.idsByName = new HashMap<>();
+        this.authoritiesByName = new HashMap<>();
+        namesById.forEach((id, name) -> {
+            GrantedAuthority authority = new SimpleGrantedAuthority(name);
+            this.namesById[id] = name;
+            this.authoritiesById[id] = authority;
+            this.idsByName.put(name, id);
+            this.authoritiesByName.put(name, authority);
+        });
+    }
+
+    public static PermissionCatalog empty() {
+        return new PermissionCatalog(Map.of());
+    }
+
+    public static PermissionCatalog of(Collection<Permission> permissions) {
+        Map<Integer, String> namesById = new HashMap<>();
+        for (Permission permission : permissions) {
+            Long id = permission.getId();
+            if (id != null && id >= 0 && id <= MAX_ID && permission.getName() != null) {
+                namesById.put(id.intValue(), permission.getName());
+            }
+        }
+        return new PermissionCatalog(namesById);
+    }
+
+    public int size() {
+        return idsByName.size();
+    }
+
+    public boolean hasSameEntries(PermissionCatalog other) {
+        return Arrays.equals(namesById, other.namesById);
+    }
+
+    // Bitset claim for the names known to the catalog, or null when none of them are
+    public String encode(Collection<String> names) {
+        BitSet bits = bits(names);
+        if (bits.isEmpty()) {
+            return null;
+        }
+        return FORMAT_VERSION + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    // Ids of the names known to the catalog; unknown names are left out
+    public BitSet bits(Collection<String> names) {
+        BitSet bits = new BitSet();
+        for (String name : names) {
+            Integer id = idsByName.get(name);
+            if (id != null) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    // Names that encode() cannot represent and that must stay in the names list
+    public List<String> unknown(Collection<String> names) {
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            if (!idsByName.containsKey(name)) {
+                unknown.add(name);
+            }
+        }
+        return unknown;
+    }
+
+    // Decode the perms bitset and/or the permissions name list of a verified token
+    public PermissionSet decode(String encoded, List<?> names) {
+        if (encoded == null && (names == null || names.isEmpty())) {
+            return PermissionSet.EMPTY;
+        }
+        Object key = names == null || names.isEmpty() ? encoded : Arrays.asList(encoded, names);
+        return decoded.get(key, k -> decodeUncached(encoded, names));
+    }
+
+    private PermissionSet decodeUncached(String encoded, List<?> names) {
+        Set<String> permissionNames = new LinkedHashSet<>();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+
+        if (encoded != null) {
+            BitSet bits = BitSet.valueOf(decodeBits(encoded));
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                // Ids issued by a newer catalog than ours are skipped until the next refresh
+                if (id < namesById.length && namesById[id] != null && permissionNames.add(namesById[id])) {
+                    authorities.add(authoritiesById[id]);
+                }
+            }
+        }
+
+        if (names != null) {
+            for (Object permission : names) {
+                if (permission == null) {
+                    continue;
+                }
+                String name = toPermissionName(permission);
+                if (permissionNames.add(name)) {
+                    GrantedAuthority authority = authoritiesByName.get(name);
+                    authorities.add(authority != null ? authority : new SimpleGrantedAuthority(name));
+                }
+            }
+        }
+        return new PermissionSet(permissionNames, authorities);
+    }
+
+    private static byte[] decodeBits(String encoded) {
+        int dot = encoded.indexOf('.');
+        if (dot < 0 || !FORMAT_VERSION.equals(encoded.substring(0, dot))) {
+            throw new IllegalArgumentException("Unsupported permissions encoding");
+        }
+        return Base64.getUrlDecoder().decode(encoded.substring(dot + 1));
+    }
+
+    // Older tokens serialized Permission entities as {"id": .., "name": ..}; the authority is the name
+    private static String toPermissionName(Object permission) {
+        if (permission instanceof Map) {
+            Object name = ((Map<?, ?>) permission).get("name");
+            if (name != null) {
+                return String.valueOf(name);
+            }
+        }
+        return Objects.toString(permission);
+    }
+}
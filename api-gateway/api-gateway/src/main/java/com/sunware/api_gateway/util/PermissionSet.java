@@ -0,0 +1,37 @@
+package com.sunware.api_gateway.util;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decoded permissions of a token: the names and the matching authorities.
+ * Instances are immutable and shared by every token carrying the same permissions.
+ */
+public final class PermissionSet {
+
+    static final PermissionSet EMPTY = new PermissionSet(Collections.emptySet(), Collections.emptyList());
+
+    private final Set<String> names;
+    private final List<GrantedAuthority> authorities;
+
+    PermissionSet(Set<String> names, List<GrantedAuthority> authorities) {
+        this.names = Collections.unmodifiableSet(names);
+        this.authorities = Collections.unmodifiableList(authorities);
+    }
+
+    public Set<String> getNames() {
+        return names;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String toString() {
+        return names.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.sunware.api_gateway.util;
+
+import java.util.Locale;
+
+/**
+ * Ways a proxied request can fail before the upstream answers, with the status the caller gets for each.
+ */
+public enum ProxyFailure {
+
+    NO_UPSTREAM(503, "Service Unavailable", "No upstream instance is available."),
+    POOL_EXHAUSTED(503, "Service Unavailable", "No upstream connection became free in time."),
+    CONNECT_FAILED(502, "Bad Gateway", "Unable to connect to the upstream service."),
+    TIMEOUT(504, "Gateway Timeout", "The upstream service did not respond in time."),
+    FAILED(502, "Bad Gateway", "The upstream request failed.");
+
+    private final int status;
+    private final String error;
+    private final String message;
+    private final String tag;
+
+    ProxyFailure(int status, String error, String message) {
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Value of the outcome tag on proxy meters
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.identity.IdentityHeader;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Header rules shared by the servlet and reactive proxies.
+ */
+public final class ProxyHeaders {
+
+    public static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    public static final String X_FORWARDED_PROTO = "X-Forwarded-Proto";
+    public static final String X_FORWARDED_HOST = "X-Forwarded-Host";
+    public static final String CONNECTION = "Connection";
+    public static final String AUTHORIZATION = "Authorization";
+
+    // Connection-level headers (RFC 9110 section 7.6.1) that apply to one hop and are never passed on
+    private static final Set<String> HOP_BY_HOP = caseInsensitive("Connection", "Keep-Alive", "Proxy-Authenticate",
+            "Proxy-Authorization", "Proxy-Connection", "TE", "Trailer", "Transfer-Encoding", "Upgrade");
+
+    // Request headers the proxy sets itself: the client and the upstream connection decide these. A client's
+    // identity header is never passed on, or it could claim any identity to the upstream
+    private static final Set<String> REPLACED_ON_REQUEST = caseInsensitive("Host", "Content-Length", "Expect",
+            X_FORWARDED_FOR, X_FORWARDED_PROTO, X_FORWARDED_HOST, IdentityHeader.NAME);
+
+    private ProxyHeaders() {
+    }
+
+    // The header names a message's Connection header lists (RFC 9110 section 7.6.1); these are hop-by-hop too
+    public static Set<String> connectionOptions(Collection<String> connectionValues) {
+        if (connectionValues == null || connectionValues.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> options = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String value : connectionValues) {
+            for (String option : value.split(",")) {
+                String trimmed = option.trim();
+                if (!trimmed.isEmpty()) {
+                    options.add(trimmed);
+                }
+            }
+        }
+        return options;
+    }
+
+    public static boolean isHopByHop(String name, Set<String> connectionOptions) {
+        return HOP_BY_HOP.contains(name) || connectionOptions.contains(name);
+    }
+
+    // The client's Authorization header only goes upstream on routes that ask for it; the others get the
+    // identity header instead and never see the bearer token
+    public static boolean isForwardedToUpstream(String name, Set<String> connectionOptions,
+                                                boolean forwardAuthorization) {
+        return !isHopByHop(name, connectionOptions) && !REPLACED_ON_REQUEST.contains(name)
+                && (forwardAuthorization || !AUTHORIZATION.equalsIgnoreCase(name));
+    }
+
+    // Appends the client to the chain of addresses earlier proxies recorded
+    public static String forwardedFor(String previous, String clientAddress) {
+        return previous == null || previous.isEmpty() ? clientAddress : previous + ", " + clientAddress;
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(Set.of(names));
+        return set;
+    }
+}
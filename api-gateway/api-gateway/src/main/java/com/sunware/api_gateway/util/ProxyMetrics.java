@@ -0,0 +1,64 @@
+package com.sunware.api_gateway.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for proxied requests: {@code gateway.proxy.requests}, timed from route match to the end of the
+ * response body and tagged with the route and the outcome (status class or {@link ProxyFailure}).
+ * <p>
+ * Connection pool meters come from the HTTP clients themselves: {@code httpcomponents.httpclient.pool.*}
+ * in servlet mode and {@code reactor.netty.connection.provider.*} in reactive mode.
+ */
+@Component
+public class ProxyMetrics {
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry registry;
+
+    // Routes can be reloaded, so meters are registered on first use rather than up front
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ProxyMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Meters that record nothing, for components built outside a Spring context
+    public static ProxyMetrics noop() {
+        return new ProxyMetrics(new CompositeMeterRegistry());
+    }
+
+    public void proxied(String route, int status, long startNanos) {
+        int statusClass = status / 100;
+        String outcome = statusClass >= 1 && statusClass <= 5 ? STATUS_CLASSES[statusClass - 1] : "other";
+        timer(route, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void failed(String route, ProxyFailure failure, long startNanos) {
+        timer(route, failure.getTag()).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String route, String outcome) {
+        String key = route + ' ' + outcome;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder("gateway.proxy.requests")
+                    .description("Requests forwarded to upstream services")
+                    .tag("route", route)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry));
+        }
+        return timer;
+    }
+}
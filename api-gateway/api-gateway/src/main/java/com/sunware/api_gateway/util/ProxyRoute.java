@@ -0,0 +1,113 @@
+package com.sunware.api_gateway.util;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One entry of the {@link ProxyRouteTable}: where matching requests are sent and how long the upstream may take.
+ * <p>
+ * Upstreams are either a fixed list of base URIs, used in turn, or a service id ({@code lb://employee-service})
+ * resolved through service discovery. A base URI may carry a path, which is put in front of the forwarded
+ * path after {@code stripPrefix} leading segments have been removed from it. The client's Authorization header
+ * is only passed on when {@code forwardAuthorization} is set.
+ */
+public final class ProxyRoute {
+
+    private final String name;
+    private final String pattern;
+    private final List<URI> uris;
+    private final String serviceId;
+    private final int stripPrefix;
+    private final Duration responseTimeout;
+    private final boolean forwardAuthorization;
+
+    public ProxyRoute(String name, String pattern, List<URI> uris, String serviceId, int stripPrefix,
+                      Duration responseTimeout, boolean forwardAuthorization) {
+        if ((serviceId == null) == uris.isEmpty()) {
+            throw new IllegalArgumentException("Route " + name + " needs either upstream URIs or a service id");
+        }
+        if (stripPrefix < 0) {
+            throw new IllegalArgumentException("Route " + name + " has a negative strip-prefix");
+        }
+        this.name = name;
+        this.pattern = pattern;
+        this.uris = Collections.unmodifiableList(uris);
+        this.serviceId = serviceId;
+        this.stripPrefix = stripPrefix;
+        this.responseTimeout = responseTimeout;
+        this.forwardAuthorization = forwardAuthorization;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    // Static upstreams; empty for discovery routes
+    public List<URI> getUris() {
+        return uris;
+    }
+
+    // Service id to look up in discovery; null for static routes
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public boolean isDiscovered() {
+        return serviceId != null;
+    }
+
+    public int getStripPrefix() {
+        return stripPrefix;
+    }
+
+    // Longest wait for data from the upstream, for the response headers and between body reads
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    // Whether the upstream still reads the client's bearer token rather than the identity header
+    public boolean isForwardAuthorization() {
+        return forwardAuthorization;
+    }
+
+    // The upstream URI for a decoded RequestPath and the raw query. The path is forwarded re-encoded from that
+    // decoded form, never as the client's raw bytes, so the upstream reads the path the policy checked
+    public URI targetUri(URI base, String path, String rawQuery) {
+        StringBuilder target = new StringBuilder(128)
+                .append(base.getScheme()).append("://").append(base.getRawAuthority());
+        String basePath = base.getRawPath();
+        if (basePath != null && !basePath.isEmpty() && !basePath.equals("/")) {
+            target.append(basePath, 0, basePath.endsWith("/") ? basePath.length() - 1 : basePath.length());
+        }
+        String forwarded = strip(path, stripPrefix);
+        target.append(forwarded.isEmpty() ? "/" : RequestPath.encode(forwarded));
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            target.append('?').append(rawQuery);
+        }
+        return URI.create(target.toString());
+    }
+
+    // Drops the first segments of a path, keeping the slash that starts the remainder
+    static String strip(String path, int segments) {
+        int index = 0;
+        for (int i = 0; i < segments && index < path.length(); i++) {
+            while (index < path.length() && path.charAt(index) == '/') {
+                index++;
+            }
+            int next = path.indexOf('/', index);
+            index = next < 0 ? path.length() : next;
+        }
+        return path.substring(index);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + pattern + " -> " + (serviceId != null ? "lb://" + serviceId : uris);
+    }
+}
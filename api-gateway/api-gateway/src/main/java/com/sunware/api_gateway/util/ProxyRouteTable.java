@@ -0,0 +1,147 @@
+package com.sunware.api_gateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Routes the gateway forwards to upstream services, read from a properties file laid out like the route
+ * policy:
+ * <pre>
+ * route.employees.pattern=/employees/**
+ * route.employees.methods=GET,POST
+ * route.employees.uri=lb://employee-service
+ * route.employees.strip-prefix=0
+ * route.employees.response-timeout-ms=5000
+ *
+ * route.reports.pattern=/reports/**
+ * route.reports.uri=http://reports-1:8080,http://reports-2:8080
+ * </pre>
+ * {@code uri} is a service id to resolve through discovery ({@code lb://}) or a comma-separated list of base URIs.
+ * {@code methods}, {@code strip-prefix} (leading path segments to drop) and {@code response-timeout-ms} are
+ * optional. Patterns are matched with the same trie as {@link RoutePolicy}, so the most specific one wins.
+ * Instances are immutable; a reload compiles a new one.
+ */
+public final class ProxyRouteTable {
+
+    public static final ProxyRouteTable EMPTY = new ProxyRouteTable(RoutePolicy.EMPTY, Map.of());
+
+    private static final String PREFIX = "route.";
+    private static final String DISCOVERY_SCHEME = "lb://";
+
+    private final RoutePolicy matcher;
+    private final Map<String, ProxyRoute> routes;
+
+    private ProxyRouteTable(RoutePolicy matcher, Map<String, ProxyRoute> routes) {
+        this.matcher = matcher;
+        this.routes = routes;
+    }
+
+    // The route to forward the request to, or null when it is for the gateway itself
+    public ProxyRoute match(String method, String path) {
+        if (routes.isEmpty()) {
+            return null;
+        }
+        RoutePolicy.Rule rule = matcher.match(method, path);
+        return rule == null ? null : routes.get(rule.getName());
+    }
+
+    public Collection<ProxyRoute> getRoutes() {
+        return routes.values();
+    }
+
+    public static ProxyRouteTable load(Path file, Duration defaultResponseTimeout) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader, file.toString(), defaultResponseTimeout);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read proxy routes " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static ProxyRouteTable load(InputStream in, String source, Duration defaultResponseTimeout) {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader, source, defaultResponseTimeout);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read proxy routes " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static ProxyRouteTable parse(Reader reader, String source, Duration defaultResponseTimeout)
+            throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+
+        TreeSet<String> names = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            int end = key.lastIndexOf('.');
+            if (key.startsWith(PREFIX) && end > PREFIX.length()) {
+                names.add(key.substring(PREFIX.length(), end));
+            }
+        }
+
+        List<RoutePolicy.Rule> rules = new ArrayList<>(names.size());
+        Map<String, ProxyRoute> routes = new LinkedHashMap<>();
+        for (String name : names) {
+            String pattern = properties.getProperty(PREFIX + name + ".pattern");
+            if (pattern == null || !pattern.trim().startsWith("/")) {
+                throw new IllegalArgumentException("Route " + name + " in " + source
+                        + " needs a pattern starting with '/'");
+            }
+            String uri = properties.getProperty(PREFIX + name + ".uri", "").trim();
+            if (uri.isEmpty()) {
+                throw new IllegalArgumentException("Route " + name + " in " + source + " needs a uri");
+            }
+            List<URI> uris = new ArrayList<>();
+            String serviceId = null;
+            if (uri.startsWith(DISCOVERY_SCHEME)) {
+                serviceId = uri.substring(DISCOVERY_SCHEME.length());
+            } else {
+                for (String each : list(uri)) {
+                    URI base = URI.create(each);
+                    if (!"http".equals(base.getScheme()) && !"https".equals(base.getScheme())
+                            || base.getHost() == null) {
+                        throw new IllegalArgumentException("Route " + name + " in " + source
+                                + " has an invalid upstream " + each);
+                    }
+                    uris.add(base);
+                }
+            }
+            String timeout = properties.getProperty(PREFIX + name + ".response-timeout-ms");
+            ProxyRoute route = new ProxyRoute(name, pattern.trim(), uris, serviceId,
+                    Integer.parseInt(properties.getProperty(PREFIX + name + ".strip-prefix", "0").trim()),
+                    timeout == null ? defaultResponseTimeout : Duration.ofMillis(Long.parseLong(timeout.trim())),
+                    Boolean.parseBoolean(properties.getProperty(PREFIX + name + ".forward-authorization", "false")
+                            .trim()));
+            rules.add(new RoutePolicy.Rule(name, route.getPattern(),
+                    list(properties.getProperty(PREFIX + name + ".methods")), List.of()));
+            routes.put(name, route);
+        }
+        return new ProxyRouteTable(RoutePolicy.compile(rules), Collections.unmodifiableMap(routes));
+    }
+
+    private static List<String> list(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
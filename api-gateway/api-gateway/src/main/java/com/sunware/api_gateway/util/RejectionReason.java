@@ -0,0 +1,35 @@
+package com.sunware.api_gateway.util;
+
+/**
+ * Why a request was turned away by the authentication layer; used as the {@code reason} metric tag.
+ */
+public enum RejectionReason {
+
+    MISSING_HEADER("missing_header"),
+    MALFORMED("malformed"),
+    EXPIRED("expired"),
+    BAD_SIGNATURE("bad_signature"),
+    REVOKED("revoked"),
+    FORBIDDEN("forbidden");
+
+    private final String tag;
+
+    RejectionReason(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public static RejectionReason of(TokenPrecheck.Result result) {
+        switch (result) {
+            case MISSING:
+                return MISSING_HEADER;
+            case EXPIRED:
+                return EXPIRED;
+            default:
+                return MALFORMED;
+        }
+    }
+}
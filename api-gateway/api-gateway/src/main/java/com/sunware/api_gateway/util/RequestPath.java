@@ -0,0 +1,78 @@
+package com.sunware.api_gateway.util;
+
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The form of a request path that the route policy checks and the reverse proxy matches and forwards. It is
+ * percent-decoded, with matrix parameters ({@code ;...}) and empty segments dropped, which is how Spring MVC
+ * and WebFlux match a path when they dispatch. Checking the raw path instead would let {@code /api/%6Fnboard}
+ * past a rule for {@code /api/onboard}, while the controller still serves it.
+ * <p>
+ * A path is rejected if a decoded segment could still be read differently further on: an encoded slash or
+ * backslash, {@code .} or {@code ..}, a control character, or a malformed escape.
+ */
+public final class RequestPath {
+
+    private RequestPath() {
+    }
+
+    // Throws IllegalArgumentException for paths that must not be served
+    public static String decode(String rawPath) {
+        StringBuilder path = new StringBuilder(rawPath.length());
+        int start = 0;
+        int length = rawPath.length();
+        while (start < length) {
+            int end = rawPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            int matrix = rawPath.indexOf(';', start);
+            int segmentEnd = matrix >= 0 && matrix < end ? matrix : end;
+            if (segmentEnd > start) {
+                path.append('/').append(decodeSegment(rawPath.substring(start, segmentEnd)));
+            }
+            start = end + 1;
+        }
+        if (path.length() == 0 || rawPath.endsWith("/")) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+
+    // The decoded path back in URI form, each segment encoded on its own; what the proxy forwards upstream.
+    // ';' is legal in a segment but would start matrix parameters upstream, so it is escaped too
+    public static String encode(String path) {
+        StringBuilder encoded = new StringBuilder(path.length() + 16);
+        int start = 0;
+        int length = path.length();
+        while (start <= length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            String segment = UriUtils.encodePathSegment(path.substring(start, end), StandardCharsets.UTF_8);
+            encoded.append(segment.indexOf(';') < 0 ? segment : segment.replace(";", "%3B"));
+            if (end < length) {
+                encoded.append('/');
+            }
+            start = end + 1;
+        }
+        return encoded.toString();
+    }
+
+    private static String decodeSegment(String raw) {
+        String segment = raw.indexOf('%') < 0 ? raw : UriUtils.decode(raw, StandardCharsets.UTF_8);
+        if (segment.equals(".") || segment.equals("..")) {
+            throw new IllegalArgumentException("Dot segment in request path");
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '/' || c == '\\' || c < 0x20 || c == 0x7f) {
+                throw new IllegalArgumentException("Disallowed character in request path segment");
+            }
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sunware.api_gateway.util;
+
+import com.sunware.api_gateway.model.Revocation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the active revocations, checked for every authenticated request.
+ * <p>
+ * Per-token and per-user entries sit behind a Bloom filter, so a token that is not revoked (nearly all of
+ * them) costs a few bit probes and never touches the maps. Changes build a new snapshot and swap it in.
+ */
+public final class RevocationList {
+
+    public static final RevocationList EMPTY = new RevocationList(List.of(), 0L);
+
+    private static final long JTI_SEED = 0x6a7469L;
+    private static final long SUBJECT_SEED = 0x737562L;
+
+    private final List<Revocation> entries;
+    private final Set<String> tokens;
+    private final Map<String, Long> users;
+    private final long issuedBeforeMillis;
+    private final BloomFilter filter;
+
+    private RevocationList(List<Revocation> entries, long issuedBeforeMillis) {
+        this.entries = entries;
+        this.issuedBeforeMillis = issuedBeforeMillis;
+        this.tokens = new HashSet<>();
+        this.users = new HashMap<>();
+        this.filter = new BloomFilter(entries.size());
+        for (Revocation entry : entries) {
+            if (entry.getType() == Revocation.Type.TOKEN) {
+                tokens.add(entry.getKey());
+                filter.add(entry.getKey(), JTI_SEED);
+            } else if (entry.getType() == Revocation.Type.USER) {
+                users.merge(entry.getKey(), entry.getIssuedBeforeMillis(), Math::max);
+                filter.add(entry.getKey(), SUBJECT_SEED);
+            }
+        }
+    }
+
+    // Drops entries that no longer cover any unexpired token
+    public static RevocationList of(Collection<Revocation> revocations, long nowMillis) {
+        List<Revocation> active = new ArrayList<>(revocations.size());
+        long issuedBefore = 0L;
+        for (Revocation revocation : revocations) {
+            if (revocation.isExpired(nowMillis)) {
+                continue;
+            }
+            active.add(revocation);
+            if (revocation.getType() == Revocation.Type.ALL) {
+                issuedBefore = Math.max(issuedBefore, revocation.getIssuedBeforeMillis());
+            }
+        }
+        if (active.isEmpty()) {
+            return EMPTY;
+        }
+        return new RevocationList(Collections.unmodifiableList(active), issuedBefore);
+    }
+
+    public RevocationList with(Revocation revocation, long nowMillis) {
+        List<Revocation> next = new ArrayList<>(entries.size() + 1);
+        next.addAll(entries);
+        next.add(revocation);
+        return of(next, nowMillis);
+    }
+
+    // Tokens without an iat claim count as issued at the epoch, so any cutoff covers them
+    public boolean isRevoked(VerifiedToken token) {
+        if (entries.isEmpty()) {
+            return false;
+        }
+        String jti = token.getTokenId();
+        if (jti != null && filter.mightContain(jti, JTI_SEED) && tokens.contains(jti)) {
+            return true;
+        }
+        return covers(token.getSubject(), token.getIssuedAtMillis());
+    }
+
+    // Whether a per-user or global cutoff covers a credential issued to the subject at that time; refresh tokens too
+    public boolean covers(String subject, long issuedAtMillis) {
+        if (entries.isEmpty()) {
+            return false;
+        }
+        if (issuedAtMillis < issuedBeforeMillis) {
+            return true;
+        }
+        if (filter.mightContain(subject, SUBJECT_SEED)) {
+            Long cutoff = users.get(subject);
+            return cutoff != null && issuedAtMillis < cutoff;
+        }
+        return false;
+    }
+
+    public List<Revocation> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,250 @@
+package com.sunware.api_gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Route-to-permission table compiled into a trie of path segments.
+ * <p>
+ * A lookup walks one trie node per path segment, preferring a literal segment over {@code *} over a
+ * trailing {@code **}, so the most specific pattern wins and the cost does not grow with the number of
+ * routes. Required permissions are bitsets over the permission names the policy mentions; a caller's
+ * authorities are turned into the same kind of mask once per distinct authorities list (tokens share
+ * those lists, see {@link PermissionSet}) and a rule check is then a few word-wise ANDs.
+ * Instances are immutable; a reload compiles a new one.
+ */
+public final class RoutePolicy {
+
+    public static final RoutePolicy EMPTY = compile(List.of());
+
+    private static final String ANY_METHOD = "*";
+    private static final int MASK_MEMO_SIZE = 1024;
+
+    private final Node root;
+    private final Map<String, Integer> bitsByPermission;
+    private final List<Rule> rules;
+
+    // Keyed by identity (weak keys), so shared authorities lists are converted once
+    private final Cache<Collection<? extends GrantedAuthority>, long[]> masks =
+            Caffeine.newBuilder().weakKeys().maximumSize(MASK_MEMO_SIZE).build();
+
+    private RoutePolicy(Node root, Map<String, Integer> bitsByPermission, List<Rule> rules) {
+        this.root = root;
+        this.bitsByPermission = bitsByPermission;
+        this.rules = rules;
+    }
+
+    public static RoutePolicy compile(List<Rule> rules) {
+        Map<String, Integer> bitsByPermission = new HashMap<>();
+        for (Rule rule : rules) {
+            for (String permission : rule.getPermissions()) {
+                bitsByPermission.putIfAbsent(permission, bitsByPermission.size());
+            }
+        }
+        int words = (bitsByPermission.size() + 63) >>> 6;
+
+        Node root = new Node();
+        for (Rule rule : rules) {
+            long[] required = new long[words];
+            for (String permission : rule.getPermissions()) {
+                int bit = bitsByPermission.get(permission);
+                required[bit >>> 6] |= 1L << bit;
+            }
+            Node node = root;
+            List<String> segments = segments(rule.getPattern());
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                if ("**".equals(segment)) {
+                    if (i != segments.size() - 1) {
+                        throw new IllegalArgumentException("'**' must be the last segment in " + rule.getPattern());
+                    }
+                    if (node.rest == null) {
+                        node.rest = new Node();
+                    }
+                    node = node.rest;
+                } else if ("*".equals(segment)) {
+                    if (node.anySegment == null) {
+                        node.anySegment = new Node();
+                    }
+                    node = node.anySegment;
+                } else {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+            for (String method : rule.getMethods().isEmpty() ? Set.of(ANY_METHOD) : rule.getMethods()) {
+                if (node.rules.putIfAbsent(method, new CompiledRule(rule, required)) != null) {
+                    throw new IllegalArgumentException(
+                            "Duplicate route policy for " + method + " " + rule.getPattern());
+                }
+            }
+        }
+        return new RoutePolicy(root, bitsByPermission, Collections.unmodifiableList(new ArrayList<>(rules)));
+    }
+
+    // The most specific rule for the request, or null when no pattern matches
+    public Rule match(String method, String path) {
+        CompiledRule rule = find(method, path);
+        return rule == null ? null : rule.rule;
+    }
+
+    // Requests no rule covers are denied; a rule without permissions only needs an authenticated caller
+    public boolean isAllowed(String method, String path, Collection<? extends GrantedAuthority> authorities) {
+        CompiledRule rule = find(method, path);
+        if (rule == null) {
+            return false;
+        }
+        if (rule.isEmpty) {
+            return true;
+        }
+        long[] granted = masks.get(authorities, this::toMask);
+        long[] required = rule.required;
+        for (int i = 0; i < required.length; i++) {
+            if ((required[i] & ~granted[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    private CompiledRule find(String method, String path) {
+        return find(root, segments(path), 0, method);
+    }
+
+    private static CompiledRule find(Node node, List<String> segments, int index, String method) {
+        if (index == segments.size()) {
+            CompiledRule exact = node.ruleFor(method);
+            if (exact != null) {
+                return exact;
+            }
+            return node.rest == null ? null : node.rest.ruleFor(method);
+        }
+        Node literal = node.children.get(segments.get(index));
+        if (literal != null) {
+            CompiledRule found = find(literal, segments, index + 1, method);
+            if (found != null) {
+                return found;
+            }
+        }
+        if (node.anySegment != null) {
+            CompiledRule found = find(node.anySegment, segments, index + 1, method);
+            if (found != null) {
+                return found;
+            }
+        }
+        return node.rest == null ? null : node.rest.ruleFor(method);
+    }
+
+    private long[] toMask(Collection<? extends GrantedAuthority> authorities) {
+        long[] mask = new long[(bitsByPermission.size() + 63) >>> 6];
+        for (GrantedAuthority authority : authorities) {
+            Integer bit = bitsByPermission.get(authority.getAuthority());
+            if (bit != null) {
+                mask[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    /**
+     * One row of the policy: an Ant-style path pattern ({@code *} is one segment, a trailing {@code **} any
+     * remainder), the HTTP methods it applies to (empty for all) and the permissions a caller needs, all of them.
+     */
+    public static final class Rule {
+
+        private final String name;
+        private final String pattern;
+        private final Set<String> methods;
+        private final Set<String> permissions;
+
+        public Rule(String name, String pattern, Collection<String> methods, Collection<String> permissions) {
+            this.name = name;
+            this.pattern = pattern;
+            Set<String> upperCase = new LinkedHashSet<>();
+            for (String method : methods) {
+                upperCase.add(method.toUpperCase(Locale.ROOT));
+            }
+            this.methods = Collections.unmodifiableSet(upperCase);
+            this.permissions = Collections.unmodifiableSet(new LinkedHashSet<>(permissions));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        public Set<String> getPermissions() {
+            return permissions;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + (methods.isEmpty() ? "*" : methods) + " " + pattern + " -> " + permissions;
+        }
+    }
+
+    private static final class CompiledRule {
+
+        private final Rule rule;
+        private final long[] required;
+        private final boolean isEmpty;
+
+        private CompiledRule(Rule rule, long[] required) {
+            this.rule = rule;
+            this.required = required;
+            this.isEmpty = rule.getPermissions().isEmpty();
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        private Node anySegment;
+        private Node rest;
+
+        private CompiledRule ruleFor(String method) {
+            CompiledRule rule = rules.get(method);
+            return rule != null ? rule : rules.get(ANY_METHOD);
+        }
+    }
+}
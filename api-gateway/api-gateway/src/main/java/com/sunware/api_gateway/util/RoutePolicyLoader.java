@@ -0,0 +1,88 @@
+package com.sunware.api_gateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a route policy table. Each route is a group of properties named after the route:
+ * <pre>
+ * route.onboard.pattern=/api/onboard
+ * route.onboard.methods=GET
+ * route.onboard.permissions=onboard_employee
+ *
+ * route.revocations.pattern=/admin/revocations/**
+ * route.revocations.permissions=revoke_tokens
+ * </pre>
+ * {@code methods} is optional (all methods); {@code permissions} lists every permission the caller needs and
+ * may be empty for routes that only require authentication.
+ */
+public final class RoutePolicyLoader {
+
+    private static final String PREFIX = "route.";
+
+    private RoutePolicyLoader() {
+    }
+
+    public static RoutePolicy load(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader, file.toString());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read route policy " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static RoutePolicy load(InputStream in, String source) {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader, source);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read route policy " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static RoutePolicy parse(Reader reader, String source) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+
+        TreeSet<String> names = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            int end = key.lastIndexOf('.');
+            if (key.startsWith(PREFIX) && end > PREFIX.length()) {
+                names.add(key.substring(PREFIX.length(), end));
+            }
+        }
+
+        List<RoutePolicy.Rule> rules = new ArrayList<>(names.size());
+        for (String name : names) {
+            String pattern = properties.getProperty(PREFIX + name + ".pattern");
+            if (pattern == null || !pattern.trim().startsWith("/")) {
+                throw new IllegalArgumentException("Route " + name + " in " + source
+                        + " needs a pattern starting with '/'");
+            }
+            rules.add(new RoutePolicy.Rule(name, pattern.trim(),
+                    list(properties.getProperty(PREFIX + name + ".methods")),
+                    list(properties.getProperty(PREFIX + name + ".permissions"))));
+        }
+        return RoutePolicy.compile(rules);
+    }
+
+    private static List<String> list(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
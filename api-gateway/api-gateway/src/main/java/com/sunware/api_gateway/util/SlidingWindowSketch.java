@@ -0,0 +1,123 @@
+package com.sunware.api_gateway.util;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximate per-key request counts over a sliding window, in fixed memory whatever the number of keys.
+ * <p>
+ * Counts live in a count-min sketch: {@code depth} rows of {@code width} counters, each key hashed to one
+ * counter per row, and the estimate is the smallest of those counters. Collisions can only inflate a count,
+ * never hide one. Each row hashes the key's characters under its own seed, drawn at random per instance, so
+ * keys that collide in one row (or share a {@link String#hashCode()}) are independent in the others and
+ * cannot be precomputed to inflate someone else's count. The window slides by weighting the previous window's sketch by how much of it still
+ * overlaps, as a sliding-window counter does. Counters are updated with atomic increments; rotating to the
+ * next window swaps in a fresh sketch with one compare-and-set.
+ */
+public final class SlidingWindowSketch {
+
+    private static final int DEPTH = 4;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long[] seeds = new long[DEPTH];
+    private final int width;
+    private final int mask;
+    private final long windowNanos;
+    private final AtomicReference<Windows> windows;
+
+    public SlidingWindowSketch(int width, Duration window, long nowNanos) {
+        this.width = Integer.highestOneBit(Math.max(64, Math.min(1 << 24, width) - 1)) << 1;
+        this.mask = this.width - 1;
+        this.windowNanos = window.toNanos();
+        this.windows = new AtomicReference<>(new Windows(nowNanos, newCounters(), newCounters()));
+        SecureRandom random = new SecureRandom();
+        for (int row = 0; row < DEPTH; row++) {
+            seeds[row] = random.nextLong();
+        }
+    }
+
+    // Counts one request for the key and returns the estimated count over the last window, this one included
+    public long incrementAndEstimate(String key, long nowNanos) {
+        Windows current = rotate(nowNanos);
+        double previousWeight = 1.0 - (double) (nowNanos - current.startNanos) / windowNanos;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + (int) (hash(key, seeds[row]) & mask);
+            long count = current.current.incrementAndGet(index)
+                    + (long) Math.ceil(current.previous.get(index) * previousWeight);
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    private Windows rotate(long nowNanos) {
+        while (true) {
+            Windows current = windows.get();
+            long elapsed = nowNanos - current.startNanos;
+            if (elapsed < windowNanos) {
+                return current;
+            }
+            // After a quiet spell longer than a window the previous counts no longer matter
+            Windows next = elapsed < 2 * windowNanos
+                    ? new Windows(current.startNanos + windowNanos, newCounters(), current.current)
+                    : new Windows(nowNanos, newCounters(), newCounters());
+            if (windows.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private AtomicLongArray newCounters() {
+        return new AtomicLongArray(DEPTH * width);
+    }
+
+    // MurmurHash3 (x64, one lane) over the UTF-16 chars, four to a block
+    private static long hash(String key, long seed) {
+        long h = seed;
+        int length = key.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = key.charAt(i) | (long) key.charAt(i + 1) << 16 | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            h ^= scramble(block);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long tail = 0L;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) key.charAt(i) << shift;
+        }
+        h ^= scramble(tail);
+        h ^= length;
+        return mix(h);
+    }
+
+    private static long scramble(long block) {
+        return Long.rotateLeft(block * C1, 31) * C2;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Windows {
+
+        private final long startNanos;
+        private final AtomicLongArray current;
+        private final AtomicLongArray previous;
+
+        private Windows(long startNanos, AtomicLongArray current, AtomicLongArray previous) {
+            this.startNanos = startNanos;
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
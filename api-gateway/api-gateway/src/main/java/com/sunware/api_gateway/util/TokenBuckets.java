@@ -0,0 +1,64 @@
+package com.sunware.api_gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key, each allowing {@code capacity} acquisitions per {@code period} with bursts up to the
+ * full capacity.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding its theoretical arrival time (the generic cell rate
+ * algorithm), so acquiring is one compare-and-set with no lock and no timer. Buckets live in a size-bounded
+ * map and are dropped once they have been idle for a full period, when they would be full again anyway.
+ */
+public final class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long periodNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(int capacity, Duration period, long maxKeys) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Token bucket capacity must be at least 1");
+        }
+        this.periodNanos = period.toNanos();
+        this.intervalNanos = periodNanos / capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(period)
+                .build();
+    }
+
+    // Takes a token; returns 0 when one was available, otherwise the nanos until one will be
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - periodNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    // Like tryAcquire but takes nothing
+    public long waitNanos(String key, long nowNanos) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            return 0L;
+        }
+        long next = Math.max(bucket.get(), nowNanos) + intervalNanos;
+        return Math.max(0L, next - nowNanos - periodNanos);
+    }
+
+    public void reset(String key) {
+        buckets.invalidate(key);
+    }
+}
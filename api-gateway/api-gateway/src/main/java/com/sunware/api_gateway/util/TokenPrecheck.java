@@ -0,0 +1,257 @@
+package com.sunware.api_gateway.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Cheap checks on a raw {@code Authorization} header that run before any signature work.
+ * <p>
+ * The header is scanned in place, without copying or Base64-decoding it into new buffers: Bearer prefix,
+ * length limit, three non-empty Base64url segments, and the {@code alg} and {@code exp} fields read with a
+ * minimal JSON scanner that only looks at top-level keys. A token is only rejected here when full
+ * verification would reject it too or when this gateway could never have issued it; anything the
+ * scanner cannot read is passed on.
+ */
+@Component
+public class TokenPrecheck {
+
+    public enum Result {
+        // Worth handing to full verification
+        PASSED,
+        // No header or not a Bearer token
+        MISSING,
+        // Too long, wrong shape, or signed with an algorithm no verification key uses
+        MALFORMED,
+        // exp is already in the past
+        EXPIRED
+    }
+
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private static final int[] BASE64URL = new int[128];
+
+    private static final byte[] ALG_KEY = {'a', 'l', 'g'};
+    private static final byte[] EXP_KEY = {'e', 'x', 'p'};
+
+    // Scanner results besides a found value, which is never negative
+    private static final long NOT_FOUND = -1;
+    private static final long UNREADABLE = -2;
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.max-token-length:8192}")
+    private int maxTokenLength;
+
+    // Packed alg names for the current key ring, rebuilt when the ring's algorithm set changes
+    private volatile AcceptedAlgorithms acceptedAlgorithms;
+
+    public TokenPrecheck(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    public Result check(String authorizationHeader, long nowMillis) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+            return Result.MISSING;
+        }
+        int start = BEARER_PREFIX.length();
+        int end = authorizationHeader.length();
+        if (end - start > maxTokenLength) {
+            return Result.MALFORMED;
+        }
+
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = start; i < end; i++) {
+            char c = authorizationHeader.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return Result.MALFORMED;
+                }
+            } else if (c >= 128 || BASE64URL[c] < 0) {
+                return Result.MALFORMED;
+            }
+        }
+        // Header, payload and signature must all be present; unsigned tokens are never accepted
+        if (secondDot < 0 || firstDot == start || secondDot == firstDot + 1 || secondDot == end - 1) {
+            return Result.MALFORMED;
+        }
+
+        long alg = scan(authorizationHeader, start, firstDot, ALG_KEY, true);
+        if (alg == NOT_FOUND || (alg != UNREADABLE && !accepted().contains(alg))) {
+            return Result.MALFORMED;
+        }
+
+        long exp = scan(authorizationHeader, firstDot + 1, secondDot, EXP_KEY, false);
+        if (exp == NOT_FOUND) {
+            // JwtUtil rejects tokens without exp
+            return Result.MALFORMED;
+        }
+        if (exp != UNREADABLE && exp < Long.MAX_VALUE / 1000 && exp * 1000 < nowMillis) {
+            return Result.EXPIRED;
+        }
+        return Result.PASSED;
+    }
+
+    private AcceptedAlgorithms accepted() {
+        Set<String> algorithms = jwtUtil.getAcceptedAlgorithms();
+        AcceptedAlgorithms current = acceptedAlgorithms;
+        if (current == null || current.source != algorithms) {
+            current = new AcceptedAlgorithms(algorithms);
+            acceptedAlgorithms = current;
+        }
+        return current;
+    }
+
+    /**
+     * Decode the Base64url segment [from, to) byte by byte and return the value of the top-level key:
+     * a string of up to 8 ASCII bytes packed into a long, or a non-negative integer.
+     */
+    private static long scan(String token, int from, int to, byte[] key, boolean stringValue) {
+        final int scanning = 0;
+        final int afterKey = 1;
+        final int beforeValue = 2;
+        final int inValue = 3;
+
+        int state = scanning;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean keyCandidate = false;
+        int matched = 0;
+        long value = 0;
+        int valueLength = 0;
+
+        int bitBuffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            bitBuffer = (bitBuffer << 6) | BASE64URL[token.charAt(i)];
+            bits += 6;
+            if (bits < 8) {
+                continue;
+            }
+            bits -= 8;
+            int b = (bitBuffer >> bits) & 0xFF;
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                    keyCandidate = false;
+                } else if (b == '\\') {
+                    if (state == inValue) {
+                        return UNREADABLE;
+                    }
+                    escaped = true;
+                    keyCandidate = false;
+                } else if (b == '"') {
+                    inString = false;
+                    if (state == inValue) {
+                        return value;
+                    }
+                    if (keyCandidate && matched == key.length) {
+                        state = afterKey;
+                    }
+                } else if (state == inValue) {
+                    if (++valueLength > 8) {
+                        return UNREADABLE;
+                    }
+                    value = (value << 8) | b;
+                } else if (keyCandidate) {
+                    keyCandidate = matched < key.length && b == key[matched];
+                    matched++;
+                }
+                continue;
+            }
+
+            boolean whitespace = b == ' ' || b == '\t' || b == '\n' || b == '\r';
+            if (state == afterKey) {
+                if (whitespace) {
+                    continue;
+                }
+                // A string followed by ':' is a key; otherwise it was a value and scanning carries on
+                state = b == ':' ? beforeValue : scanning;
+                if (state == beforeValue) {
+                    continue;
+                }
+            } else if (state == beforeValue) {
+                if (whitespace) {
+                    continue;
+                }
+                if (stringValue && b == '"') {
+                    inString = true;
+                    state = inValue;
+                    continue;
+                }
+                if (!stringValue && b >= '0' && b <= '9') {
+                    value = b - '0';
+                    state = inValue;
+                    continue;
+                }
+                return UNREADABLE;
+            } else if (state == inValue) {
+                if (b >= '0' && b <= '9') {
+                    if (value > (Long.MAX_VALUE - 9) / 10) {
+                        return UNREADABLE;
+                    }
+                    value = value * 10 + (b - '0');
+                    continue;
+                }
+                // Fractions and exponents are legal JSON numbers but not worth reading here
+                return b == '.' || b == 'e' || b == 'E' ? UNREADABLE : value;
+            }
+
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            } else if (b == '"') {
+                inString = true;
+                keyCandidate = depth == 1;
+                matched = 0;
+            }
+        }
+        return state == inValue && !stringValue ? value : NOT_FOUND;
+    }
+
+    static long pack(String name) {
+        long packed = 0;
+        for (int i = 0; i < name.length(); i++) {
+            packed = (packed << 8) | (name.charAt(i) & 0xFF);
+        }
+        return packed;
+    }
+
+    private static final class AcceptedAlgorithms {
+
+        private final Set<String> source;
+        private final long[] packed;
+
+        private AcceptedAlgorithms(Set<String> source) {
+            this.source = source;
+            this.packed = source.stream().mapToLong(TokenPrecheck::pack).toArray();
+        }
+
+        private boolean contains(long alg) {
+            for (long candidate : packed) {
+                if (candidate == alg) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
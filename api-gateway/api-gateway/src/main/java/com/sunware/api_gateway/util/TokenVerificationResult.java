@@ -0,0 +1,37 @@
+package com.sunware.api_gateway.util;
+
+/**
+ * Outcome of verifying one token in a batch: either the verified token or the reason it was rejected.
+ */
+public final class TokenVerificationResult {
+
+    private final VerifiedToken token;
+    private final RejectionReason rejection;
+
+    private TokenVerificationResult(VerifiedToken token, RejectionReason rejection) {
+        this.token = token;
+        this.rejection = rejection;
+    }
+
+    public static TokenVerificationResult valid(VerifiedToken token) {
+        return new TokenVerificationResult(token, null);
+    }
+
+    public static TokenVerificationResult rejected(RejectionReason rejection) {
+        return new TokenVerificationResult(null, rejection);
+    }
+
+    public boolean isValid() {
+        return token != null;
+    }
+
+    // Null when the token was rejected
+    public VerifiedToken getToken() {
+        return token;
+    }
+
+    // Null when the token is valid
+    public RejectionReason getRejection() {
+        return rejection;
+    }
+}
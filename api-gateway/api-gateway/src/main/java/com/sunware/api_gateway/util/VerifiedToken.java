@@ -0,0 +1,101 @@
+package com.sunware.api_gateway.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of a single signature-checked parse of a JWT.
+ * Instances are immutable and safe to share between request threads.
+ */
+public final class VerifiedToken {
+
+    // Request (servlet) or exchange (WebFlux) attribute holding the caller's token once it is authenticated
+    public static final String ATTRIBUTE = VerifiedToken.class.getName();
+
+    private final String subject;
+    private final Set<String> permissions;
+    private final List<GrantedAuthority> authorities;
+    private final String tokenId;
+    private final long issuedAtMillis;
+    private final long expirationMillis;
+
+    public VerifiedToken(String subject, Set<String> permissions, long expirationMillis) {
+        this.subject = subject;
+        this.permissions = Collections.unmodifiableSet(new LinkedHashSet<>(permissions));
+        List<GrantedAuthority> granted = new ArrayList<>(this.permissions.size());
+        for (String permission : this.permissions) {
+            granted.add(new SimpleGrantedAuthority(permission));
+        }
+        this.authorities = Collections.unmodifiableList(granted);
+        this.tokenId = null;
+        this.issuedAtMillis = 0L;
+        this.expirationMillis = expirationMillis;
+    }
+
+    // Shares the decoded names and interned authorities instead of copying them
+    public VerifiedToken(String subject, PermissionSet permissions, long expirationMillis) {
+        this(subject, permissions, null, 0L, expirationMillis);
+    }
+
+    public VerifiedToken(String subject, PermissionSet permissions, String tokenId, long issuedAtMillis,
+                         long expirationMillis) {
+        this.subject = subject;
+        this.permissions = permissions.getNames();
+        this.authorities = permissions.getAuthorities();
+        this.tokenId = tokenId;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expirationMillis = expirationMillis;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    // Authorities are resolved once at verification time so the filter does not rebuild them per request
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    // The jti claim; null for tokens issued before jti was added
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    // The iat claim, which JWT stores in whole seconds; 0 when absent
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    public Date getExpiration() {
+        return new Date(expirationMillis);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expirationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{" +
+                "subject='" + subject + '\'' +
+                ", tokenId='" + tokenId + '\'' +
+                ", permissions=" + permissions +
+                ", expiration=" + expirationMillis +
+                '}';
+    }
+}
@@ -0,0 +1,155 @@
+package com.sunware.api_gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional cache in front of {@link JwtUtil#verifyToken(String)}.
+ * Entries are keyed by a SHA-256 digest of the raw token, so raw tokens are never held in memory,
+ * and each entry expires no later than the token's own {@code exp} claim.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    // Cloned per call rather than held in a ThreadLocal: with virtual threads every request runs on a
+    // fresh thread, so a per-thread digest would be created once per request and never reused
+    private static final MessageDigest SHA_256_PROTOTYPE = newSha256();
+
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<ByteBuffer, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("JWT cache max size must be positive.");
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    // Return the verified token from the cache, verifying and caching it on a miss
+    public VerifiedToken verify(String token) {
+        if (cache == null) {
+            return jwtUtil.verifyToken(token);
+        }
+
+        ByteBuffer key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) {
+                return cached;
+            }
+            // Expiry is enforced lazily by Caffeine, so never trust an entry past exp
+            cache.invalidate(key);
+        }
+
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    // Publishes cache.gets{result=hit|miss}, cache.size and evictions under cache=jwt-verified-tokens
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "jwt-verified-tokens");
+        }
+    }
+
+    public void invalidate(String token) {
+        if (cache != null) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    private static ByteBuffer digest(String token) {
+        MessageDigest sha256;
+        try {
+            sha256 = (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            sha256 = newSha256();
+        }
+        return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long remainingNanos(VerifiedToken value) {
+            long remainingMillis = value.getExpirationMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.util.AuditEventType;
+import com.sunware.api_gateway.util.AuditFile;
+import com.sunware.api_gateway.util.AuditRingBuffer;
+import com.sunware.api_gateway.util.RejectionReason;
+
+public class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void ringBufferHandsOverEveryAcceptedEventOnceUnderContention() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1000);
+        assertEquals(1024, buffer.getCapacity());
+
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long id = producer * perProducer + i;
+                    if (buffer.offer(AuditEventType.TOKEN_ACCEPTED, id, null, null, null, null)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        BitSet seen = new BitSet(producers * perProducer);
+        AtomicInteger duplicates = new AtomicInteger();
+        while (threads.stream().anyMatch(Thread::isAlive) || buffer.size() > 0) {
+            buffer.drain(slot -> {
+                if (seen.get((int) slot.getTimeMillis())) {
+                    duplicates.incrementAndGet();
+                }
+                seen.set((int) slot.getTimeMillis());
+            }, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drain(slot -> seen.set((int) slot.getTimeMillis()), Integer.MAX_VALUE);
+
+        assertEquals(0, duplicates.get());
+        assertEquals(accepted.get(), seen.cardinality());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void fullBufferDropsAndCountsInsteadOfBlocking() throws IOException {
+        Path file = dir.resolve("audit.ndjson");
+        AuditLog auditLog = new AuditLog(true, file.toString(), 4, 1.0, 10, 1_000_000, 2);
+
+        // Not started yet, so nothing drains the four slots
+        for (int i = 0; i < 6; i++) {
+            auditLog.tokenRejected(RejectionReason.EXPIRED, "/api/read", "10.0.0.7");
+        }
+        assertEquals(2, auditLog.getDroppedCount());
+
+        auditLog.start();
+        auditLog.stop();
+        assertEquals(4, auditLog.getWrittenCount());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).matches("\\{\"ts\":\"\\d{4}-\\d\\d-\\d\\dT[0-9:.]+Z\",\"event\":\"token.rejected\","
+                + "\"reason\":\"expired\",\"path\":\"/api/read\",\"client\":\"10.0.0.7\"}"), lines.get(0));
+    }
+
+    @Test
+    public void successesAreSampledButFailuresAreAlwaysKept() throws IOException {
+        Path file = dir.resolve("audit.ndjson");
+        AuditLog auditLog = new AuditLog(true, file.toString(), 64, 0.0, 10, 1_000_000, 2);
+        auditLog.start();
+
+        auditLog.tokenAccepted("jane@sunware.com", "/api/read", "10.0.0.7");
+        auditLog.otpValidated("jane@sunware.com", "10.0.0.7");
+        auditLog.otpValidationFailed("jane@sunware.com", "invalid", "10.0.0.7");
+        auditLog.accessDenied("jane \"admin\"@sunware.com", "/api/delete", "10.0.0.7");
+        auditLog.stop();
+
+        assertEquals(2, auditLog.getSampledOutCount());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"event\":\"otp.validation_failed\",\"subject\":\"jane@sunware.com\","
+                + "\"reason\":\"invalid\""), lines.get(0));
+        assertTrue(lines.get(1).contains("\"subject\":\"jane \\\"admin\\\"@sunware.com\""), lines.get(1));
+    }
+
+    @Test
+    public void fileIsRotatedAtItsSizeLimitKeepingTheNewestFiles() throws Exception {
+        Path file = dir.resolve("audit.ndjson");
+        AuditFile auditFile = new AuditFile(file, 400, 2);
+        AuditRingBuffer buffer = new AuditRingBuffer(16);
+
+        for (int batch = 0; batch < 8; batch++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.offer(AuditEventType.OTP_ISSUED, System.currentTimeMillis(), "jane@sunware.com", null, null,
+                        "10.0.0.7");
+            }
+            buffer.drain(auditFile::append, Integer.MAX_VALUE);
+            auditFile.flush();
+            Thread.sleep(2); // Distinct rotation timestamps
+        }
+        auditFile.close();
+
+        List<Path> rotated;
+        try (Stream<Path> files = Files.list(dir)) {
+            rotated = files.filter(path -> !path.equals(file)).sorted().toList();
+        }
+        assertEquals(2, rotated.size());
+        assertTrue(Files.size(file) <= 400);
+        long lines = Files.readAllLines(file).size();
+        for (Path path : rotated) {
+            assertTrue(path.getFileName().toString().startsWith("audit.ndjson."));
+            assertTrue(Files.size(path) <= 400);
+            lines += Files.readAllLines(path).size();
+        }
+        assertEquals(24, auditFile.getWrittenEvents());
+        assertFalse(lines > 24);
+    }
+}
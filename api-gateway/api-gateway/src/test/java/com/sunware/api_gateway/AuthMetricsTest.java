@@ -0,0 +1,79 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.sunware.api_gateway.repository.OtpStore.OtpVerification;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.AuthMetrics.RateLimit;
+import com.sunware.api_gateway.util.AuthMetrics.RefreshOutcome;
+import com.sunware.api_gateway.util.RejectionReason;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AuthMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+
+    @Test
+    public void everyMeterIsRegisteredUpFrontAtZero() {
+        for (String outcome : new String[] {"authenticated", "rejected"}) {
+            assertEquals(0L, timer("auth.filter", outcome).count());
+        }
+        assertEquals(0L, registry.get("auth.token.parse").timer().count());
+        assertEquals(0L, registry.get("auth.token.authorities").timer().count());
+        for (RejectionReason reason : RejectionReason.values()) {
+            assertEquals(0.0, rejections(reason).count());
+        }
+        for (String outcome : new String[] {"queued", "rejected", "failed"}) {
+            assertNotNull(timer("auth.otp.issue", outcome));
+        }
+        for (OtpVerification verification : OtpVerification.values()) {
+            assertNotNull(timer("auth.otp.validate", verification.name().toLowerCase(Locale.ROOT)));
+        }
+        for (RefreshOutcome outcome : RefreshOutcome.values()) {
+            assertNotNull(timer("auth.refresh", outcome.name().toLowerCase(Locale.ROOT)));
+        }
+        for (RateLimit limit : RateLimit.values()) {
+            assertEquals(0.0, registry.get("auth.rate_limited").tag("limit", limit.name().toLowerCase(Locale.ROOT))
+                    .counter().count());
+        }
+    }
+
+    @Test
+    public void acceptedAndRejectedRequestsAreCountedSeparately() {
+        long start = System.nanoTime();
+        metrics.authenticated(start);
+        metrics.authenticated(start);
+        metrics.rejected(RejectionReason.EXPIRED, start);
+        metrics.rejected(RejectionReason.FORBIDDEN);
+
+        assertEquals(2L, timer("auth.filter", "authenticated").count());
+        // Only rejections inside the filter are timed; all of them are counted by reason
+        assertEquals(1L, timer("auth.filter", "rejected").count());
+        assertEquals(1.0, rejections(RejectionReason.EXPIRED).count());
+        assertEquals(1.0, rejections(RejectionReason.FORBIDDEN).count());
+        assertEquals(0.0, rejections(RejectionReason.REVOKED).count());
+
+        metrics.refreshed(RefreshOutcome.REUSED, start);
+        metrics.rateLimited(RateLimit.LOCKOUT);
+        assertEquals(1L, timer("auth.refresh", "reused").count());
+        assertEquals(0L, timer("auth.refresh", "rotated").count());
+        assertEquals(1.0, registry.get("auth.rate_limited").tag("limit", "lockout").counter().count());
+    }
+
+    private Timer timer(String name, String outcome) {
+        return registry.get(name).tag("outcome", outcome).timer();
+    }
+
+    private Counter rejections(RejectionReason reason) {
+        return registry.get("auth.rejections").tag("reason", reason.getTag()).counter();
+    }
+}
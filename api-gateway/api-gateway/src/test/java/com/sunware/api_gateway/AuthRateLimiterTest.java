@@ -0,0 +1,120 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.sunware.api_gateway.service.AuthRateLimiter;
+import com.sunware.api_gateway.service.RateLimitExceededException;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.SlidingWindowSketch;
+import com.sunware.api_gateway.util.TokenBuckets;
+
+public class AuthRateLimiterTest {
+
+    private static final String EMAIL = "jane@sunware.com";
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void tokenBucketAllowsABurstThenRefillsAtTheRate() {
+        TokenBuckets buckets = new TokenBuckets(3, Duration.ofSeconds(3), 100);
+        long now = 1000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, buckets.tryAcquire(EMAIL, now));
+        }
+        long wait = buckets.tryAcquire(EMAIL, now);
+        assertEquals(SECOND, wait);
+        assertEquals(wait, buckets.waitNanos(EMAIL, now));
+        assertEquals(0L, buckets.tryAcquire("john@sunware.com", now));
+
+        assertEquals(0L, buckets.tryAcquire(EMAIL, now + SECOND));
+        assertTrue(buckets.tryAcquire(EMAIL, now + SECOND) > 0);
+
+        buckets.reset(EMAIL);
+        assertEquals(0L, buckets.waitNanos(EMAIL, now + SECOND));
+    }
+
+    @Test
+    public void sketchCountsPerKeyOverASlidingWindow() {
+        long now = 0L;
+        SlidingWindowSketch sketch = new SlidingWindowSketch(1024, Duration.ofSeconds(10), now);
+
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i, sketch.incrementAndEstimate("10.0.0.1", now));
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.incrementAndEstimate("10.1." + (i / 256) + "." + (i % 256), now);
+        }
+        // Collisions can only add to a count; with 4 rows of 1024 they rarely do
+        assertTrue(sketch.incrementAndEstimate("10.0.0.1", now) >= 21);
+        assertTrue(sketch.incrementAndEstimate("192.168.0.1", now) <= 3);
+
+        // Halfway through the next window about half of the previous one still counts
+        long halfway = sketch.incrementAndEstimate("10.0.0.1", 15 * SECOND);
+        assertTrue(halfway >= 11 && halfway <= 14, "estimate " + halfway);
+        assertEquals(1L, sketch.incrementAndEstimate("10.0.0.1", 40 * SECOND));
+    }
+
+    @Test
+    public void keysWithTheSameStringHashAreCountedApart() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(1024, Duration.ofSeconds(10), 0L);
+        assertEquals("AaAaAa".hashCode(), "BBBBBB".hashCode());
+
+        for (int i = 0; i < 100; i++) {
+            sketch.incrementAndEstimate("AaAaAa", 0L);
+        }
+        assertEquals(1L, sketch.incrementAndEstimate("BBBBBB", 0L));
+    }
+
+    @Test
+    public void otpRequestsAreLimitedPerEmailAndPerIp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 10, 60, 1024, 2, 900, 1000, 3, 900,
+                new AuthMetrics(registry));
+
+        limiter.checkOtpRequest(EMAIL, "10.0.0.1");
+        limiter.checkOtpRequest(EMAIL.toUpperCase(), "10.0.0.2");
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkOtpRequest(EMAIL, "10.0.0.3"));
+        assertTrue(e.getRetryAfterSeconds() > 0);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.checkOtpRequest("user" + i + "@sunware.com", "10.0.0.9");
+        }
+        assertThrows(RateLimitExceededException.class, () -> limiter.checkRefresh("10.0.0.9"));
+        assertDoesNotThrow(() -> limiter.checkRefresh("10.0.0.10"));
+
+        assertEquals(1.0, registry.get("auth.rate_limited").tag("limit", "email").counter().count());
+        assertEquals(1.0, registry.get("auth.rate_limited").tag("limit", "ip").counter().count());
+    }
+
+    @Test
+    public void repeatedFailuresLockTheEmailOutUntilASuccess() {
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 1000, 60, 1024, 5, 900, 1000, 3, 900,
+                AuthMetrics.noop());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.checkOtpValidation(EMAIL, "10.0.0.1");
+            limiter.recordFailedValidation(EMAIL);
+        }
+        assertThrows(RateLimitExceededException.class, () -> limiter.checkOtpValidation(EMAIL, "10.0.0.2"));
+        assertDoesNotThrow(() -> limiter.checkOtpValidation("john@sunware.com", "10.0.0.2"));
+
+        limiter.recordSuccessfulValidation(EMAIL);
+        assertDoesNotThrow(() -> limiter.checkOtpValidation(EMAIL, "10.0.0.2"));
+
+        AuthRateLimiter disabled = new AuthRateLimiter(false, 0, 60, 1024, 1, 900, 1000, 1, 900,
+                AuthMetrics.noop());
+        disabled.recordFailedValidation(EMAIL);
+        assertDoesNotThrow(() -> disabled.checkOtpValidation(EMAIL, "10.0.0.1"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.sunware.api_gateway.model.Employee;
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.repository.EmployeeRepository;
+import com.sunware.api_gateway.service.EmployeeDirectoryService;
+import com.sunware.api_gateway.service.EmployeePermissionsChangedEvent;
+import com.sunware.api_gateway.service.EmployeeSnapshotService;
+
+@SpringJUnitConfig(EmployeeDirectoryServiceTest.CacheTestConfig.class)
+public class EmployeeDirectoryServiceTest {
+
+    private static final String EMAIL = "jane@sunware.com";
+
+    @Configuration
+    @EnableCaching
+    static class CacheTestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(EmployeeDirectoryService.EMPLOYEE_CACHE);
+        }
+
+        @Bean
+        EmployeeSnapshotService employeeSnapshotService() {
+            return new EmployeeSnapshotService("", 0);
+        }
+
+        @Bean
+        EmployeeDirectoryService employeeDirectoryService() {
+            return new EmployeeDirectoryService();
+        }
+    }
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeDirectoryService employeeDirectoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        employeeDirectoryService.invalidateAll();
+        reset(employeeRepository);
+        when(employeeRepository.findByEmail(EMAIL)).thenReturn(
+                new Employee(1L, EMAIL, null, Set.of(new Permission(1L, "onboard_employee"))));
+    }
+
+    @Test
+    public void repeatedLookupsHitTheDatabaseOnce() {
+        employeeDirectoryService.findByEmail(EMAIL);
+        assertEquals(Set.of("onboard_employee"), employeeDirectoryService.findByEmail(EMAIL).getPermissions());
+
+        verify(employeeRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    public void permissionChangeEventEvictsTheEmployee() {
+        employeeDirectoryService.findByEmail(EMAIL);
+        eventPublisher.publishEvent(new EmployeePermissionsChangedEvent(EMAIL));
+        employeeDirectoryService.findByEmail(EMAIL);
+
+        verify(employeeRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    public void unknownEmailsAreNotCached() {
+        assertNull(employeeDirectoryService.findByEmail("nobody@sunware.com"));
+        assertNull(employeeDirectoryService.findByEmail("nobody@sunware.com"));
+
+        verify(employeeRepository, times(2)).findByEmail("nobody@sunware.com");
+    }
+}
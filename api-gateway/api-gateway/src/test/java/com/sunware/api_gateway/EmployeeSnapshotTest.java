@@ -0,0 +1,154 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.service.EmployeeSnapshotExporter;
+import com.sunware.api_gateway.service.EmployeeSnapshotService;
+import com.sunware.api_gateway.util.EmployeeDirectorySnapshot;
+import com.sunware.api_gateway.util.EmployeeSnapshot;
+
+public class EmployeeSnapshotTest {
+
+    private static final String JANE = "jane@sunware.com";
+    private static final String JOHN = "john@sunware.com";
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:employees-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE permission (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE employee (id BIGINT PRIMARY KEY, email VARCHAR(255) NOT NULL, "
+                + "temporary_otp VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE employee_permission (employee_id BIGINT, permission_id BIGINT)");
+        jdbcTemplate.update("INSERT INTO permission VALUES (1, 'onboard_employee'), (2, 'update_employee')");
+        jdbcTemplate.update("INSERT INTO employee (id, email) VALUES (1, ?), (2, ?)", JANE, JOHN);
+        jdbcTemplate.update("INSERT INTO employee_permission VALUES (1, 1), (1, 2)");
+    }
+
+    @Test
+    public void snapshotLookupsUseTheSortedIndex() {
+        List<EmployeeView> employees = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            employees.add(new EmployeeView((long) i, "user" + i + "@sunware.com",
+                    i % 3 == 0 ? Set.of("onboard_employee") : Set.of("onboard_employee", "perm" + (i % 70))));
+        }
+        employees.add(new EmployeeView(5000L, "zoë@sunware.com", Set.of()));
+        Path file = dir.resolve("test.snap");
+        EmployeeSnapshot.write(file, 3L, 42L, employees);
+
+        EmployeeSnapshot snapshot = EmployeeSnapshot.open(file);
+        assertEquals(3L, snapshot.getVersion());
+        assertEquals(1001, snapshot.size());
+        for (EmployeeView employee : employees) {
+            assertEquals(employee, snapshot.find(employee.getEmail()));
+        }
+        assertNull(snapshot.find("nobody@sunware.com"));
+        assertNull(snapshot.find("user1@sunware.co"));
+    }
+
+    @Test
+    public void corruptSnapshotsAreRejected() throws IOException {
+        Path file = dir.resolve("test.snap");
+        EmployeeSnapshot.write(file, 1L, 0L, List.of(new EmployeeView(1L, JANE, Set.of("onboard_employee"))));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IllegalArgumentException.class, () -> EmployeeSnapshot.open(file));
+    }
+
+    @Test
+    public void exporterWritesDeltasThatInstancesApply() {
+        EmployeeSnapshotExporter exporter = new EmployeeSnapshotExporter(jdbcTemplate, dir.toString(), 2);
+        assertEquals(1L, exporter.export());
+
+        EmployeeSnapshotService service = new EmployeeSnapshotService(dir.toString(), 600000);
+        service.init();
+        assertEquals(Set.of("onboard_employee", "update_employee"), service.find(JANE).getPermissions());
+        assertEquals(Set.of(), service.find(JOHN).getPermissions());
+
+        assertEquals(1L, exporter.export()); // Unchanged tables write nothing
+        jdbcTemplate.update("INSERT INTO employee_permission VALUES (2, 2)");
+        jdbcTemplate.update("DELETE FROM employee_permission WHERE employee_id = 1");
+        jdbcTemplate.update("DELETE FROM employee WHERE id = 1");
+        assertEquals(2L, exporter.export());
+        assertTrue(Files.exists(EmployeeDirectorySnapshot.deltaPath(dir, 1L, 2L)));
+
+        service.refresh();
+        assertEquals(2L, service.getSnapshot().getVersion());
+        assertNull(service.find(JANE));
+        assertEquals(Set.of("update_employee"), service.find(JOHN).getPermissions());
+
+        // After max-deltas the next export is a full snapshot; the previous generation is kept
+        jdbcTemplate.update("INSERT INTO employee (id, email) VALUES (3, 'ann@sunware.com')");
+        assertEquals(3L, exporter.export());
+        jdbcTemplate.update("INSERT INTO employee_permission VALUES (3, 1)");
+        assertEquals(4L, exporter.export());
+        assertTrue(Files.exists(EmployeeDirectorySnapshot.snapshotPath(dir, 4L)));
+        assertTrue(Files.exists(EmployeeDirectorySnapshot.snapshotPath(dir, 1L)));
+
+        service.refresh();
+        assertEquals(4L, service.getSnapshot().getBaseVersion());
+        assertEquals(Set.of("onboard_employee"), service.find("ann@sunware.com").getPermissions());
+        assertEquals(Set.of("update_employee"), service.find(JOHN).getPermissions());
+    }
+
+    @Test
+    public void invalidatedEmployeesAreNotServedUntilANewerExport() throws InterruptedException {
+        EmployeeSnapshotExporter exporter = new EmployeeSnapshotExporter(jdbcTemplate, dir.toString(), 24);
+        exporter.export();
+        EmployeeSnapshotService service = new EmployeeSnapshotService(dir.toString(), 600000);
+        service.init();
+
+        service.invalidate(JANE);
+        assertNull(service.find(JANE));
+        assertNotNull(service.find(JOHN));
+
+        Thread.sleep(5);
+        jdbcTemplate.update("DELETE FROM employee_permission WHERE permission_id = 2");
+        exporter.export();
+        service.refresh();
+        assertEquals(Set.of("onboard_employee"), service.find(JANE).getPermissions());
+    }
+
+    @Test
+    public void snapshotsNotConfirmedCurrentWithinMaxAgeAreNotServed() throws InterruptedException {
+        EmployeeSnapshotExporter exporter = new EmployeeSnapshotExporter(jdbcTemplate, dir.toString(), 24);
+        exporter.export();
+        EmployeeSnapshotService service = new EmployeeSnapshotService(dir.toString(), 200);
+        service.init();
+        assertNotNull(service.find(JANE));
+
+        Thread.sleep(300);
+        assertNull(service.find(JANE));
+
+        // An export that finds nothing changed writes no delta but still confirms the loaded version
+        assertEquals(1L, exporter.export());
+        service.refresh();
+        assertEquals(Set.of("onboard_employee", "update_employee"), service.find(JANE).getPermissions());
+    }
+}
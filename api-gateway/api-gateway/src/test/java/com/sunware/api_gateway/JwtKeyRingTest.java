@@ -0,0 +1,95 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import com.sunware.api_gateway.util.JwtKeyRing;
+import com.sunware.api_gateway.util.JwtSigningKey;
+import com.sunware.api_gateway.util.JwtUtil;
+
+public class JwtKeyRingTest {
+
+    private static final long LIFETIME_MS = Duration.ofMinutes(30).toMillis();
+
+    private static JwtSigningKey hmacKey(String kid) {
+        SecretKey secret = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        return new JwtSigningKey(kid, SignatureAlgorithm.HS256, secret, secret);
+    }
+
+    @Test
+    public void successorActivatesOnScheduleAndPredecessorVerifiesForOneTokenLifetime() {
+        Instant t0 = Instant.parse("2026-10-01T00:00:00Z");
+        List<JwtKeyRing.Entry> entries = JwtKeyRing.schedule(List.of(
+                new JwtKeyRing.Entry(hmacKey("a"), t0, null),
+                new JwtKeyRing.Entry(hmacKey("b"), t0.plus(Duration.ofHours(1)), null)), LIFETIME_MS);
+
+        JwtKeyRing beforeRotation = JwtKeyRing.select(entries, t0.plus(Duration.ofMinutes(10)));
+        assertEquals("a", beforeRotation.getActiveKey().getKeyId());
+        assertEquals(Set.of("a", "b"), beforeRotation.getVerificationKeys().keySet());
+
+        JwtKeyRing overlap = JwtKeyRing.select(entries, t0.plus(Duration.ofMinutes(70)));
+        assertEquals("b", overlap.getActiveKey().getKeyId());
+        assertEquals(Set.of("a", "b"), overlap.getVerificationKeys().keySet());
+
+        JwtKeyRing afterOverlap = JwtKeyRing.select(entries, t0.plus(Duration.ofMinutes(91)));
+        assertEquals("b", afterOverlap.getActiveKey().getKeyId());
+        assertEquals(Set.of("b"), afterOverlap.getVerificationKeys().keySet());
+    }
+
+    @Test
+    public void reloadKeepsOutstandingTokensValid(@TempDir Path dir) throws Exception {
+        String secretA = Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        String secretB = Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        Instant past = Instant.now().minus(Duration.ofDays(1));
+        Path manifest = dir.resolve("keyring.properties");
+        Files.writeString(manifest, manifestEntry("a", secretA, past));
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME_MS", LIFETIME_MS);
+        ReflectionTestUtils.setField(jwtUtil, "keyRingFile", manifest.toString());
+        jwtUtil.init();
+        try {
+            String oldToken = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of());
+
+            // Key b takes over; key a is dropped from the manifest altogether
+            Files.writeString(manifest, manifestEntry("b", secretB, Instant.now().minusSeconds(1)));
+            jwtUtil.reloadKeyRing();
+
+            String newToken = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of());
+            assertEquals("b", keyId(newToken));
+            assertEquals("jane@sunware.com", jwtUtil.verifyToken(oldToken).getSubject());
+            assertEquals("jane@sunware.com", jwtUtil.verifyToken(newToken).getSubject());
+        } finally {
+            jwtUtil.close();
+        }
+    }
+
+    private static String manifestEntry(String kid, String secret, Instant activateAt) {
+        return "key." + kid + ".algorithm=HS256\n"
+                + "key." + kid + ".secret=" + secret + "\n"
+                + "key." + kid + ".activate-at=" + activateAt + "\n";
+    }
+
+    private static String keyId(String token) {
+        String unsigned = token.substring(0, token.lastIndexOf('.') + 1);
+        return (String) Jwts.parserBuilder().build().parseClaimsJwt(unsigned).getHeader().get(JwsHeader.KEY_ID);
+    }
+}
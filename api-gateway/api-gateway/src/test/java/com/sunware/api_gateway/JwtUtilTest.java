@@ -0,0 +1,106 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.util.JwtKeyLoader;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+public class JwtUtilTest {
+
+    private static final String SECRET =
+            "iPZrb83aREDEwmUwHoVNGOix6b2BYIm28YSW3nRbqFPki5K4wG980kQVHzVEsBg5NcNzvdFQFxEJvIM09snsGA==";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    public void setUp() {
+        jwtUtil = newJwtUtil(3600000L);
+    }
+
+    static JwtUtil newJwtUtil(long expirationMs) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(util, "algorithm", "HS256");
+        ReflectionTestUtils.setField(util, "EXPIRATION_TIME_MS", expirationMs);
+        util.init();
+        return util;
+    }
+
+    @Test
+    public void verifyTokenReturnsSubjectPermissionsAndExpiry() {
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com",
+                Set.of(new Permission(1L, "onboard_employee"), new Permission(2L, "update_employee")));
+
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+
+        assertEquals("jane@sunware.com", verified.getSubject());
+        assertEquals(Set.of("onboard_employee", "update_employee"), verified.getPermissions());
+        assertEquals(Set.of("onboard_employee", "update_employee"), verified.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+        assertTrue(verified.getExpirationMillis() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void verifyTokenRejectsTamperedSignature() {
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(IllegalArgumentException.class, () -> jwtUtil.verifyToken(tampered));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256"})
+    public void asymmetricTokensCarryKidAndArePublishedInJwks(String algorithm, @TempDir Path dir) throws Exception {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.forName(algorithm));
+        Path privateKey = Files.writeString(dir.resolve("private.pem"), JwtKeyLoader.toPem(keyPair.getPrivate()));
+        Path publicKey = Files.writeString(dir.resolve("public.pem"), JwtKeyLoader.toPem(keyPair.getPublic()));
+
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "algorithm", algorithm);
+        ReflectionTestUtils.setField(util, "EXPIRATION_TIME_MS", 3600000L);
+        ReflectionTestUtils.setField(util, "keyId", "key-1");
+        ReflectionTestUtils.setField(util, "privateKeyPath", privateKey.toString());
+        ReflectionTestUtils.setField(util, "publicKeyPath", publicKey.toString());
+        util.init();
+
+        String token = util.generateTokenWithPermissions("jane@sunware.com", Set.of(new Permission(1L, "read")));
+
+        assertEquals("jane@sunware.com", util.verifyToken(token).getSubject());
+        List<?> keys = (List<?>) util.getJwks().get("keys");
+        assertEquals(1, keys.size());
+        Map<?, ?> jwk = (Map<?, ?>) keys.get(0);
+        assertEquals("key-1", jwk.get("kid"));
+        assertEquals(algorithm, jwk.get("alg"));
+        assertFalse(jwk.containsKey("d"));
+    }
+
+    @Test
+    public void hmacKeysAreNeverPublished() {
+        assertEquals(List.of(), jwtUtil.getJwks().get("keys"));
+    }
+}
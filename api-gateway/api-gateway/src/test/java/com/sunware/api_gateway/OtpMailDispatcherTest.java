@@ -0,0 +1,81 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sunware.api_gateway.service.OtpMailDispatcher;
+
+import jakarta.mail.internet.MimeMessage;
+
+public class OtpMailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static JavaMailSenderImpl localSmtp() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(greenMail.getSmtp().getPort());
+        return sender;
+    }
+
+    @Test
+    public void queuedOtpsAreDeliveredToTheSmtpServer() throws Exception {
+        OtpMailDispatcher dispatcher = new OtpMailDispatcher(localSmtp(), 100, 2, 10, 3, 10);
+        dispatcher.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(dispatcher.dispatch("user" + i + "@sunware.com", "OTP00" + i));
+            }
+
+            assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+            MimeMessage[] received = greenMail.getReceivedMessages();
+            assertEquals(5, received.length);
+            assertEquals("Your OTP Code", received[0].getSubject());
+            assertTrue(GreenMailUtil.getBody(received[0]).startsWith("Your OTP code is: OTP00"));
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void fullQueueRejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sending = new CountDownLatch(1);
+        JavaMailSenderImpl stalledSmtp = new JavaMailSenderImpl() {
+            @Override
+            public void send(SimpleMailMessage... messages) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        OtpMailDispatcher dispatcher = new OtpMailDispatcher(stalledSmtp, 1, 1, 1, 1, 10);
+        dispatcher.start();
+        try {
+            assertTrue(dispatcher.dispatch("a@sunware.com", "111111"));
+            sending.await();
+            assertTrue(dispatcher.dispatch("b@sunware.com", "222222"));
+
+            assertFalse(dispatcher.dispatch("c@sunware.com", "333333"));
+            assertEquals(1, dispatcher.getRejectedCount());
+        } finally {
+            release.countDown();
+            dispatcher.stop();
+        }
+    }
+}
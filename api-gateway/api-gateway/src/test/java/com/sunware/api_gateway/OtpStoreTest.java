@@ -0,0 +1,74 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.sunware.api_gateway.repository.InMemoryOtpStore;
+import com.sunware.api_gateway.repository.JdbcOtpStore;
+import com.sunware.api_gateway.repository.OtpStore;
+import com.sunware.api_gateway.repository.OtpStore.OtpVerification;
+
+public class OtpStoreTest {
+
+    private static final String EMAIL = "jane@sunware.com";
+
+    static Stream<OtpStore> stores() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:otp-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        JdbcOtpStore jdbcStore = new JdbcOtpStore(jdbcTemplate, 3);
+        jdbcStore.createSchema();
+        return Stream.of(new InMemoryOtpStore(3), jdbcStore);
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void validOtpIsConsumedExactlyOnce(OtpStore store) {
+        store.store(EMAIL, "A1b2C3", Duration.ofMinutes(5));
+
+        assertEquals(OtpVerification.VALID, store.verify(EMAIL, "A1b2C3"));
+        assertEquals(OtpVerification.NOT_FOUND, store.verify(EMAIL, "A1b2C3"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void otpIsDroppedAfterMaxFailedAttempts(OtpStore store) {
+        store.store(EMAIL, "A1b2C3", Duration.ofMinutes(5));
+
+        assertEquals(OtpVerification.INVALID, store.verify(EMAIL, "wrong1"));
+        assertEquals(OtpVerification.INVALID, store.verify(EMAIL, "wrong2"));
+        assertEquals(OtpVerification.TOO_MANY_ATTEMPTS, store.verify(EMAIL, "wrong3"));
+        assertEquals(OtpVerification.NOT_FOUND, store.verify(EMAIL, "A1b2C3"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void newOtpReplacesPendingOneAndResetsAttempts(OtpStore store) {
+        store.store(EMAIL, "first1", Duration.ofMinutes(5));
+        store.verify(EMAIL, "wrong1");
+        store.verify(EMAIL, "wrong2");
+        store.store(EMAIL, "second", Duration.ofMinutes(5));
+
+        assertEquals(OtpVerification.INVALID, store.verify(EMAIL, "first1"));
+        assertEquals(OtpVerification.VALID, store.verify(EMAIL, "second"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void expiredOtpIsRejectedAndPurged(OtpStore store) {
+        store.store(EMAIL, "A1b2C3", Duration.ofMillis(-1));
+        store.store("john@sunware.com", "D4e5F6", Duration.ofMillis(-1));
+        store.store("mary@sunware.com", "G7h8I9", Duration.ofMinutes(5));
+
+        assertEquals(OtpVerification.EXPIRED, store.verify(EMAIL, "A1b2C3"));
+        assertEquals(1, store.purgeExpired());
+        assertEquals(OtpVerification.VALID, store.verify("mary@sunware.com", "G7h8I9"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sunware.api_gateway.model.Invalidation;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.service.PeerInvalidationBus;
+import com.sunware.api_gateway.util.InvalidationCodec;
+import com.sunware.api_gateway.util.InvalidationLog;
+
+public class PeerInvalidationBusTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final long EXPIRES_AT = System.currentTimeMillis() + 3_600_000;
+
+    private final List<URI> uris = new CopyOnWriteArrayList<>();
+    private final Set<URI> partitioned = ConcurrentHashMap.newKeySet();
+    private final List<PeerInvalidationBus> buses = new ArrayList<>();
+    private final List<FakeTarget> targets = new ArrayList<>();
+
+    @AfterEach
+    public void stop() {
+        buses.forEach(PeerInvalidationBus::stop);
+    }
+
+    @Test
+    public void publishedInvalidationsReachEveryOtherInstance() throws Exception {
+        startCluster(3, 100, 60_000);
+
+        buses.get(0).publish(Invalidation.employee("a@sunware.com"));
+        buses.get(0).publish(Invalidation.revocation(revocation("jti-1")));
+        buses.get(1).publish(Invalidation.employee(null));
+
+        await(() -> targets.get(1).applied.size() == 2 && targets.get(2).applied.size() == 3);
+        await(() -> targets.get(0).applied.size() == 1);
+        assertEquals(List.of(Invalidation.employee("a@sunware.com"), Invalidation.revocation(revocation("jti-1"))),
+                targets.get(1).applied);
+        assertTrue(targets.get(2).applied.contains(Invalidation.employee(null)));
+        assertEquals(List.of(Invalidation.employee(null)), targets.get(0).applied);
+    }
+
+    @Test
+    public void partitionedInstanceCatchesUpThroughAntiEntropy() throws Exception {
+        startCluster(3, 100, 200);
+        partitioned.add(uris.get(2));
+
+        for (int i = 0; i < 5; i++) {
+            buses.get(0).publish(Invalidation.revocation(revocation("jti-" + i)));
+        }
+        await(() -> targets.get(1).applied.size() == 5);
+        Thread.sleep(400);
+        assertTrue(targets.get(2).applied.isEmpty());
+
+        partitioned.clear();
+        await(() -> targets.get(2).applied.size() == 5);
+        assertEquals(targets.get(1).applied, targets.get(2).applied);
+        assertEquals(0, targets.get(2).resyncs.size());
+    }
+
+    @Test
+    public void instanceBehindTheLogIsResyncedFromASnapshot() throws Exception {
+        startCluster(2, 3, 200);
+        targets.get(0).active.add(revocation("jti-active"));
+        partitioned.add(uris.get(1));
+
+        for (int i = 0; i < 10; i++) {
+            buses.get(0).publish(Invalidation.employee("user" + i + "@sunware.com"));
+        }
+        Thread.sleep(400); // Past the push, which the partition drops
+        partitioned.clear();
+
+        await(() -> !targets.get(1).resyncs.isEmpty());
+        assertEquals(List.of(revocation("jti-active")), targets.get(1).resyncs.get(0));
+        assertTrue(buses.get(1).getSnapshotCount() >= 1);
+
+        // Caught up: later entries arrive as deltas again
+        buses.get(0).publish(Invalidation.employee("late@sunware.com"));
+        await(() -> targets.get(1).applied.contains(Invalidation.employee("late@sunware.com")));
+    }
+
+    @Test
+    public void framesSignedWithAnotherKeyAreRejected() throws Exception {
+        startCluster(1, 100, 60_000);
+        InvalidationCodec forger = new InvalidationCodec("another-key-another-key-another!!".getBytes());
+        byte[] frame = forger.encode(new InvalidationCodec.Frame(InvalidationCodec.Kind.PUSH, 42, 1,
+                List.of(new InvalidationLog.Entry(1, Invalidation.employee(null))), Map.of()));
+
+        HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(uris.get(0).resolve("/peer/push"))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(frame)).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(400, response.statusCode());
+        assertEquals(1, buses.get(0).getRejectedFrameCount());
+        assertTrue(targets.get(0).applied.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new InvalidationCodec(KEY).decode(frame));
+
+        InvalidationCodec codec = new InvalidationCodec(KEY);
+        byte[] pull = codec.encode(new InvalidationCodec.Frame(InvalidationCodec.Kind.PULL, 42, 0, List.of(),
+                Map.of(7L, 3L)));
+        assertEquals(Map.of(7L, 3L), codec.decode(pull).getDigest());
+        pull[pull.length - 40] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(pull));
+    }
+
+    // Every instance lists all of them, itself included, as discovery would; partitioned ones see and are seen by none
+    private void startCluster(int size, int logSize, long antiEntropyIntervalMs) throws Exception {
+        for (int i = 0; i < size; i++) {
+            FakeTarget target = new FakeTarget();
+            int index = i;
+            PeerInvalidationBus bus = new PeerInvalidationBus(new InvalidationCodec(KEY),
+                    () -> peersOf(index), target, 0, 10, logSize, antiEntropyIntervalMs, 1000);
+            bus.start();
+            buses.add(bus);
+            targets.add(target);
+            uris.add(URI.create("http://127.0.0.1:" + bus.getPort()));
+        }
+    }
+
+    private List<URI> peersOf(int index) {
+        if (index >= uris.size() || partitioned.contains(uris.get(index))) {
+            return List.of();
+        }
+        List<URI> peers = new ArrayList<>(uris);
+        peers.removeAll(partitioned);
+        return peers;
+    }
+
+    private static Revocation revocation(String jti) {
+        return new Revocation(Revocation.Type.TOKEN, jti, 0, EXPIRES_AT);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10 s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static final class FakeTarget implements PeerInvalidationBus.Target {
+
+        private final List<Invalidation> applied = new CopyOnWriteArrayList<>();
+        private final List<List<Revocation>> resyncs = new CopyOnWriteArrayList<>();
+        private final List<Revocation> active = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void apply(Invalidation invalidation) {
+            applied.add(invalidation);
+        }
+
+        @Override
+        public void resync(List<Revocation> revocations) {
+            resyncs.add(revocations);
+        }
+
+        @Override
+        public List<Revocation> activeRevocations() {
+            return List.copyOf(active);
+        }
+    }
+}
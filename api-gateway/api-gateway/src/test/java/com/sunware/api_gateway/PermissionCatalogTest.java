@@ -0,0 +1,67 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.PermissionCatalog;
+import com.sunware.api_gateway.util.PermissionSet;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+public class PermissionCatalogTest {
+
+    private static final PermissionCatalog CATALOG = PermissionCatalog.of(List.of(
+            new Permission(1L, "onboard_employee"),
+            new Permission(2L, "update_employee"),
+            new Permission(3L, "delete_employee"),
+            new Permission(9L, "read_payroll")));
+
+    @Test
+    public void bitsetRoundTripsAndDecodesToSharedAuthorities() {
+        String encoded = CATALOG.encode(List.of("update_employee", "read_payroll"));
+
+        PermissionSet first = CATALOG.decode(encoded, null);
+        PermissionSet second = CATALOG.decode(encoded, null);
+
+        assertEquals(Set.of("update_employee", "read_payroll"), first.getNames());
+        assertSame(first, second);
+        assertSame(first.getAuthorities().get(0),
+                CATALOG.decode(CATALOG.encode(List.of("update_employee")), null).getAuthorities().get(0));
+    }
+
+    @Test
+    public void namesOutsideTheCatalogStayInTheNamesList() {
+        List<String> granted = List.of("onboard_employee", "brand_new_permission");
+
+        String encoded = CATALOG.encode(granted);
+        List<String> unknown = CATALOG.unknown(granted);
+
+        assertEquals(List.of("brand_new_permission"), unknown);
+        assertEquals(Set.of("onboard_employee", "brand_new_permission"), CATALOG.decode(encoded, unknown).getNames());
+    }
+
+    @Test
+    public void bitsetTokensAreSmallerAndVerifyToTheSamePermissions() {
+        JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+        jwtUtil.setPermissionCatalog(CATALOG);
+        List<String> granted = List.of("onboard_employee", "update_employee", "delete_employee", "read_payroll");
+        String namesToken = jwtUtil.generateToken("jane@sunware.com", granted);
+
+        ReflectionTestUtils.setField(jwtUtil, "permissionEncoding", "bitset");
+        String bitsetToken = jwtUtil.generateToken("jane@sunware.com", granted);
+
+        VerifiedToken fromNames = jwtUtil.verifyToken(namesToken);
+        VerifiedToken fromBits = jwtUtil.verifyToken(bitsetToken);
+        assertEquals(fromNames.getPermissions(), fromBits.getPermissions());
+        assertTrue(bitsetToken.length() < namesToken.length(), bitsetToken.length() + " >= " + namesToken.length());
+        assertSame(fromBits.getAuthorities().get(0), jwtUtil.verifyToken(bitsetToken).getAuthorities().get(0));
+    }
+}
@@ -0,0 +1,101 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+
+import com.sunware.api_gateway.filter.ReactiveJwtAuthenticationFilter;
+import com.sunware.api_gateway.service.AuditLog;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class ReactiveJwtAuthenticationFilterTest {
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+    private final Scheduler authScheduler = Schedulers.newBoundedElastic(2, 10, "auth-test");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReactiveJwtAuthenticationFilter filter =
+            new ReactiveJwtAuthenticationFilter(new VerifiedTokenCache(jwtUtil),
+                    TokenPrecheckTest.newPrecheck(jwtUtil), TokenRevocationServiceTest.newRevocationService(jwtUtil),
+                    new AuthMetrics(registry), AuditLog.disabled(), authScheduler);
+
+    private double rejections(String reason) {
+        return registry.get("auth.rejections").tag("reason", reason).counter().count();
+    }
+
+    @AfterEach
+    public void disposeScheduler() {
+        authScheduler.dispose();
+    }
+
+    @Test
+    public void validTokenPopulatesReactiveSecurityContextOffTheCallerThread() {
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com",
+                Set.of(new Permission(1L, "onboard_employee")));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/onboard").header("Authorization", "Bearer " + token));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        AtomicReference<String> thread = new AtomicReference<>();
+        WebFilterChain chain = ex -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(authentication -> {
+                    seen.set(authentication);
+                    thread.set(Thread.currentThread().getName());
+                })
+                .then();
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals("jane@sunware.com", seen.get().getName());
+        assertEquals("onboard_employee", seen.get().getAuthorities().iterator().next().getAuthority());
+        assertTrue(thread.get().startsWith("auth-test"), thread.get());
+        assertNull(exchange.getResponse().getStatusCode());
+        assertEquals(1, registry.get("auth.filter").tag("outcome", "authenticated").timer().count());
+    }
+
+    @Test
+    public void invalidTokenIsRejectedWithoutCallingTheChain() {
+        String forged = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of()) + "x";
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/read").header("Authorization", "Bearer " + forged));
+        AtomicReference<Boolean> called = new AtomicReference<>(false);
+
+        filter.filter(exchange, ex -> Mono.fromRunnable(() -> called.set(true))).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals(false, called.get());
+        assertEquals(1.0, rejections("bad_signature"));
+    }
+
+    @Test
+    public void missingHeaderIsABadRequestAndAuthPathsBypassTheFilter() {
+        MockServerWebExchange missing = MockServerWebExchange.from(MockServerHttpRequest.get("/api/read"));
+        filter.filter(missing, ex -> Mono.empty()).block();
+        assertEquals(HttpStatus.BAD_REQUEST, missing.getResponse().getStatusCode());
+        assertEquals(1.0, rejections("missing_header"));
+
+        MockServerWebExchange auth = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/generate-otp"));
+        filter.filter(auth, ex -> Mono.empty()).block();
+        assertNull(auth.getResponse().getStatusCode());
+    }
+}
@@ -0,0 +1,149 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.sunware.api_gateway.model.EmployeeView;
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.model.TokenPair;
+import com.sunware.api_gateway.repository.InMemoryRefreshTokenStore;
+import com.sunware.api_gateway.repository.JdbcRefreshTokenStore;
+import com.sunware.api_gateway.repository.RefreshTokenStore;
+import com.sunware.api_gateway.service.EmployeeDirectoryService;
+import com.sunware.api_gateway.service.RefreshTokenService;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.service.TokenRevokedEvent;
+import com.sunware.api_gateway.util.AuthMetrics;
+import com.sunware.api_gateway.util.JwtUtil;
+
+public class RefreshTokenServiceTest {
+
+    private static final String EMAIL = "jane@sunware.com";
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+    private final TokenRevocationService revocations = TokenRevocationServiceTest.newRevocationService(jwtUtil);
+    private final EmployeeDirectoryService employees = mock(EmployeeDirectoryService.class);
+
+    static Stream<RefreshTokenStore> stores() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:refresh-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        JdbcRefreshTokenStore jdbcStore = new JdbcRefreshTokenStore(jdbcTemplate);
+        jdbcStore.createSchema();
+        return Stream.of(new InMemoryRefreshTokenStore(), jdbcStore);
+    }
+
+    private RefreshTokenService newService(RefreshTokenStore store, long ttlSeconds) {
+        return newService(store, ttlSeconds, revocations);
+    }
+
+    private RefreshTokenService newService(RefreshTokenStore store, long ttlSeconds,
+                                           TokenRevocationService revocationService) {
+        when(employees.findByEmail(EMAIL)).thenReturn(new EmployeeView(1L, EMAIL, Set.of("onboard_employee")));
+        return new RefreshTokenService(store, employees, jwtUtil, revocationService, AuthMetrics.noop(), ttlSeconds);
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void refreshRotatesTheTokenAndSignsCurrentPermissions(RefreshTokenStore store) {
+        RefreshTokenService service = newService(store, 60);
+        String first = service.issue(EMAIL);
+
+        TokenPair pair = service.refresh(first);
+
+        assertNotEquals(first, pair.getRefreshToken());
+        assertEquals(EMAIL, jwtUtil.verifyToken(pair.getAccessToken()).getSubject());
+        assertEquals(Set.of("onboard_employee"), jwtUtil.verifyToken(pair.getAccessToken()).getPermissions());
+        assertEquals(EMAIL, jwtUtil.verifyToken(service.refresh(pair.getRefreshToken()).getAccessToken())
+                .getSubject());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void replayingARedeemedTokenEndsTheSessionAndRevokesAccessTokens(RefreshTokenStore store) {
+        RefreshTokenService service = newService(store, 60);
+        String stolen = service.issue(EMAIL);
+        TokenPair legitimate = service.refresh(stolen);
+
+        assertThrows(RuntimeException.class, () -> service.refresh(stolen));
+
+        assertThrows(RuntimeException.class, () -> service.refresh(legitimate.getRefreshToken()));
+        assertTrue(revocations.isRevoked(jwtUtil.verifyToken(legitimate.getAccessToken())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void expiredUnknownAndLoggedOutTokensAreRejected(RefreshTokenStore store) {
+        RefreshTokenService expiring = newService(store, 0);
+        String expired = expiring.issue(EMAIL);
+        assertThrows(RuntimeException.class, () -> expiring.refresh(expired));
+        assertEquals(1, store.purgeExpired());
+
+        RefreshTokenService service = newService(store, 60);
+        assertThrows(RuntimeException.class, () -> service.refresh("not-a-refresh-token"));
+        assertThrows(RuntimeException.class, () -> service.refresh(null));
+
+        String loggedOut = service.issue(EMAIL);
+        service.revoke(loggedOut, EMAIL);
+        assertThrows(RuntimeException.class, () -> service.refresh(loggedOut));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void logoutLeavesARefreshTokenOfAnotherUserUntouched(RefreshTokenStore store) {
+        RefreshTokenService service = newService(store, 60);
+        String victims = service.issue(EMAIL);
+
+        service.revoke(victims, "mallory@sunware.com");
+
+        // Neither deleted nor marked used, so the owner's next refresh is not taken for a replay
+        assertEquals(EMAIL, jwtUtil.verifyToken(service.refresh(victims).getAccessToken()).getSubject());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void revokingAUserEndsTheirRefreshSessions(RefreshTokenStore store) throws InterruptedException {
+        RefreshTokenService service = newService(store, 60);
+        String refused = service.issue(EMAIL);
+        String deleted = service.issue(EMAIL);
+        Thread.sleep(5);
+
+        Revocation revocation = revocations.revokeUser(EMAIL, System.currentTimeMillis());
+        assertThrows(RuntimeException.class, () -> service.refresh(refused));
+
+        // An instance that has not seen the revocation finds the shared tokens gone once it is handled
+        service.onTokenRevoked(new TokenRevokedEvent(revocation));
+        RefreshTokenService uninformed =
+                newService(store, 60, TokenRevocationServiceTest.newRevocationService(jwtUtil));
+        assertThrows(RuntimeException.class, () -> uninformed.refresh(deleted));
+        assertEquals(EMAIL, jwtUtil.verifyToken(uninformed.refresh(service.issue(EMAIL)).getAccessToken())
+                .getSubject());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void revokingEveryoneIssuedBeforeACutoffEndsOlderRefreshSessions(RefreshTokenStore store)
+            throws InterruptedException {
+        RefreshTokenService service = newService(store, 60);
+        String older = service.issue(EMAIL);
+        Thread.sleep(5);
+
+        Revocation revocation = revocations.revokeIssuedBefore(System.currentTimeMillis());
+        service.onTokenRevoked(new TokenRevokedEvent(revocation));
+
+        assertThrows(RuntimeException.class, () -> service.refresh(older));
+        assertEquals(EMAIL, jwtUtil.verifyToken(service.refresh(service.issue(EMAIL)).getAccessToken()).getSubject());
+    }
+}
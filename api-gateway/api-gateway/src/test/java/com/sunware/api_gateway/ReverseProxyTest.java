@@ -0,0 +1,393 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sunware.api_gateway.filter.ProxyFilter;
+import com.sunware.api_gateway.filter.ReactiveProxyFilter;
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.service.IdentityAssertionService;
+import com.sunware.api_gateway.service.ProxyRouteService;
+import com.sunware.api_gateway.service.UpstreamResolver;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.PermissionCatalog;
+import com.sunware.api_gateway.util.ProxyMetrics;
+import com.sunware.api_gateway.util.ProxyRoute;
+import com.sunware.api_gateway.util.ProxyRouteTable;
+import com.sunware.api_gateway.util.RequestPath;
+import com.sunware.api_gateway.util.RoutePolicy;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.identity.IdentityAssertion;
+import com.sunware.identity.IdentityHeader;
+import com.sunware.identity.IdentityVerifier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+public class ReverseProxyTest {
+
+    private static final byte[] IDENTITY_KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // Expires in an hour; permissions 2 and 9 are in the catalog, the third is not
+    private static final VerifiedToken TOKEN = new VerifiedToken("jane.doe@sunware.com",
+            Set.of("update_employee", "read_payroll", "not_in_catalog"), System.currentTimeMillis() + 3_600_000);
+
+    @TempDir
+    Path dir;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamThreads;
+    private ProxyRouteService routes;
+    private UpstreamResolver resolver;
+    private IdentityAssertionService identity;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Echoes what it received: path and query, forwarding headers and the body, in a chunked response
+    private static void echo(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        exchange.getResponseHeaders().add("X-Upstream-Uri", exchange.getRequestURI().toString());
+        exchange.getResponseHeaders().add("X-Upstream-Forwarded-For",
+                String.valueOf(exchange.getRequestHeaders().getFirst("X-Forwarded-For")));
+        exchange.getResponseHeaders().add("X-Upstream-Te",
+                String.valueOf(exchange.getRequestHeaders().getFirst("TE")));
+        exchange.getResponseHeaders().add("X-Upstream-Identity",
+                String.valueOf(exchange.getRequestHeaders().getFirst(IdentityHeader.NAME)));
+        exchange.getResponseHeaders().add("X-Upstream-Authorization",
+                String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+        exchange.getResponseHeaders().add("X-Upstream-Client-Hop",
+                String.valueOf(exchange.getRequestHeaders().getFirst("X-Client-Hop")));
+        exchange.sendResponseHeaders(201, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write((exchange.getRequestMethod() + " ").getBytes(StandardCharsets.UTF_8));
+            out.write(body);
+        }
+    }
+
+    @BeforeEach
+    public void startUpstream() throws IOException {
+        upstreamThreads = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/", ReverseProxyTest::echo);
+        upstream.createContext("/base/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        upstream.setExecutor(upstreamThreads);
+        upstream.start();
+
+        String base = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        Path file = dir.resolve("proxy-routes.properties");
+        Files.writeString(file, String.join("\n",
+                "route.svc.pattern=/svc/**",
+                "route.svc.uri=" + base + "/base",
+                "route.svc.strip-prefix=1",
+                "route.slow.pattern=/svc/slow",
+                "route.slow.uri=" + base + "/base",
+                "route.slow.strip-prefix=1",
+                "route.slow.response-timeout-ms=200",
+                "route.legacy.pattern=/legacy/**",
+                "route.legacy.uri=" + base + "/base",
+                "route.legacy.strip-prefix=1",
+                "route.legacy.forward-authorization=true",
+                "route.discovered.pattern=/discovered/**",
+                "route.discovered.uri=lb://echo-service",
+                "route.missing.pattern=/missing/**",
+                "route.missing.uri=lb://missing-service",
+                "route.down.pattern=/down/**",
+                "route.down.uri=http://127.0.0.1:1"));
+        routes = new ProxyRouteService();
+        ReflectionTestUtils.setField(routes, "routesFile", file.toString());
+        ReflectionTestUtils.setField(routes, "responseTimeoutMs", 5000L);
+        routes.init();
+
+        SimpleDiscoveryProperties discovery = new SimpleDiscoveryProperties();
+        discovery.setInstances(Map.of("echo-service",
+                List.of(new DefaultServiceInstance("echo-1", "echo-service", "127.0.0.1",
+                        upstream.getAddress().getPort(), false))));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("discoveryClient", new SimpleDiscoveryClient(discovery));
+        resolver = new UpstreamResolver(beans.getBeanProvider(DiscoveryClient.class), 1000);
+
+        JwtUtil jwtUtil = new JwtUtil();
+        jwtUtil.setPermissionCatalog(PermissionCatalog.of(List.of(
+                new Permission(2L, "update_employee"), new Permission(9L, "read_payroll"))));
+        identity = new IdentityAssertionService(jwtUtil, Base64.getEncoder().encodeToString(IDENTITY_KEY), "k1", 30);
+    }
+
+    // What an upstream holding the key sees in the identity header
+    private static IdentityAssertion verifyIdentity(String header) {
+        return IdentityVerifier.withKey("k1", IDENTITY_KEY).verify(header);
+    }
+
+    @AfterEach
+    public void stopUpstream() {
+        routes.close();
+        upstream.stop(0);
+        upstreamThreads.shutdownNow();
+    }
+
+    @Test
+    public void routeTableMatchesTheMostSpecificPatternAndRewritesPaths() {
+        ProxyRouteTable table = ProxyRouteTable.load(new ByteArrayInputStream(String.join("\n",
+                "route.a.pattern=/a/**",
+                "route.a.uri=http://one:8080/v1/,http://two:8080/v1/",
+                "route.a.strip-prefix=1",
+                "route.b.pattern=/a/b/*",
+                "route.b.methods=GET",
+                "route.b.uri=lb://b-service").getBytes(StandardCharsets.UTF_8)), "test", Duration.ofSeconds(3));
+
+        assertEquals("b", table.match("GET", "/a/b/c").getName());
+        assertEquals("a", table.match("POST", "/a/b/c").getName());
+        assertNull(table.match("GET", "/api/onboard"));
+
+        ProxyRoute a = table.match("GET", "/a/x/y");
+        assertEquals(2, a.getUris().size());
+        assertEquals(Duration.ofSeconds(3), a.getResponseTimeout());
+        assertEquals(URI.create("http://one:8080/v1/x/y?q=a%20b"),
+                a.targetUri(a.getUris().get(0), "/a/x/y", "q=a%20b"));
+        assertEquals(URI.create("http://one:8080/v1/"), a.targetUri(a.getUris().get(0), "/a", null));
+
+        ProxyRoute b = table.match("GET", "/a/b/c");
+        assertTrue(b.isDiscovered());
+        assertEquals("b-service", b.getServiceId());
+
+        assertThrows(IllegalArgumentException.class, () -> ProxyRouteTable.load(new ByteArrayInputStream(
+                "route.x.pattern=/x/**\nroute.x.uri=ftp://x".getBytes(StandardCharsets.UTF_8)), "test",
+                Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void servletProxyStreamsBothWaysAndLeavesOtherPathsAlone() throws Exception {
+        try (CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create().build())
+                .disableAutomaticRetries()
+                .build()) {
+            ProxyFilter filter = new ProxyFilter(routes, resolver, client, new ProxyMetrics(registry), identity, 1000);
+
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/svc/items/7");
+            request.setQueryString("expand=a%20b");
+            request.setContent("{\"name\":\"jane\"}".getBytes(StandardCharsets.UTF_8));
+            request.setRemoteAddr("10.0.0.5");
+            request.addHeader("X-Forwarded-For", "203.0.113.9");
+            request.addHeader("TE", "trailers");
+            request.addHeader(IdentityHeader.NAME, "v1.k1.9999999999.forged");
+            request.addHeader("Authorization", "Bearer client-token");
+            request.addHeader("Connection", "keep-alive, X-Client-Hop");
+            request.addHeader("X-Client-Hop", "for the gateway only");
+            request.setAttribute(VerifiedToken.ATTRIBUTE, TOKEN);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, response, chain);
+
+            assertNull(chain.getRequest());
+            assertEquals(201, response.getStatus());
+            assertEquals("/base/items/7?expand=a%20b", response.getHeader("X-Upstream-Uri"));
+            assertEquals("203.0.113.9, 10.0.0.5", response.getHeader("X-Upstream-Forwarded-For"));
+            assertEquals("null", response.getHeader("X-Upstream-Te"));
+            // Headers the client's Connection header lists end at the gateway, and so does the bearer token
+            assertEquals("null", response.getHeader("X-Upstream-Client-Hop"));
+            assertEquals("null", response.getHeader("X-Upstream-Authorization"));
+            assertNull(response.getHeader("Transfer-Encoding"));
+            assertEquals("POST {\"name\":\"jane\"}", response.getContentAsString());
+            IdentityAssertion asserted = verifyIdentity(response.getHeader("X-Upstream-Identity"));
+            assertEquals("jane.doe@sunware.com", asserted.getSubject());
+            assertArrayEquals(new int[] {2, 9}, asserted.getPermissionIds());
+            assertTrue(asserted.getExpiresAtSeconds() <= System.currentTimeMillis() / 1000 + 30);
+            assertEquals(1.0, registry.get("gateway.proxy.requests").tag("route", "svc").tag("outcome", "2xx")
+                    .timer().count());
+
+            MockHttpServletResponse discovered = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/discovered/ping"), discovered, new MockFilterChain());
+            assertEquals(201, discovered.getStatus());
+            assertEquals("/discovered/ping", discovered.getHeader("X-Upstream-Uri"));
+            // Anonymous callers, and clients claiming an identity of their own, get none upstream
+            assertEquals("null", discovered.getHeader("X-Upstream-Identity"));
+
+            MockHttpServletRequest legacyRequest = new MockHttpServletRequest("GET", "/legacy/ping");
+            legacyRequest.addHeader("Authorization", "Bearer client-token");
+            MockHttpServletResponse legacy = new MockHttpServletResponse();
+            filter.doFilter(legacyRequest, legacy, new MockFilterChain());
+            assertEquals("Bearer client-token", legacy.getHeader("X-Upstream-Authorization"));
+
+            MockFilterChain local = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/onboard"), new MockHttpServletResponse(), local);
+            assertNotNull(local.getRequest());
+        }
+    }
+
+    @Test
+    public void encodedPathsAreRoutedAuthorizedAndForwardedInOneDecodedForm() throws Exception {
+        RoutePolicy policy = RoutePolicy.compile(List.of(
+                new RoutePolicy.Rule("svc", "/svc/**", List.of(), List.of()),
+                new RoutePolicy.Rule("svc-admin", "/svc/admin/**", List.of(), List.of("admin"))));
+        String path = RequestPath.decode("/svc/%61dmin/x;v=1");
+        assertEquals("/svc/admin/x", path);
+        assertFalse(policy.isAllowed("GET", path, AuthorityUtils.createAuthorityList("nothing")));
+
+        try (CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create().build())
+                .disableAutomaticRetries()
+                .build()) {
+            ProxyFilter filter = new ProxyFilter(routes, resolver, client, new ProxyMetrics(registry), identity, 1000);
+
+            assertEquals("/base/admin/x", proxy(filter, "/svc/%61dmin/x;v=1").getHeader("X-Upstream-Uri"));
+            assertEquals("/base/a%20b/c%3Bd", proxy(filter, "/svc/a%20b/c%3bd").getHeader("X-Upstream-Uri"));
+            assertEquals(504, proxy(filter, "/svc/sl%6Fw").getStatus()); // The slow route, as the policy sees it
+
+            MockFilterChain local = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", "/svc/%2e%2e/api/delete"), new MockHttpServletResponse(),
+                    local);
+            assertNotNull(local.getRequest());
+        }
+
+        ConnectionProvider provider = ConnectionProvider.builder("test").maxConnections(4).build();
+        try {
+            ReactiveProxyFilter filter = new ReactiveProxyFilter(routes, resolver, WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider))).build(),
+                    new ProxyMetrics(registry), identity);
+            MockServerWebExchange exchange = MockServerWebExchange.from(
+                    MockServerHttpRequest.method(HttpMethod.GET, URI.create("/svc/%61dmin/x;v=1")));
+            filter.filter(exchange, ex -> Mono.error(new AssertionError("not proxied"))).block(Duration.ofSeconds(10));
+            assertEquals("/base/admin/x", exchange.getResponse().getHeaders().getFirst("X-Upstream-Uri"));
+
+            MockServerWebExchange dotted = MockServerWebExchange.from(
+                    MockServerHttpRequest.method(HttpMethod.GET, URI.create("/svc/x%2F..%2Fy")));
+            boolean[] local = new boolean[1];
+            filter.filter(dotted, ex -> {
+                local[0] = true;
+                return Mono.empty();
+            }).block(Duration.ofSeconds(10));
+            assertTrue(local[0]);
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    @Test
+    public void servletProxyMapsUpstreamFailuresToGatewayStatuses() throws Exception {
+        try (CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create().build())
+                .disableAutomaticRetries()
+                .build()) {
+            ProxyFilter filter = new ProxyFilter(routes, resolver, client, new ProxyMetrics(registry), identity, 1000);
+
+            assertEquals(503, proxy(filter, "/missing/x").getStatus());
+            assertEquals(502, proxy(filter, "/down/x").getStatus());
+            MockHttpServletResponse slow = proxy(filter, "/svc/slow");
+            assertEquals(504, slow.getStatus());
+            assertTrue(slow.getContentAsString().contains("Gateway Timeout"));
+            assertEquals(1.0, registry.get("gateway.proxy.requests").tag("route", "slow").tag("outcome", "timeout")
+                    .timer().count());
+        }
+    }
+
+    private static MockHttpServletResponse proxy(ProxyFilter filter, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    public void reactiveProxyStreamsBothWaysAndMapsFailures() {
+        ConnectionProvider provider = ConnectionProvider.builder("test").maxConnections(4).build();
+        try {
+            WebClient webClient = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                    .build();
+            ReactiveProxyFilter filter = new ReactiveProxyFilter(routes, resolver, webClient,
+                    new ProxyMetrics(registry), identity);
+
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                    .method(HttpMethod.POST, URI.create("/svc/items/7?expand=a%20b"))
+                    .remoteAddress(new InetSocketAddress("10.0.0.5", 40000))
+                    .header(IdentityHeader.NAME, "v1.k1.9999999999.forged")
+                    .header("Authorization", "Bearer client-token")
+                    .header("Connection", "X-Client-Hop")
+                    .header("X-Client-Hop", "for the gateway only")
+                    .contentLength(15)
+                    .body("{\"name\":\"jane\"}"));
+            exchange.getAttributes().put(VerifiedToken.ATTRIBUTE, TOKEN);
+            filter.filter(exchange, ex -> Mono.error(new AssertionError("not proxied"))).block(Duration.ofSeconds(10));
+
+            assertEquals(HttpStatus.CREATED, exchange.getResponse().getStatusCode());
+            assertEquals("/base/items/7?expand=a%20b",
+                    exchange.getResponse().getHeaders().getFirst("X-Upstream-Uri"));
+            assertEquals("10.0.0.5", exchange.getResponse().getHeaders().getFirst("X-Upstream-Forwarded-For"));
+            assertEquals("null", exchange.getResponse().getHeaders().getFirst("X-Upstream-Client-Hop"));
+            assertEquals("null", exchange.getResponse().getHeaders().getFirst("X-Upstream-Authorization"));
+            assertEquals("POST {\"name\":\"jane\"}", exchange.getResponse().getBodyAsString().block());
+            assertEquals("jane.doe@sunware.com", verifyIdentity(
+                    exchange.getResponse().getHeaders().getFirst("X-Upstream-Identity")).getSubject());
+
+            assertEquals(HttpStatus.BAD_GATEWAY, reactiveProxy(filter, "/down/x"));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, reactiveProxy(filter, "/missing/x"));
+            assertEquals(HttpStatus.GATEWAY_TIMEOUT, reactiveProxy(filter, "/svc/slow"));
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    private static HttpStatus reactiveProxy(ReactiveProxyFilter filter, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(10));
+        return HttpStatus.valueOf(exchange.getResponse().getStatusCode().value());
+    }
+}
@@ -0,0 +1,147 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+
+import com.sunware.api_gateway.configuration.RoutePolicyAuthorizationManager;
+import com.sunware.api_gateway.util.RequestPath;
+import com.sunware.api_gateway.util.RoutePolicy;
+import com.sunware.api_gateway.util.RoutePolicyLoader;
+
+import reactor.core.publisher.Mono;
+
+public class RoutePolicyTest {
+
+    private static RoutePolicy load(String properties) {
+        InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8));
+        return RoutePolicyLoader.load(in, "test");
+    }
+
+    private static List<GrantedAuthority> authorities(String... names) {
+        return AuthorityUtils.createAuthorityList(names);
+    }
+
+    @Test
+    public void bundledPolicyKeepsThePermissionsTheControllersDeclared() {
+        RoutePolicy policy = RoutePolicyLoader.load(
+                RoutePolicyTest.class.getResourceAsStream("/route-policy.properties"), "route-policy.properties");
+
+        assertTrue(policy.isAllowed("GET", "/api/onboard", authorities("onboard_employee")));
+        assertFalse(policy.isAllowed("GET", "/api/onboard", authorities("update_employee")));
+        assertFalse(policy.isAllowed("GET", "/api/delete", authorities()));
+        assertTrue(policy.isAllowed("GET", "/api/read", authorities()));
+        assertTrue(policy.isAllowed("POST", "/admin/revocations/user", authorities("revoke_tokens")));
+        assertFalse(policy.isAllowed("POST", "/admin/revocations/token", authorities("verify_tokens")));
+        assertFalse(policy.isAllowed("POST", "/tokens/issue", authorities("verify_tokens")));
+        assertFalse(policy.isAllowed("GET", "/api/unlisted", authorities("onboard_employee")));
+    }
+
+    @Test
+    public void mostSpecificPatternAndMethodWin() {
+        RoutePolicy policy = load(String.join("\n",
+                "route.admin.pattern=/admin/**",
+                "route.admin.permissions=admin",
+                "route.item.pattern=/admin/*/items",
+                "route.item.permissions=read_items",
+                "route.items.pattern=/admin/reports/items",
+                "route.items.permissions=read_reports",
+                "route.items-write.pattern=/admin/reports/items",
+                "route.items-write.methods=post, put",
+                "route.items-write.permissions=read_reports,write_reports"));
+
+        assertEquals("items", policy.match("GET", "/admin/reports/items").getName());
+        assertEquals("items-write", policy.match("PUT", "/admin/reports/items/").getName());
+        assertEquals("item", policy.match("GET", "/admin/users/items").getName());
+        assertEquals("admin", policy.match("GET", "/admin/users/items/42").getName());
+        assertEquals("admin", policy.match("GET", "/admin").getName());
+        assertNull(policy.match("GET", "/api/read"));
+
+        assertTrue(policy.isAllowed("GET", "/admin/reports/items", authorities("read_reports")));
+        assertFalse(policy.isAllowed("POST", "/admin/reports/items", authorities("read_reports")));
+        assertTrue(policy.isAllowed("POST", "/admin/reports/items", authorities("write_reports", "read_reports")));
+    }
+
+    @Test
+    public void permissionBitsetsSpanSeveralWords() {
+        List<RoutePolicy.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rules.add(new RoutePolicy.Rule("r" + i, "/r/" + i, List.of(), List.of("p" + i, "p" + (i + 100))));
+        }
+        RoutePolicy policy = RoutePolicy.compile(rules);
+
+        assertTrue(policy.isAllowed("GET", "/r/150", authorities("p150", "p250")));
+        assertFalse(policy.isAllowed("GET", "/r/150", authorities("p150")));
+        assertFalse(policy.isAllowed("GET", "/r/150", authorities("p250", "unknown")));
+    }
+
+    @Test
+    public void invalidTablesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> load("route.a.pattern=/a/**/b\nroute.a.permissions=x"));
+        assertThrows(IllegalArgumentException.class, () -> load("route.a.pattern=a\nroute.a.permissions=x"));
+        assertThrows(IllegalArgumentException.class, () -> load("route.a.permissions=x"));
+        assertThrows(IllegalArgumentException.class,
+                () -> load("route.a.pattern=/a\nroute.b.pattern=/a/\nroute.b.permissions=x"));
+    }
+
+    @Test
+    public void pathsAreDecodedTheWayTheDispatcherSeesThem() {
+        assertEquals("/api/onboard", RequestPath.decode("/api/%6Fnboard"));
+        assertEquals("/api/onboard", RequestPath.decode("/api;jsessionid=x//onboard"));
+        assertEquals("/svc/a b/", RequestPath.decode("/svc/a%20b/"));
+        assertEquals("/", RequestPath.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> RequestPath.decode("/api/a%2Fb"));
+        assertThrows(IllegalArgumentException.class, () -> RequestPath.decode("/api/%2e%2e/admin"));
+        assertThrows(IllegalArgumentException.class, () -> RequestPath.decode("/api/%5cadmin"));
+        assertThrows(IllegalArgumentException.class, () -> RequestPath.decode("/api/%zz"));
+
+        assertEquals("/svc/a%20b/x%3By/", RequestPath.encode("/svc/a b/x;y/"));
+        assertEquals("/", RequestPath.encode("/"));
+    }
+
+    @Test
+    public void encodedSegmentsDoNotBypassThePolicyOnEitherStack() {
+        RoutePolicyAuthorizationManager manager = new RoutePolicyAuthorizationManager();
+        manager.init();
+        Authentication caller = new UsernamePasswordAuthenticationToken("a@sunware.com", null,
+                authorities("nothing"));
+
+        for (String path : List.of("/api/onboard", "/api/%6Fnboard", "/api/d%65lete", "/tokens/%69ssue",
+                "/api/%2e%2e/tokens/issue", "/api/x%2F..%2Fdelete")) {
+            MockHttpServletRequest servlet = new MockHttpServletRequest("POST", path);
+            assertFalse(manager.check(() -> caller, new RequestAuthorizationContext(servlet)).isGranted(), path);
+
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.POST, URI.create(path)));
+            assertFalse(manager.check(Mono.just(caller), new AuthorizationContext(exchange)).block().isGranted(),
+                    path);
+        }
+
+        Authentication reader = new UsernamePasswordAuthenticationToken("a@sunware.com", null, authorities());
+        MockServerWebExchange read = MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.GET, URI.create("/api/r%65ad")));
+        assertTrue(manager.check(Mono.just(reader), new AuthorizationContext(read)).block().isGranted());
+        MockHttpServletRequest onboard = new MockHttpServletRequest("GET", "/api/%6Fnboard");
+        assertTrue(manager.check(() -> new UsernamePasswordAuthenticationToken("a@sunware.com", null,
+                authorities("onboard_employee")), new RequestAuthorizationContext(onboard)).isGranted());
+    }
+}
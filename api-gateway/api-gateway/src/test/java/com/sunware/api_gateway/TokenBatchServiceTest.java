@@ -0,0 +1,104 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sunware.api_gateway.service.TokenBatchService;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.TokenVerificationResult;
+
+public class TokenBatchServiceTest {
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+    private final TokenRevocationService revocations = TokenRevocationServiceTest.newRevocationService(jwtUtil);
+    private final TokenBatchService batch = new TokenBatchService(jwtUtil, revocations, 1000, 4,
+            "verify_tokens, read");
+
+    @AfterEach
+    public void closePool() {
+        batch.close();
+    }
+
+    @Test
+    public void verifyReportsEachTokenInInputOrder() throws Exception {
+        String valid = jwtUtil.generateToken("svc-a", List.of("read"));
+        String revoked = jwtUtil.generateToken("svc-b", List.of("read"));
+        revocations.revokeToken(revoked);
+        String expired = JwtUtilTest.newJwtUtil(1L).generateToken("svc-c", List.of());
+        Thread.sleep(5L);
+
+        List<TokenVerificationResult> results = batch.verify(
+                Arrays.asList(valid, expired, valid + "x", revoked, "", null)).get();
+
+        assertEquals(6, results.size());
+        assertEquals("svc-a", results.get(0).getToken().getSubject());
+        assertEquals(Set.of("read"), results.get(0).getToken().getPermissions());
+        assertEquals(RejectionReason.EXPIRED, results.get(1).getRejection());
+        assertEquals(RejectionReason.BAD_SIGNATURE, results.get(2).getRejection());
+        assertEquals(RejectionReason.REVOKED, results.get(3).getRejection());
+        assertEquals(RejectionReason.MALFORMED, results.get(4).getRejection());
+        assertEquals(RejectionReason.MALFORMED, results.get(5).getRejection());
+    }
+
+    @Test
+    public void issueMintsOneVerifiableTokenPerSubject() throws Exception {
+        List<String> subjects = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            subjects.add("svc:batch-" + i);
+        }
+
+        List<String> tokens = batch.issue(subjects, List.of("verify_tokens"), Set.of("issue_tokens", "verify_tokens")).get();
+
+        List<TokenVerificationResult> results = batch.verify(tokens).get();
+        for (int i = 0; i < subjects.size(); i++) {
+            assertTrue(results.get(i).isValid());
+            assertEquals(subjects.get(i), results.get(i).getToken().getSubject());
+        }
+    }
+
+    @Test
+    public void emptyAndOversizedBatchesAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> batch.verify(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> batch.verify(Collections.nCopies(1001, "t")));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(Arrays.asList("svc:a", null), List.of(), Set.of()));
+    }
+
+    @Test
+    public void issuedSubjectsMustBeServicesAndNeverEmployees() {
+        Set<String> caller = Set.of("issue_tokens");
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(List.of("jane.doe@sunware.com"), List.of(), caller));
+        assertThrows(IllegalArgumentException.class, () -> batch.issue(List.of("svc:"), List.of(), caller));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(List.of("svc:ok", "svc-no-colon"), List.of(), caller));
+    }
+
+    @Test
+    public void issuedPermissionsAreAllowlistedAndHeldByTheCaller() throws Exception {
+        Set<String> caller = Set.of("issue_tokens", "revoke_tokens", "read");
+        // Not on the allowlist, even though the caller holds them
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(List.of("svc:a"), List.of("issue_tokens"), caller));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(List.of("svc:a"), List.of("revoke_tokens"), caller));
+        // On the allowlist, but not held by the caller
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.issue(List.of("svc:a"), List.of("verify_tokens"), caller));
+
+        String token = batch.issue(List.of("svc:a"), List.of("read"), caller).get().get(0);
+        assertEquals(Set.of("read"), jwtUtil.verifyToken(token).getPermissions());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.TokenPrecheck;
+import com.sunware.api_gateway.util.TokenPrecheck.Result;
+
+public class TokenPrecheckTest {
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+    private final TokenPrecheck precheck = newPrecheck(jwtUtil);
+
+    static TokenPrecheck newPrecheck(JwtUtil jwtUtil) {
+        TokenPrecheck precheck = new TokenPrecheck(jwtUtil);
+        ReflectionTestUtils.setField(precheck, "maxTokenLength", 1024);
+        return precheck;
+    }
+
+    private static String segment(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Result check(String header, String payload) {
+        return precheck.check("Bearer " + segment(header) + "." + segment(payload) + ".c2ln",
+                System.currentTimeMillis());
+    }
+
+    @Test
+    public void issuedTokensPass() {
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of());
+
+        assertEquals(Result.PASSED, precheck.check("Bearer " + token, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void expiryIsReadFromTheTopLevelPayloadOnly() {
+        long past = System.currentTimeMillis() / 1000 - 60;
+        long future = past + 3600;
+
+        assertEquals(Result.EXPIRED, check("{\"alg\":\"HS256\"}", "{\"sub\":\"a\",\"exp\":" + past + "}"));
+        assertEquals(Result.PASSED, check("{\"alg\":\"HS256\"}",
+                "{\"x\":{\"exp\":" + past + "},\"sub\":\"exp\",\"exp\" : " + future + "}"));
+        assertEquals(Result.PASSED, check("{\"alg\":\"HS256\"}", "{\"exp\":1.7e12}"));
+        assertEquals(Result.MALFORMED, check("{\"alg\":\"HS256\"}", "{\"sub\":\"a\"}"));
+    }
+
+    @Test
+    public void structureAndAlgorithmAreCheckedBeforeVerification() {
+        long future = System.currentTimeMillis() / 1000 + 3600;
+        String payload = "{\"exp\":" + future + "}";
+
+        assertEquals(Result.MISSING, precheck.check(null, 0));
+        assertEquals(Result.MISSING, precheck.check("Basic dXNlcjpwYXNz", 0));
+        assertEquals(Result.MALFORMED, precheck.check("Bearer not-a-jwt", 0));
+        assertEquals(Result.MALFORMED, precheck.check("Bearer a.b.c.d", 0));
+        assertEquals(Result.MALFORMED, precheck.check("Bearer " + segment("{\"alg\":\"none\"}") + "."
+                + segment(payload) + ".", 0));
+        assertEquals(Result.MALFORMED, precheck.check("Bearer " + "a".repeat(2000) + ".b.c", 0));
+        assertEquals(Result.MALFORMED, check("{\"alg\":\"RS256\"}", payload));
+        assertEquals(Result.MALFORMED, check("{\"typ\":\"JWT\"}", payload));
+        assertEquals(Result.PASSED, check("{\"typ\":\"JWT\", \"alg\": \"HS256\"}", payload));
+    }
+}
@@ -0,0 +1,139 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.sunware.api_gateway.model.Revocation;
+import com.sunware.api_gateway.repository.FileRevocationStore;
+import com.sunware.api_gateway.repository.JdbcRevocationStore;
+import com.sunware.api_gateway.repository.RevocationStore;
+import com.sunware.api_gateway.service.TokenRevocationService;
+import com.sunware.api_gateway.util.InvalidTokenException;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.PermissionCatalog;
+import com.sunware.api_gateway.util.PermissionSet;
+import com.sunware.api_gateway.util.RejectionReason;
+import com.sunware.api_gateway.util.RevocationList;
+import com.sunware.api_gateway.util.VerifiedToken;
+
+public class TokenRevocationServiceTest {
+
+    private static final String EMAIL = "jane@sunware.com";
+    private static final PermissionSet NO_PERMISSIONS = PermissionCatalog.empty().decode(null, List.of());
+
+    private final JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+
+    static TokenRevocationService newRevocationService(JwtUtil jwtUtil) {
+        return newRevocationService(fileStore(), jwtUtil);
+    }
+
+    static TokenRevocationService newRevocationService(RevocationStore store, JwtUtil jwtUtil) {
+        TokenRevocationService service = new TokenRevocationService(store, jwtUtil);
+        service.init();
+        return service;
+    }
+
+    private static FileRevocationStore fileStore() {
+        try {
+            Path log = Files.createTempFile("revocations", ".log");
+            log.toFile().deleteOnExit();
+            return new FileRevocationStore(log.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Stream<RevocationStore> stores() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:revocation-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        JdbcRevocationStore jdbcStore = new JdbcRevocationStore(jdbcTemplate);
+        jdbcStore.createSchema();
+        return Stream.of(fileStore(), jdbcStore);
+    }
+
+    private static VerifiedToken token(String subject, String jti, long issuedAtMillis) {
+        return new VerifiedToken(subject, NO_PERMISSIONS, jti, issuedAtMillis, issuedAtMillis + 3600000L);
+    }
+
+    @Test
+    public void revokingATokenRejectsOnlyThatToken() {
+        TokenRevocationService service = newRevocationService(jwtUtil);
+        String revoked = jwtUtil.generateTokenWithPermissions(EMAIL, Set.of());
+        String other = jwtUtil.generateTokenWithPermissions(EMAIL, Set.of());
+
+        service.revokeToken(revoked);
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> service.checkNotRevoked(jwtUtil.verifyToken(revoked)));
+        assertEquals(RejectionReason.REVOKED, e.getReason());
+        assertDoesNotThrow(() -> service.checkNotRevoked(jwtUtil.verifyToken(other)));
+        assertThrows(InvalidTokenException.class, () -> service.revokeToken(revoked + "x"));
+    }
+
+    @Test
+    public void userAndGlobalCutoffsCoverOnlyEarlierTokens() {
+        TokenRevocationService service = newRevocationService(jwtUtil);
+        long now = System.currentTimeMillis();
+
+        service.revokeUser(EMAIL, now);
+        assertTrue(service.isRevoked(token(EMAIL, "a", now - 1000)));
+        assertTrue(service.isRevoked(token(EMAIL, null, 0L)));
+        assertFalse(service.isRevoked(token(EMAIL, "b", now + 1000)));
+        assertFalse(service.isRevoked(token("john@sunware.com", "c", now - 1000)));
+
+        service.revokeIssuedBefore(now - 5000);
+        assertTrue(service.isRevoked(token("john@sunware.com", "d", now - 6000)));
+        assertFalse(service.isRevoked(token("john@sunware.com", "e", now - 1000)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    public void revocationsAreReloadedFromTheStoreAndPurgedAfterExpiry(RevocationStore store) {
+        long now = System.currentTimeMillis();
+        store.append(Revocation.token("expired", now - 1));
+        newRevocationService(store, jwtUtil).revokeUser(EMAIL, now);
+
+        TokenRevocationService restarted = newRevocationService(store, jwtUtil);
+        assertEquals(1, restarted.getRevocations().size());
+        assertTrue(restarted.isRevoked(token(EMAIL, "a", now - 1000)));
+
+        assertEquals(1, store.purgeExpired(now));
+        assertEquals(1, store.loadActive(now).size());
+        assertEquals(1, store.purgeExpired(now + 3600000L));
+        assertTrue(store.loadActive(now).isEmpty());
+    }
+
+    @Test
+    public void bloomFilterHasNoFalseNegatives() {
+        long now = System.currentTimeMillis();
+        List<Revocation> revocations = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            revocations.add(Revocation.token("jti-" + i, now + 60000));
+        }
+        RevocationList list = RevocationList.of(revocations, now);
+
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(list.isRevoked(token(EMAIL, "jti-" + i, now)));
+            assertFalse(list.isRevoked(token(EMAIL, "other-" + i, now)));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sunware.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sunware.api_gateway.model.Permission;
+import com.sunware.api_gateway.util.JwtUtil;
+import com.sunware.api_gateway.util.VerifiedToken;
+import com.sunware.api_gateway.util.VerifiedTokenCache;
+
+public class VerifiedTokenCacheTest {
+
+    private static VerifiedTokenCache newCache(JwtUtil jwtUtil, boolean enabled) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil);
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    public void repeatedTokenIsServedFromCache() {
+        JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+        VerifiedTokenCache cache = newCache(jwtUtil, true);
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com",
+                Set.of(new Permission(1L, "onboard_employee")));
+
+        VerifiedToken first = cache.verify(token);
+        VerifiedToken second = cache.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void invalidTokensAreNotCached() {
+        JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+        VerifiedTokenCache cache = newCache(jwtUtil, true);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.verify("not.a.token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void disabledCacheDelegatesToJwtUtil() {
+        JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(3600000L);
+        VerifiedTokenCache cache = newCache(jwtUtil, false);
+        String token = jwtUtil.generateTokenWithPermissions("jane@sunware.com", Set.of());
+
+        assertEquals("jane@sunware.com", cache.verify(token).getSubject());
+        assertEquals(0, cache.stats().requestCount());
+    }
+}
@@ -0,0 +1,46 @@
+package com.sunware.identity;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A verified identity header: who the gateway authenticated and which permission ids they hold.
+ * Instances are immutable.
+ */
+public final class IdentityAssertion {
+
+    private final String subject;
+    private final long expiresAtSeconds;
+    private final long[] permissionBits;
+
+    IdentityAssertion(String subject, long expiresAtSeconds, long[] permissionBits) {
+        this.subject = subject;
+        this.expiresAtSeconds = expiresAtSeconds;
+        this.permissionBits = permissionBits;
+    }
+
+    // The JWT subject, the employee's email
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getExpiresAtSeconds() {
+        return expiresAtSeconds;
+    }
+
+    // Ids are the rows of the permission table
+    public boolean hasPermission(int permissionId) {
+        int word = permissionId >>> 6;
+        return permissionId >= 0 && word < permissionBits.length && (permissionBits[word] & (1L << permissionId)) != 0;
+    }
+
+    public int[] getPermissionIds() {
+        return BitSet.valueOf(permissionBits).stream().toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "IdentityAssertion{subject='" + subject + "', permissions=" + Arrays.toString(getPermissionIds())
+                + ", expiresAt=" + expiresAtSeconds + '}';
+    }
+}
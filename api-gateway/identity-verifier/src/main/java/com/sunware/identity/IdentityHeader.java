@@ -0,0 +1,50 @@
+package com.sunware.identity;
+
+/**
+ * The identity assertion the gateway adds to every proxied request once it has verified the caller's JWT.
+ * <p>
+ * The value is six dot-separated ASCII fields:
+ * <pre>
+ * v1.&lt;key id&gt;.&lt;expiry, epoch seconds&gt;.&lt;subject&gt;.&lt;permissions&gt;.&lt;mac&gt;
+ * </pre>
+ * The subject is base64url (no padding) of its UTF-8 bytes. Permissions are base64url of a little-endian
+ * bitset over permission-table ids ({@link java.util.BitSet#toByteArray()}), empty when there are none.
+ * The MAC is HMAC-SHA256 over everything before the last dot, truncated to 16 bytes and base64url encoded.
+ * Assertions live for seconds, so a captured one is soon useless.
+ */
+public final class IdentityHeader {
+
+    public static final String NAME = "X-Sunware-Identity";
+
+    public static final String VERSION = "v1";
+
+    static final String MAC_ALGORITHM = "HmacSHA256";
+    static final int MAC_LENGTH = 16;
+    static final int MIN_KEY_LENGTH = 32;
+
+    // Longer values are rejected before any parsing
+    static final int MAX_LENGTH = 2048;
+
+    private IdentityHeader() {
+    }
+
+    // Key ids travel in the header, so they are limited to base64url characters
+    static String checkKeyId(String keyId) {
+        if (keyId == null || keyId.isEmpty() || keyId.length() > 32) {
+            throw new IllegalArgumentException("Identity key id must be 1 to 32 characters");
+        }
+        for (int i = 0; i < keyId.length(); i++) {
+            char c = keyId.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                throw new IllegalArgumentException("Identity key id may only contain [A-Za-z0-9_-]: " + keyId);
+            }
+        }
+        return keyId;
+    }
+
+    static void checkKey(byte[] key) {
+        if (key == null || key.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("Identity key must be at least " + MIN_KEY_LENGTH + " bytes");
+        }
+    }
+}
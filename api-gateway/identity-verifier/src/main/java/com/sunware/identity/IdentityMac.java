@@ -0,0 +1,49 @@
+package com.sunware.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Truncated HMAC-SHA256 with the key schedule done once: every call works on a clone of a keyed prototype,
+ * so signing and verifying allocate one small object and never touch the provider registry.
+ */
+final class IdentityMac {
+
+    private final Mac prototype;
+    private final SecretKeySpec key;
+
+    IdentityMac(byte[] key) {
+        IdentityHeader.checkKey(key);
+        this.key = new SecretKeySpec(key, IdentityHeader.MAC_ALGORITHM);
+        try {
+            this.prototype = Mac.getInstance(IdentityHeader.MAC_ALGORITHM);
+            this.prototype.init(this.key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // MAC over the first length bytes
+    byte[] compute(byte[] data, int length) {
+        Mac mac = newMac();
+        mac.update(data, 0, length);
+        return Arrays.copyOf(mac.doFinal(), IdentityHeader.MAC_LENGTH);
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Providers that cannot clone get a fresh instance
+            try {
+                Mac mac = Mac.getInstance(IdentityHeader.MAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException unavailable) {
+                throw new IllegalStateException("HmacSHA256 is not available", unavailable);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.sunware.identity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.BitSet;
+
+/**
+ * Writes {@link IdentityHeader} values; used by the gateway, and by tests of services that verify them.
+ * Thread-safe.
+ */
+public final class IdentitySigner {
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final String keyId;
+    private final IdentityMac mac;
+
+    public IdentitySigner(String keyId, byte[] key) {
+        this.keyId = IdentityHeader.checkKeyId(keyId);
+        this.mac = new IdentityMac(key);
+    }
+
+    public String sign(String subject, BitSet permissionIds, long expiresAtSeconds) {
+        StringBuilder value = new StringBuilder(96)
+                .append(IdentityHeader.VERSION).append('.')
+                .append(keyId).append('.')
+                .append(expiresAtSeconds).append('.')
+                .append(BASE64.encodeToString(subject.getBytes(StandardCharsets.UTF_8))).append('.');
+        if (!permissionIds.isEmpty()) {
+            value.append(BASE64.encodeToString(permissionIds.toByteArray()));
+        }
+        byte[] signed = value.toString().getBytes(StandardCharsets.US_ASCII);
+        return value.append('.').append(BASE64.encodeToString(mac.compute(signed, signed.length))).toString();
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.sunware.identity;
+
+/**
+ * Thrown by {@link IdentityVerifier} for a header that is missing, malformed, forged or expired. The caller
+ * should answer 401 and must not fall back to trusting the request.
+ */
+public class InvalidIdentityException extends RuntimeException {
+
+    public InvalidIdentityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.sunware.identity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+public class IdentityVerifierTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEXT_KEY = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    public void signedHeaderRoundTrips() {
+        BitSet permissions = new BitSet();
+        permissions.set(2);
+        permissions.set(9);
+        permissions.set(130);
+        String header = new IdentitySigner("k1", KEY).sign("jane.doe@sunware.com", permissions, NOW + 30);
+
+        IdentityAssertion identity = IdentityVerifier.withKey("k1", KEY).verify(header, NOW);
+
+        assertEquals("jane.doe@sunware.com", identity.getSubject());
+        assertEquals(NOW + 30, identity.getExpiresAtSeconds());
+        assertArrayEquals(new int[] {2, 9, 130}, identity.getPermissionIds());
+        assertTrue(identity.hasPermission(9));
+        assertFalse(identity.hasPermission(3));
+        assertFalse(identity.hasPermission(1000));
+        assertFalse(identity.hasPermission(-1));
+
+        IdentityAssertion none = IdentityVerifier.withKey("k1", KEY)
+                .verify(new IdentitySigner("k1", KEY).sign("x@sunware.com", new BitSet(), NOW + 30), NOW);
+        assertEquals(0, none.getPermissionIds().length);
+    }
+
+    @Test
+    public void tamperedForgedOrExpiredHeadersAreRejected() {
+        BitSet permissions = new BitSet();
+        permissions.set(2);
+        String header = new IdentitySigner("k1", KEY).sign("jane.doe@sunware.com", permissions, NOW + 30);
+        IdentityVerifier verifier = IdentityVerifier.withKey("k1", KEY);
+
+        // Granting an extra permission changes the signed bytes
+        BitSet escalated = (BitSet) permissions.clone();
+        escalated.set(3);
+        String[] fields = header.split("\\.");
+        fields[4] = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(escalated.toByteArray());
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(String.join(".", fields), NOW));
+
+        String forged = new IdentitySigner("k1", NEXT_KEY).sign("jane.doe@sunware.com", permissions, NOW + 30);
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(forged, NOW));
+
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(header, NOW + 30));
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(null, NOW));
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify("v1.k1.garbage", NOW));
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(header + ".extra", NOW));
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify("v2" + header.substring(2), NOW));
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(header.replace(".k1.", ".!!."), NOW));
+
+        char[] padded = new char[IdentityHeader.MAX_LENGTH + 1];
+        Arrays.fill(padded, 'a');
+        assertThrows(InvalidIdentityException.class, () -> verifier.verify(new String(padded), NOW));
+    }
+
+    @Test
+    public void keysRotateByKeyId() {
+        String old = new IdentitySigner("k1", KEY).sign("jane.doe@sunware.com", new BitSet(), NOW + 30);
+        String rotated = new IdentitySigner("k2", NEXT_KEY).sign("jane.doe@sunware.com", new BitSet(), NOW + 30);
+
+        IdentityVerifier before = IdentityVerifier.withKey("k1", KEY);
+        IdentityVerifier during = before.andKey("k2", NEXT_KEY);
+
+        assertThrows(InvalidIdentityException.class, () -> before.verify(rotated, NOW));
+        assertEquals("jane.doe@sunware.com", during.verify(old, NOW).getSubject());
+        assertEquals("jane.doe@sunware.com", during.verify(rotated, NOW).getSubject());
+
+        assertThrows(IllegalArgumentException.class, () -> new IdentitySigner("k1", new byte[16]));
+        assertThrows(IllegalArgumentException.class, () -> new IdentitySigner("k.1", KEY));
+    }
+}